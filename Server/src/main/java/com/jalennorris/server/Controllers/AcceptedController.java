@@ -1,9 +1,13 @@
 package com.jalennorris.server.Controllers;
 
 import com.jalennorris.server.dto.AcceptedDTO;
+import com.jalennorris.server.dto.AcceptedSuggestionDTO;
+import com.jalennorris.server.dto.MaterializedTaskDTO;
+import com.jalennorris.server.query.ListQuery;
 import com.jalennorris.server.service.AcceptedService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.MultiValueMap;
 import org.springframework.web.bind.annotation.*;
 
 import jakarta.validation.Valid;
@@ -18,9 +22,32 @@ public class AcceptedController {
     @Autowired
     private AcceptedService acceptedService;
 
+    // List accepted tasks; with after/size one keyset page at a time, e.g.
+    // /api/accepted?userId=..&deadline.lt=..&sort=-acceptedAt&after=<cursor>&size=.. (see ListQuery)
     @GetMapping
-    public ResponseEntity<List<AcceptedDTO>> getAllAccepted() {
-        return ResponseEntity.ok(acceptedService.getAllAccepted());
+    public ResponseEntity<Object> getAllAccepted(@RequestParam MultiValueMap<String, String> params) {
+        ListQuery query;
+        try {
+            query = ListQuery.parse(AcceptedService.LIST_QUERY, params);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        return query.response(acceptedService.listAccepted(null, query));
+    }
+
+    // A page of a user's accepted tasks, newest accepted first unless sorted otherwise, with
+    // optional ranges (timestamps with an offset): /api/accepted/user/{userId}?acceptedAt.gte=..
+    // &acceptedAt.lt=..&deadline.gte=..&deadline.lt=..&after=<cursor>&size=..
+    @GetMapping("/user/{userId}")
+    public ResponseEntity<Object> getAcceptedByUser(@PathVariable Long userId,
+                                                    @RequestParam MultiValueMap<String, String> params) {
+        ListQuery query;
+        try {
+            query = ListQuery.parsePage(AcceptedService.LIST_QUERY, params, "userId");
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        return query.response(acceptedService.listAccepted(userId, query));
     }
 
     @GetMapping("/{id}")
@@ -41,6 +68,18 @@ public class AcceptedController {
         return ResponseEntity.status(201).body(created);
     }
 
+    // Accept suggestions and create their tasks (and subtasks) in one transaction, replacing
+    // /batch/create followed by /api/tasks/batch; returns the created ids in request order
+    @PostMapping("/user/{userId}/materialize")
+    public ResponseEntity<List<MaterializedTaskDTO>> acceptAndMaterialize(
+            @PathVariable Long userId, @RequestBody List<AcceptedSuggestionDTO> suggestions) {
+        try {
+            return ResponseEntity.status(201).body(acceptedService.acceptAndMaterialize(userId, suggestions));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @PatchMapping("/{id}")
     public ResponseEntity<AcceptedDTO> updateAccepted(@PathVariable Long id, @RequestBody AcceptedDTO accepted) {
         Optional<AcceptedDTO> updated = acceptedService.updateAccepted(id, accepted);
@@ -2,12 +2,22 @@ package com.jalennorris.server.Controllers;
 
 import com.jalennorris.server.Models.UserFeedback;
 import com.jalennorris.server.Models.UserModels;
+import com.jalennorris.server.dto.FeedbackRatingStatsDTO;
+import com.jalennorris.server.dto.PageResponse;
+import com.jalennorris.server.query.ListQuery;
 import com.jalennorris.server.service.FeedbackService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.MultiValueMap;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @RestController
@@ -17,9 +27,76 @@ public class FeedbackController {
     @Autowired
     private FeedbackService feedbackService;
 
+    private static final int MAX_PAGE_SIZE = 200;
+
+    // List feedback, newest first by default; with after/size one keyset page at a time, e.g.
+    // /api/feedback?userId=..&rating.lte=2&sort=-createdAt&after=<cursor>&size=.. (see ListQuery)
     @GetMapping
-    public ResponseEntity<List<UserFeedback>> getAllFeedback() {
-        return ResponseEntity.ok(feedbackService.getAllFeedback());
+    public ResponseEntity<Object> getAllFeedback(@RequestParam MultiValueMap<String, String> params) {
+        ListQuery query;
+        try {
+            query = ListQuery.parse(FeedbackService.LIST_QUERY, params);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        return query.response(feedbackService.listFeedback(query));
+    }
+
+    // Filtered, keyset-paginated feedback for review, as DTOs; same filters and sorts as the list:
+    // /api/feedback/admin?rating.gte=..&rating.lte=..&createdAt.gte=..&createdAt.lt=..&acceptedAITaskId=..
+    // &userId=..&after=<cursor>&size=..
+    @GetMapping("/admin")
+    public ResponseEntity<Object> searchFeedback(@RequestParam MultiValueMap<String, String> params) {
+        ListQuery query;
+        try {
+            query = ListQuery.parsePage(FeedbackService.LIST_QUERY, params);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        return query.response(feedbackService.searchFeedback(query));
+    }
+
+    // Count, average and distribution of ratings per accepted AI task:
+    // /api/feedback/stats/accepted-tasks?from=&to=&after=<cursor>&size=..
+    @GetMapping("/stats/accepted-tasks")
+    public ResponseEntity<PageResponse<FeedbackRatingStatsDTO>> getAcceptedTaskRatingStats(
+            @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(value = "after", required = false) Long after,
+            @RequestParam(value = "size", defaultValue = "50") int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            return ResponseEntity.ok(feedbackService.getAcceptedTaskRatingStats(after, size, from, to));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/stats/accepted-tasks/{acceptedTaskId}")
+    public ResponseEntity<FeedbackRatingStatsDTO> getAcceptedTaskRatingStats(@PathVariable Long acceptedTaskId) {
+        return ResponseEntity.ok(feedbackService.getAcceptedTaskRatingStats(acceptedTaskId));
+    }
+
+    @GetMapping("/stats/users/{userId}")
+    public ResponseEntity<FeedbackRatingStatsDTO> getUserRatingStats(@PathVariable Long userId) {
+        return ResponseEntity.ok(feedbackService.getUserRatingStats(userId));
+    }
+
+    // Rating stats per time bucket: /api/feedback/stats/timeline?bucket=day|week|month&from=&to=&acceptedAITaskId=&userId=
+    @GetMapping("/stats/timeline")
+    public ResponseEntity<List<FeedbackRatingStatsDTO>> getRatingTimeline(
+            @RequestParam(value = "bucket", defaultValue = "day") String bucket,
+            @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(value = "acceptedAITaskId", required = false) Long acceptedAITaskId,
+            @RequestParam(value = "userId", required = false) Long userId) {
+        try {
+            return ResponseEntity.ok(feedbackService.getRatingTimeline(bucket, from, to, acceptedAITaskId, userId));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @GetMapping("/{id}")
@@ -33,6 +110,21 @@ public class FeedbackController {
         return ResponseEntity.status(201).body(feedbackService.createFeedback(feedback));
     }
 
+    // Acknowledge at once and write in the background; 503 when the ingest queue is full
+    @PostMapping("/ingest")
+    public ResponseEntity<Map<String, String>> ingestFeedback(@RequestBody UserFeedback feedback) {
+        try {
+            if (feedbackService.ingestFeedback(feedback)) {
+                return ResponseEntity.status(HttpStatus.ACCEPTED).body(Collections.singletonMap("status", "queued"));
+            }
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "5")
+                    .body(Collections.singletonMap("status", "busy"));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Collections.singletonMap("error", e.getMessage()));
+        }
+    }
+
     @PostMapping("/batch")
     public ResponseEntity<List<UserFeedback>> createFeedbackBatch(@RequestBody List<UserFeedback> feedbackList) {
         List<UserFeedback> createdFeedbacks = feedbackService.createFeedbackBatch(feedbackList);
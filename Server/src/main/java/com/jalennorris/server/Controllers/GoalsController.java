@@ -1,12 +1,22 @@
 package com.jalennorris.server.Controllers;
 
+import com.jalennorris.server.dto.GoalProgressDTO;
+import com.jalennorris.server.dto.PageResponse;
 import com.jalennorris.server.dto.UserGoalDTO;
+import com.jalennorris.server.query.ListQuery;
+import com.jalennorris.server.service.CollectionVersionService;
 import com.jalennorris.server.service.GoalService;
+import com.jalennorris.server.util.ETagUtil;
+import jakarta.persistence.EntityNotFoundException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.MultiValueMap;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @RestController
@@ -16,9 +26,22 @@ public class GoalsController {
     @Autowired
     private GoalService goalService;
 
+    @Autowired
+    private CollectionVersionService collectionVersionService;
+
+    private static final int MAX_PAGE_SIZE = 200;
+
+    // List goals; with after/size one keyset page at a time, e.g.
+    // /api/goals?userId=..&createdAt.gte=..&sort=-createdAt&after=<cursor>&size=.. (see ListQuery)
     @GetMapping
-    public ResponseEntity<List<UserGoalDTO>> getAllGoals() {
-        return ResponseEntity.ok(goalService.getAllGoals());
+    public ResponseEntity<Object> getAllGoals(@RequestParam MultiValueMap<String, String> params) {
+        ListQuery query;
+        try {
+            query = ListQuery.parse(GoalService.LIST_QUERY, params);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        return query.response(goalService.listGoals(null, query));
     }
 
     @GetMapping("/{id}")
@@ -28,9 +51,63 @@ public class GoalsController {
     }
 
     @GetMapping("/user/{userId}")
-    public ResponseEntity<List<UserGoalDTO>> getGoalsByUserId(@PathVariable Long userId) {
-        List<UserGoalDTO> goals = goalService.getGoalsByUserId(userId);
-        return ResponseEntity.ok(goals);
+    public ResponseEntity<Object> getGoalsByUserId(
+            @PathVariable Long userId,
+            @RequestParam MultiValueMap<String, String> params,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        ListQuery query;
+        try {
+            query = ListQuery.parse(GoalService.LIST_QUERY, params, "userId");
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        String etag = collectionVersionService.currentETag(CollectionVersionService.GOALS_BY_USER, userId);
+        if (ETagUtil.matches(ifNoneMatch, etag)) {
+            return ETagUtil.notModified(etag);
+        }
+        return query.response(etag, goalService.listGoals(userId, query));
+    }
+
+    // Completion of the tasks linked to each of the user's goals, a page of goals at a time:
+    // /api/goals/user/{userId}/progress?after=<goal id>&size=..
+    @GetMapping("/user/{userId}/progress")
+    public ResponseEntity<PageResponse<GoalProgressDTO>> getGoalProgressByUser(
+            @PathVariable Long userId,
+            @RequestParam(value = "after", required = false) Long after,
+            @RequestParam(value = "size", defaultValue = "50") int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(goalService.getGoalProgressByUser(userId, after, size));
+    }
+
+    @GetMapping("/{id}/progress")
+    public ResponseEntity<GoalProgressDTO> getGoalProgress(@PathVariable Long id) {
+        Optional<GoalProgressDTO> progress = goalService.getGoalProgress(id);
+        return progress.map(ResponseEntity::ok).orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    // Link tasks (body: list of task ids) to a goal
+    @PostMapping("/{id}/tasks")
+    public ResponseEntity<Map<String, Integer>> linkTasks(@PathVariable Long id, @RequestBody List<Long> taskIds) {
+        try {
+            return ResponseEntity.ok(Collections.singletonMap("linked", goalService.linkTasks(id, taskIds)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (EntityNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @DeleteMapping("/{id}/tasks/{taskId}")
+    public ResponseEntity<Void> unlinkTask(@PathVariable Long id, @PathVariable Long taskId) {
+        try {
+            return goalService.unlinkTask(id, taskId)
+                    ? ResponseEntity.noContent().build()
+                    : ResponseEntity.notFound().build();
+        } catch (EntityNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        }
     }
 
     @PostMapping
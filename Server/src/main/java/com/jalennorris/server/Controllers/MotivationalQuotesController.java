@@ -1,8 +1,14 @@
 package com.jalennorris.server.Controllers;
 
 import com.jalennorris.server.service.MotivationalQuotesService;
+import com.jalennorris.server.service.QuoteCatalog;
+import com.jalennorris.server.service.UserQuoteLikeService;
 import com.jalennorris.server.dto.MotivationalQuoteDto;
+import com.jalennorris.server.dto.QuoteLeaderboardEntryDTO;
+import com.jalennorris.server.util.ETagUtil;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -16,10 +22,69 @@ public class MotivationalQuotesController {
     @Autowired
     private MotivationalQuotesService service;
 
+    @Autowired
+    private UserQuoteLikeService userQuoteLikeService;
+
+    private static final int MAX_LEADERBOARD_SIZE = 100;
+
+    // Full catalog, written straight from the JSON the catalog serialized when it was loaded;
+    // the ETag is the version that JSON was built at, not the latest one in Redis
     @GetMapping
-    public ResponseEntity<List<MotivationalQuoteDto>> getAllQuotes() {
-        List<MotivationalQuoteDto> quotes = service.getAllQuotes();
-        return ResponseEntity.ok().body(quotes);
+    public ResponseEntity<String> getAllQuotes(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        QuoteCatalog.SerializedCatalog catalog = service.getAllQuotesSerialized();
+        String etag = catalog.eTag();
+        if (ETagUtil.matches(ifNoneMatch, etag)) {
+            return ETagUtil.notModified(etag);
+        }
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON);
+        if (etag != null) {
+            builder.eTag(etag);
+        }
+        return builder.body(catalog.json());
+    }
+
+    // Random quote, optionally limited to one type
+    @GetMapping("/random")
+    public ResponseEntity<MotivationalQuoteDto> getRandomQuote(@RequestParam(value = "type", required = false) String type) {
+        return service.getRandomQuote(type)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    // The user's quote of the day; stable for the whole (UTC) day
+    @GetMapping("/daily/{userId}")
+    public ResponseEntity<MotivationalQuoteDto> getQuoteOfTheDay(@PathVariable long userId) {
+        return service.getQuoteOfTheDay(userId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    // Leaderboard: GET /api/quotes/top?by=likes|favorites&limit=20
+    @GetMapping("/top")
+    public ResponseEntity<List<QuoteLeaderboardEntryDTO>> getTopQuotes(
+            @RequestParam(value = "by", defaultValue = "favorites") String by,
+            @RequestParam(value = "limit", defaultValue = "20") int limit) {
+        if (limit < 1 || limit > MAX_LEADERBOARD_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            return ResponseEntity.ok(userQuoteLikeService.getTopQuotes(by, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/{id}/counts")
+    public ResponseEntity<QuoteLeaderboardEntryDTO> getQuoteCounts(@PathVariable Long id) {
+        return userQuoteLikeService.getQuoteCounts(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/type/{type}")
+    public ResponseEntity<List<MotivationalQuoteDto>> getQuotesByType(@PathVariable String type) {
+        return ResponseEntity.ok(service.getQuotesByType(type));
     }
 
     @GetMapping("/{id}")
@@ -1,47 +1,39 @@
 package com.jalennorris.server.Controllers;
 
+import com.jalennorris.server.service.OutboxService;
+import com.jalennorris.server.service.PushNotificationService;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.*;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.web.client.RestTemplate;
 import java.util.*;
 
 @RestController
 public class NotificationController {
 
+    private final OutboxService outboxService;
+
+    @Autowired
+    public NotificationController(OutboxService outboxService) {
+        this.outboxService = outboxService;
+    }
+
+    // Record the notification in the outbox; OutboxRelay sends it to Expo in the background.
+    // A client retrying with the same idempotencyKey gets the notification sent once.
     @PostMapping("/api/send-notification")
     public ResponseEntity<?> sendNotification(@RequestBody Map<String, Object> payload) {
         String expoPushToken = (String) payload.get("expoPushToken");
         String title = (String) payload.getOrDefault("title", "Hello!");
         String body = (String) payload.getOrDefault("body", "This is a notification from your backend!");
         Map<String, Object> data = (Map<String, Object>) payload.getOrDefault("data", new HashMap<>());
+        String idempotencyKey = (String) payload.get("idempotencyKey");
 
         if (expoPushToken == null || expoPushToken.isEmpty()) {
             return ResponseEntity.badRequest().body(Collections.singletonMap("error", "expoPushToken is required"));
         }
 
-        RestTemplate restTemplate = new RestTemplate();
-        String expoUrl = "https://exp.host/--/api/v2/push/send";
-
-        Map<String, Object> expoPayload = new HashMap<>();
-        expoPayload.put("to", expoPushToken);
-        expoPayload.put("sound", "default");
-        expoPayload.put("title", title);
-        expoPayload.put("body", body);
-        expoPayload.put("data", data);
-
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_JSON);
-        headers.setAccept(Collections.singletonList(MediaType.APPLICATION_JSON));
-        headers.set("Accept-Encoding", "gzip, deflate");
-
-        HttpEntity<Map<String, Object>> request = new HttpEntity<>(expoPayload, headers);
-
-        try {
-            ResponseEntity<String> response = restTemplate.postForEntity(expoUrl, request, String.class);
-            return ResponseEntity.ok(response.getBody());
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                .body(Collections.singletonMap("error", "Failed to send notification: " + e.getMessage()));
-        }
+        boolean created = outboxService.appendPush(PushNotificationService.message(expoPushToken, title, body, data),
+                idempotencyKey != null ? "push:" + idempotencyKey : null);
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+            .body(Collections.singletonMap("status", created ? "queued" : "duplicate"));
     }
 }
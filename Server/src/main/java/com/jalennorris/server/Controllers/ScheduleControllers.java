@@ -1,13 +1,25 @@
 package com.jalennorris.server.Controllers;
 
+import com.jalennorris.server.dto.PageResponse;
 import com.jalennorris.server.dto.ScheduleDTO;
 import com.jalennorris.server.Models.ScheduleModels;
+import com.jalennorris.server.query.ListQuery;
 import com.jalennorris.server.service.ScheduleService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.MultiValueMap;
 import org.springframework.web.bind.annotation.*;
 
-
+import java.time.DateTimeException;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.Date;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
 
@@ -19,6 +31,9 @@ import java.util.concurrent.CompletableFuture;
 @RequestMapping("/api/schedules")
 public class ScheduleControllers {
 
+    private static final int MAX_PAGE_SIZE = 200;
+    private static final Duration MAX_WINDOW = Duration.ofDays(92);
+
     private final ScheduleService scheduleService;
 
     @Autowired
@@ -26,13 +41,95 @@ public class ScheduleControllers {
         this.scheduleService = scheduleService;
     }
 
-    // Get all schedules asynchronously and return DTOs
+    // List schedules; with after/size one keyset page at a time, e.g.
+    // /api/schedules?userId=..&scheduledTime.gte=..&sort=scheduledTime&after=<cursor>&size=.. (see ListQuery)
     @GetMapping
-    public CompletableFuture<ResponseEntity<List<ScheduleDTO>>> getSchedules() {
-        return scheduleService.getAllSchedules()
+    public CompletableFuture<ResponseEntity<Object>> getSchedules(
+            @RequestParam MultiValueMap<String, String> params) {
+        ListQuery query;
+        try {
+            query = ListQuery.parse(ScheduleService.LIST_QUERY, params);
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().build());
+        }
+        return scheduleService.listSchedules(query)
+                .thenApply(query::response);
+    }
+
+    // Get a user's schedule for a time window, one keyset page at a time.
+    // Either pass from/to (ISO date-times, to exclusive) or view=day|week|month around date in zone.
+    @GetMapping("/user/{userId}")
+    public CompletableFuture<ResponseEntity<PageResponse<ScheduleDTO>>> getSchedulesForUser(
+            @PathVariable long userId,
+            @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime from,
+            @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime to,
+            @RequestParam(value = "view", defaultValue = "day") String view,
+            @RequestParam(value = "date", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestParam(value = "zone", defaultValue = "UTC") String zone,
+            @RequestParam(value = "after", required = false) String after,
+            @RequestParam(value = "size", defaultValue = "50") int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().build());
+        }
+
+        Date windowStart;
+        Date windowEnd;
+        if (from != null || to != null) {
+            if (from == null || to == null || !from.isBefore(to)
+                    || Duration.between(from, to).compareTo(MAX_WINDOW) > 0) {
+                return CompletableFuture.completedFuture(ResponseEntity.badRequest().build());
+            }
+            windowStart = Date.from(from.toInstant());
+            windowEnd = Date.from(to.toInstant());
+        } else {
+            ZonedDateTime[] window;
+            try {
+                window = viewWindow(view, date, ZoneId.of(zone));
+            } catch (DateTimeException e) {
+                return CompletableFuture.completedFuture(ResponseEntity.badRequest().build());
+            }
+            if (window == null) {
+                return CompletableFuture.completedFuture(ResponseEntity.badRequest().build());
+            }
+            windowStart = Date.from(window[0].toInstant());
+            windowEnd = Date.from(window[1].toInstant());
+        }
+
+        Date afterTime = null;
+        Long afterId = null;
+        if (after != null) {
+            try {
+                long[] cursor = ScheduleService.decodeCursor(after);
+                afterTime = new Date(cursor[0]);
+                afterId = cursor[1];
+            } catch (IllegalArgumentException e) {
+                return CompletableFuture.completedFuture(ResponseEntity.badRequest().build());
+            }
+        }
+
+        return scheduleService.getSchedulesInWindow(userId, windowStart, windowEnd, afterTime, afterId, size)
                 .thenApply(ResponseEntity::ok);
     }
 
+    // [start, end) of the day, ISO week (Monday first) or month containing date; null for an unknown view
+    private ZonedDateTime[] viewWindow(String view, LocalDate date, ZoneId zone) {
+        LocalDate anchor = date != null ? date : LocalDate.now(zone);
+        switch (view.toLowerCase()) {
+            case "day":
+                return new ZonedDateTime[]{anchor.atStartOfDay(zone), anchor.plusDays(1).atStartOfDay(zone)};
+            case "week": {
+                LocalDate monday = anchor.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+                return new ZonedDateTime[]{monday.atStartOfDay(zone), monday.plusWeeks(1).atStartOfDay(zone)};
+            }
+            case "month": {
+                LocalDate first = anchor.withDayOfMonth(1);
+                return new ZonedDateTime[]{first.atStartOfDay(zone), first.plusMonths(1).atStartOfDay(zone)};
+            }
+            default:
+                return null;
+        }
+    }
+
     // Get a schedule by ID asynchronously and return DTO
     @GetMapping("/{id}")
     public CompletableFuture<ResponseEntity<ScheduleDTO>> getSchedule(@PathVariable long id) {
@@ -1,27 +1,49 @@
 package com.jalennorris.server.Controllers;
 
 import com.jalennorris.server.Models.SubTaskModels;
+import com.jalennorris.server.query.ListQuery;
+import com.jalennorris.server.service.CollectionVersionService;
 import com.jalennorris.server.service.SubTaskService;
+import com.jalennorris.server.util.ETagUtil;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.MultiValueMap;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
+import java.util.Map;
+
 
 @RestController
 @RequestMapping("/api/subtasks")
 public class SubTaskController {
 
     private final SubTaskService subTaskService;
+    private final CollectionVersionService collectionVersionService;
 
     @Autowired
-    public SubTaskController(SubTaskService subTaskService) {
+    public SubTaskController(SubTaskService subTaskService, CollectionVersionService collectionVersionService) {
         this.subTaskService = subTaskService;
+        this.collectionVersionService = collectionVersionService;
     }
 
+    // A task's subtasks in display order; with after/size a keyset page at a time: ?completed=..&after=<cursor>&size=..
     @GetMapping("/task/{taskId}")
-    public List<SubTaskModels> getSubTasksByTaskId(@PathVariable Long taskId) {
-        return subTaskService.getSubTasksByTaskId(taskId);
+    public ResponseEntity<Object> getSubTasksByTaskId(
+            @PathVariable Long taskId,
+            @RequestParam MultiValueMap<String, String> params,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        ListQuery query;
+        try {
+            query = ListQuery.parse(SubTaskService.LIST_QUERY, params);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        String etag = collectionVersionService.currentETag(CollectionVersionService.SUBTASKS_BY_TASK, taskId);
+        if (ETagUtil.matches(ifNoneMatch, etag)) {
+            return ETagUtil.notModified(etag);
+        }
+        return query.response(etag, subTaskService.listSubTasks(taskId, query));
     }
 
     @GetMapping("/{id}")
@@ -31,9 +53,22 @@ public class SubTaskController {
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    // Paginated listing scoped to a task or a user, oldest first:
+    // /api/subtasks?taskId=..|userId=..&completed=..&after=<cursor>&size=.. (see ListQuery)
     @GetMapping
-    public List<SubTaskModels> getAllSubTasks() {
-        return subTaskService.getAllSubTasks();
+    public ResponseEntity<Object> getSubTasksPage(
+            @RequestParam(value = "userId", required = false) Long userId,
+            @RequestParam MultiValueMap<String, String> params) {
+        if (userId == null && !params.containsKey("taskId")) {
+            return ResponseEntity.badRequest().build();
+        }
+        ListQuery query;
+        try {
+            query = ListQuery.parsePage(SubTaskService.USER_LIST_QUERY, params, "userId");
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        return query.response(subTaskService.listAllSubTaskDTOs(userId, query));
     }
 
     @PostMapping
@@ -51,9 +86,11 @@ public class SubTaskController {
     }
 
     @PatchMapping("/{id}")
-    public ResponseEntity<SubTaskModels> patchSubTask(@PathVariable Long id, @RequestBody SubTaskModels patch) {
+    public ResponseEntity<SubTaskModels> patchSubTask(@PathVariable Long id, @RequestBody Map<String, Object> patch) {
         try {
             return ResponseEntity.ok(subTaskService.patchSubTask(id, patch));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
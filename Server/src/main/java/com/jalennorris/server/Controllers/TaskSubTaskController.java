@@ -0,0 +1,152 @@
+package com.jalennorris.server.Controllers;
+
+import com.jalennorris.server.Models.SubTaskModels;
+import com.jalennorris.server.dto.SubTaskDTO;
+import com.jalennorris.server.query.ListQuery;
+import com.jalennorris.server.service.SubTaskService;
+import jakarta.persistence.EntityNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+// Subtask routes nested under their task: /api/tasks/{taskId}/subtasks
+@RestController
+@RequestMapping("/api/tasks/{taskId}/subtasks")
+public class TaskSubTaskController {
+    private static final Logger logger = LoggerFactory.getLogger(TaskSubTaskController.class);
+
+    private final SubTaskService subTaskService;
+
+    @Autowired
+    public TaskSubTaskController(SubTaskService subTaskService) {
+        this.subTaskService = subTaskService;
+    }
+
+    public static class SubTaskToggleRequest {
+        public List<Long> subtaskIds;
+        public Boolean completed;
+    }
+
+    public static class SubTaskReorderRequest {
+        public List<Long> subtaskIds;
+    }
+
+    // Subtasks in display order; with after/size a keyset page at a time: ?completed=..&sort=..&after=<cursor>&size=..
+    @GetMapping
+    public ResponseEntity<Object> getSubTasks(@PathVariable Long taskId,
+                                              @RequestParam MultiValueMap<String, String> params) {
+        ListQuery query;
+        try {
+            query = ListQuery.parse(SubTaskService.LIST_QUERY, params);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            return query.response(subTaskService.listSubTaskDTOs(taskId, query));
+        } catch (EntityNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @GetMapping("/{subtaskId}")
+    public ResponseEntity<SubTaskDTO> getSubTask(@PathVariable Long taskId, @PathVariable Long subtaskId) {
+        return subTaskService.getSubTaskForTask(taskId, subtaskId)
+                .map(subTask -> ResponseEntity.ok(subTaskService.toDTO(subTask)))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    // Create one subtask
+    @PostMapping
+    public ResponseEntity<SubTaskDTO> createSubTask(@PathVariable Long taskId, @RequestBody SubTaskDTO subTask) {
+        try {
+            return ResponseEntity.status(201).body(subTaskService.createSubTasksBatch(taskId, List.of(subTask)).get(0));
+        } catch (IllegalArgumentException e) {
+            logger.warn("Invalid subtask for task {}: {}", taskId, e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (EntityNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    // Create many subtasks in one request and one INSERT
+    @PostMapping("/batch")
+    public ResponseEntity<List<SubTaskDTO>> createSubTasksBatch(@PathVariable Long taskId, @RequestBody List<SubTaskDTO> subTasks) {
+        try {
+            return ResponseEntity.status(201).body(subTaskService.createSubTasksBatch(taskId, subTasks));
+        } catch (IllegalArgumentException e) {
+            logger.warn("Invalid subtask batch for task {}: {}", taskId, e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (EntityNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    // Mark several subtasks completed/uncompleted at once
+    @PatchMapping("/completed")
+    public ResponseEntity<Map<String, Integer>> setCompleted(@PathVariable Long taskId, @RequestBody SubTaskToggleRequest request) {
+        if (request.completed == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            int updated = subTaskService.setSubTasksCompleted(taskId, request.subtaskIds, request.completed);
+            return ResponseEntity.ok(Collections.singletonMap("updated", updated));
+        } catch (EntityNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    // Replace the order of the task's subtasks; subtaskIds lists all of them and positions follow its order
+    @PutMapping("/order")
+    public ResponseEntity<List<SubTaskDTO>> reorder(@PathVariable Long taskId, @RequestBody SubTaskReorderRequest request) {
+        try {
+            subTaskService.reorderSubTasks(taskId, request.subtaskIds);
+            return ResponseEntity.ok(subTaskService.getSubTaskDTOsByTaskId(taskId));
+        } catch (IllegalArgumentException e) {
+            logger.warn("Invalid reorder for task {}: {}", taskId, e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (EntityNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @PutMapping("/{subtaskId}")
+    public ResponseEntity<SubTaskDTO> updateSubTask(@PathVariable Long taskId, @PathVariable Long subtaskId,
+                                                    @RequestBody SubTaskModels updatedSubTask) {
+        if (subTaskService.getSubTaskForTask(taskId, subtaskId).isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        updatedSubTask.setTaskId(taskId);
+        return ResponseEntity.ok(subTaskService.toDTO(subTaskService.updateSubTask(subtaskId, updatedSubTask)));
+    }
+
+    @PatchMapping("/{subtaskId}")
+    public ResponseEntity<SubTaskDTO> patchSubTask(@PathVariable Long taskId, @PathVariable Long subtaskId,
+                                                   @RequestBody Map<String, Object> patch) {
+        if (subTaskService.getSubTaskForTask(taskId, subtaskId).isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        patch.remove("taskId"); // Moving between tasks isn't allowed through the nested route
+        try {
+            return ResponseEntity.ok(subTaskService.toDTO(subTaskService.patchSubTask(subtaskId, patch)));
+        } catch (IllegalArgumentException e) {
+            logger.warn("Invalid subtask patch for task {}: {}", taskId, e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @DeleteMapping("/{subtaskId}")
+    public ResponseEntity<Void> deleteSubTask(@PathVariable Long taskId, @PathVariable Long subtaskId) {
+        if (subTaskService.getSubTaskForTask(taskId, subtaskId).isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        subTaskService.deleteSubTask(subtaskId);
+        return ResponseEntity.noContent().build();
+    }
+}
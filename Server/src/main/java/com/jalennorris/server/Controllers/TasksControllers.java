@@ -1,12 +1,27 @@
 package com.jalennorris.server.Controllers;
 
+import com.jalennorris.server.dto.DailyTaskStatsDTO;
+import com.jalennorris.server.dto.PageResponse;
+import com.jalennorris.server.dto.TaskStatsDTO;
 import com.jalennorris.server.dto.TasksDTO;
 import com.jalennorris.server.Models.TasksModels;
+import com.jalennorris.server.query.ListQuery;
+import com.jalennorris.server.service.CollectionVersionService;
+import com.jalennorris.server.service.DailyTaskStatsService;
 import com.jalennorris.server.service.TaskService;
+import com.jalennorris.server.service.TaskStatsService;
+import com.jalennorris.server.util.ETagUtil;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.util.MultiValueMap;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
@@ -20,23 +35,49 @@ public class TasksControllers {
     private static final Logger logger = LoggerFactory.getLogger(TasksControllers.class);
 
     private final TaskService taskService;
+    private final CollectionVersionService collectionVersionService;
+    private final TaskStatsService taskStatsService;
+    private final DailyTaskStatsService dailyTaskStatsService;
+
+    // Longest history window a single request may ask for
+    private static final long MAX_HISTORY_DAYS = 731;
+
+    // Largest page a paginated endpoint will return
+    private static final int MAX_PAGE_SIZE = 100;
 
     @Autowired
-    public TasksControllers(TaskService taskService) {
+    public TasksControllers(TaskService taskService, CollectionVersionService collectionVersionService,
+                            TaskStatsService taskStatsService, DailyTaskStatsService dailyTaskStatsService) {
         this.taskService = taskService;
+        this.collectionVersionService = collectionVersionService;
+        this.taskStatsService = taskStatsService;
+        this.dailyTaskStatsService = dailyTaskStatsService;
     }
 
-    // Endpoint to fetch all tasks asynchronously
+    // Endpoint to list tasks; an array, or one keyset page at a time with after/size, e.g.
+    // /api/tasks?userId=..&status=..&deadline.lt=..&sort=-deadline&after=<cursor>&size=.. (see ListQuery)
     @GetMapping
-    public CompletableFuture<ResponseEntity<List<TasksDTO>>> getTasks() {
-        return taskService.getAllTasks()
-                .thenApply(ResponseEntity::ok); // Return tasks wrapped in ResponseEntity
+    public CompletableFuture<ResponseEntity<Object>> getTasks(
+            @RequestParam MultiValueMap<String, String> params) {
+        ListQuery query;
+        try {
+            query = ListQuery.parse(TaskService.LIST_QUERY, params);
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().build());
+        }
+        return taskService.listTasks(null, query)
+                .thenApply(query::response); // Return the tasks wrapped in ResponseEntity
     }
 
     // Endpoint to fetch a task by its ID
     @GetMapping("/{id}")
-    public CompletableFuture<ResponseEntity<TasksDTO>> getTask(@PathVariable("id") long id) {
-        return taskService.getTaskById(id)
+    public CompletableFuture<ResponseEntity<TasksDTO>> getTask(
+            @PathVariable("id") long id,
+            @RequestParam(value = "include", required = false) String include) {
+        CompletableFuture<TasksDTO> lookup = includesSubTasks(include)
+                ? taskService.getTaskWithSubTasks(id)
+                : taskService.getTaskById(id);
+        return lookup
                 .thenApply(task -> {
                     if (task != null) {
                         return ResponseEntity.ok(task);
@@ -45,15 +86,39 @@ public class TasksControllers {
                     }
                 });
     }
-    // Endpoint to fetch all tasks for a specific user ID
+    // Endpoint to fetch a user's tasks; accepts the same filters and paging parameters as /api/tasks
     @GetMapping("/user/{userId}")
-    public CompletableFuture<ResponseEntity<List<TasksDTO>>> getTasksByUserId(@PathVariable("userId") long userId) {
+    public CompletableFuture<ResponseEntity<Object>> getTasksByUserId(
+            @PathVariable("userId") long userId,
+            @RequestParam(value = "include", required = false) String include,
+            @RequestParam MultiValueMap<String, String> params,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         logger.info("Fetching tasks for userId: {}", userId);
-        return taskService.getTasksByUserId(userId)
-                .thenApply(tasks -> {
-                    if (tasks != null && !tasks.isEmpty()) {
-                        logger.info("Found {} tasks for userId: {}", tasks.size(), userId);
-                        return ResponseEntity.ok(tasks);
+        ListQuery query;
+        try {
+            query = ListQuery.parse(TaskService.LIST_QUERY, params, "include", "userId", "month");
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().build());
+        }
+        boolean withSubTasks = includesSubTasks(include);
+        // Read the version before loading so the ETag never claims a newer body than we send.
+        // The task version doesn't cover subtask edits, so the expanded form is never conditional.
+        String etag = withSubTasks ? null
+                : collectionVersionService.currentETag(CollectionVersionService.TASKS_BY_USER, userId);
+        if (ETagUtil.matches(ifNoneMatch, etag)) {
+            return CompletableFuture.completedFuture(ETagUtil.notModified(etag));
+        }
+        return taskService.listTasks(userId, query)
+                .thenApply(page -> {
+                    if (withSubTasks) {
+                        taskService.attachSubTasks(page.getItems());
+                    }
+                    return page;
+                })
+                .thenApply(page -> {
+                    if (!page.getItems().isEmpty() || query.getAfterId() != null) {
+                        logger.info("Found {} tasks for userId: {}", page.getItems().size(), userId);
+                        return query.response(etag, page);
                     } else {
                         logger.warn("No tasks found for userId: {}", userId);
                         return ResponseEntity.notFound().build();
@@ -61,6 +126,61 @@ public class TasksControllers {
                 });
     }
 
+    // Endpoint to fetch dashboard stats (counts, completion rate, overdue, day/week buckets) for a user
+    @GetMapping("/user/{userId}/stats")
+    public CompletableFuture<ResponseEntity<TaskStatsDTO>> getTaskStats(
+            @PathVariable("userId") long userId,
+            @RequestParam(value = "bucket", defaultValue = "day") String bucket) {
+        if (!"day".equals(bucket) && !"week".equals(bucket)) {
+            logger.warn("Invalid stats bucket '{}' for userId: {}", bucket, userId);
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().build());
+        }
+        return taskStatsService.getTaskStats(userId, bucket)
+                .thenApply(ResponseEntity::ok);
+    }
+
+    // Endpoint to fetch tasks created/completed per day for a user (defaults to the last 90 days)
+    @GetMapping("/user/{userId}/history")
+    public ResponseEntity<List<DailyTaskStatsDTO>> getDailyHistory(
+            @PathVariable("userId") long userId,
+            @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        LocalDate end = to != null ? to : LocalDate.now(ZoneOffset.UTC);
+        LocalDate start = from != null ? from : end.minusDays(90);
+        if (!isValidHistoryRange(start, end)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(dailyTaskStatsService.getDailyStats(userId, start, end));
+    }
+
+    // Endpoint to fetch tasks created/completed per week for a user (defaults to the last 26 weeks)
+    @GetMapping("/user/{userId}/history/weekly")
+    public ResponseEntity<List<DailyTaskStatsDTO>> getWeeklyHistory(
+            @PathVariable("userId") long userId,
+            @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        LocalDate end = to != null ? to : LocalDate.now(ZoneOffset.UTC);
+        LocalDate start = from != null ? from : end.minusWeeks(26);
+        if (!isValidHistoryRange(start, end)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(dailyTaskStatsService.getWeeklyStats(userId, start, end));
+    }
+
+    // Endpoint to search a user's tasks by name, description and notes (prefix matching, ranked)
+    @GetMapping("/user/{userId}/search")
+    public CompletableFuture<ResponseEntity<PageResponse<TasksDTO>>> searchTasks(
+            @PathVariable("userId") long userId,
+            @RequestParam("q") String query,
+            @RequestParam(value = "page", defaultValue = "0") int page,
+            @RequestParam(value = "size", defaultValue = "20") int size) {
+        if (page < 0 || size < 1 || size > MAX_PAGE_SIZE) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().build());
+        }
+        return taskService.searchTasks(userId, query, page, size)
+                .thenApply(ResponseEntity::ok);
+    }
+
     // Endpoint to fetch tasks by status
 
 
@@ -158,6 +278,22 @@ public class TasksControllers {
         return taskEntity;
     }
 
+    // Helper method to check for ?include=subtasks (comma separated list)
+    private boolean includesSubTasks(String include) {
+        return include != null && Arrays.stream(include.split(","))
+                .map(String::trim)
+                .anyMatch("subtasks"::equalsIgnoreCase);
+    }
+
+    // Helper method to validate a history window
+    private boolean isValidHistoryRange(LocalDate start, LocalDate end) {
+        if (start.isAfter(end) || ChronoUnit.DAYS.between(start, end) > MAX_HISTORY_DAYS) {
+            logger.warn("Invalid history range {} - {}", start, end);
+            return false;
+        }
+        return true;
+    }
+
     // Helper method to validate a task entity
     private void validateTask(TasksModels task) {
         if (task.getTask_name() == null || task.getTask_name().isEmpty()) {
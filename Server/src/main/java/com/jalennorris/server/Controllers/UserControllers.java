@@ -1,11 +1,13 @@
 package com.jalennorris.server.Controllers;
 
 import com.jalennorris.server.dto.UserDTO;
+import com.jalennorris.server.query.ListQuery;
 import com.jalennorris.server.service.UserService;
 import com.jalennorris.server.util.JwtUtil;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.StringHttpMessageConverter;
+import org.springframework.util.MultiValueMap;
 import org.springframework.web.bind.annotation.*;
 import  com.jalennorris.server.dto.ChangePasswordRequest;
 import  com.jalennorris.server.Response.ChangePasswordResponse;
@@ -17,7 +19,6 @@ import java.util.HashMap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 
@@ -43,12 +44,19 @@ public class UserControllers {
         return "Welcome, this endpoint is not secure";
     }
 
-    // Public endpoint
+    // Public endpoint; users, or with after/size a keyset page at a time, e.g. ?role=ADMIN&sort=username&after=<cursor>&size=..
     @GetMapping("/public")
-    public CompletableFuture<ResponseEntity<List<UserDTO>>> getPublicUsers() {
-        log.info("Fetching all users (public)");
-        return userService.getAllUsers()
-                .thenApply(ResponseEntity::ok)
+    public CompletableFuture<ResponseEntity<Object>> getPublicUsers(
+            @RequestParam MultiValueMap<String, String> params) {
+        log.info("Fetching users (public)");
+        ListQuery query;
+        try {
+            query = ListQuery.parse(UserService.LIST_QUERY, params);
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().build());
+        }
+        return userService.listUsers(query)
+                .thenApply(query::response)
                 .exceptionally(ex -> {
                     log.error("Error fetching users: ", ex);
                     return ResponseEntity.status(500).build();
@@ -57,10 +65,17 @@ public class UserControllers {
 
     // Private endpoint (token not required)
     @GetMapping
-    public CompletableFuture<ResponseEntity<List<UserDTO>>> getUsers() {
-        log.info("Fetching all users");
-        return userService.getAllUsers()
-                .thenApply(ResponseEntity::ok)
+    public CompletableFuture<ResponseEntity<Object>> getUsers(
+            @RequestParam MultiValueMap<String, String> params) {
+        log.info("Fetching users");
+        ListQuery query;
+        try {
+            query = ListQuery.parse(UserService.LIST_QUERY, params);
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().build());
+        }
+        return userService.listUsers(query)
+                .thenApply(query::response)
                 .exceptionally(ex -> {
                     log.error("Error fetching users: ", ex);
                     return ResponseEntity.status(500).build();
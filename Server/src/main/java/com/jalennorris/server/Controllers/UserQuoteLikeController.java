@@ -2,11 +2,15 @@ package com.jalennorris.server.Controllers;
 
 import com.jalennorris.server.Models.UserQuoteLike;
 import com.jalennorris.server.service.UserQuoteLikeService;
+import com.jalennorris.server.dto.LikedQuoteDTO;
+import com.jalennorris.server.dto.LikedQuoteIdsDTO;
+import com.jalennorris.server.dto.PageResponse;
 import com.jalennorris.server.dto.UserQuoteLikeDTO;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 
 import java.util.List;
 import java.util.stream.Collectors;
@@ -19,6 +23,8 @@ public class UserQuoteLikeController {
     @Autowired
     private UserQuoteLikeService service;
 
+    private static final int MAX_PAGE_SIZE = 100;
+
     public static class UserQuoteLikeRequest {
         public Boolean favorite;
         public Boolean like;
@@ -44,6 +50,39 @@ public class UserQuoteLikeController {
         return toDTO(service.patchLikeOrFavoriteStatus(userId, quoteId, request.favorite, request.like));
     }
 
+    // Liked/favorited quotes with their content, newest first:
+    // /api/user-quote-likes/{userId}?filter=all|likes|favorites&after=<cursor>&size=..
+    @GetMapping("/{userId}")
+    public ResponseEntity<PageResponse<LikedQuoteDTO>> getLikedQuotes(
+            @PathVariable Long userId,
+            @RequestParam(value = "filter", defaultValue = "all") String filter,
+            @RequestParam(value = "after", required = false) Long after,
+            @RequestParam(value = "size", defaultValue = "20") int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            return ResponseEntity.ok(service.getLikedQuotes(userId, filter, after, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    // Heart states for the whole catalog in one small payload; format=bitmap for base64 bitsets
+    @GetMapping("/{userId}/ids")
+    public ResponseEntity<LikedQuoteIdsDTO> getLikedQuoteIds(
+            @PathVariable Long userId,
+            @RequestParam(value = "format", defaultValue = "ids") String format) {
+        if (!"ids".equals(format) && !"bitmap".equals(format)) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            return ResponseEntity.ok(service.getLikedQuoteIds(userId, "bitmap".equals(format)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     private UserQuoteLikeDTO toDTO(UserQuoteLike entity) {
         return new UserQuoteLikeDTO(
                 entity.getId(),
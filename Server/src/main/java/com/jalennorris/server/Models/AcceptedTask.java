@@ -5,7 +5,10 @@ import com.fasterxml.jackson.annotation.JsonFormat;
 import java.time.OffsetDateTime;
 
 @Entity
-@Table(name = "accepted_tasks")
+@Table(name = "accepted_tasks", indexes = {
+        @Index(name = "idx_accepted_tasks_user_accepted", columnList = "user_id, accepted_at, id"),
+        @Index(name = "idx_accepted_tasks_user_deadline", columnList = "user_id, deadline")
+})
 public class AcceptedTask {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
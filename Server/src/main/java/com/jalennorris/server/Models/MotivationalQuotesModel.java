@@ -4,7 +4,10 @@ import jakarta.persistence.*; // Use jakarta for Spring Boot 3+
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "motivational_quotes")
+@Table(name = "motivational_quotes", indexes = {
+        @Index(name = "idx_quotes_like_count", columnList = "like_count DESC, id"),
+        @Index(name = "idx_quotes_favorite_count", columnList = "favorite_count DESC, id")
+})
 public class MotivationalQuotesModel {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -17,6 +20,14 @@ public class MotivationalQuotesModel {
     @Column(name = "created_at")
     private LocalDateTime created_at;
 
+    // Denormalized like/favorite totals, maintained by the like upserts in UserQuoteLikeRepositoryCustomImpl;
+    // never written from the entity so a quote edit can't overwrite a concurrent increment
+    @Column(name = "like_count", columnDefinition = "integer not null default 0", insertable = false, updatable = false)
+    private int like_count;
+
+    @Column(name = "favorite_count", columnDefinition = "integer not null default 0", insertable = false, updatable = false)
+    private int favorite_count;
+
     public MotivationalQuotesModel() {}
 
     public MotivationalQuotesModel(String quote, String author, String type, LocalDateTime created_at) {
@@ -65,4 +76,12 @@ public class MotivationalQuotesModel {
     public void setCreated_at(LocalDateTime created_at) {
         this.created_at = created_at;
     }
+
+    public int getLike_count() {
+        return like_count;
+    }
+
+    public int getFavorite_count() {
+        return favorite_count;
+    }
 }
\ No newline at end of file
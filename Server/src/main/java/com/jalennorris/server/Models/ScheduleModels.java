@@ -6,7 +6,10 @@ import jakarta.persistence.*;
 import javax.xml.crypto.Data;
 
 @Entity
-@Table(name = "schedule")
+@Table(name = "schedule", indexes = {
+        @Index(name = "idx_schedule_task_id", columnList = "task_id"),
+        @Index(name = "idx_schedule_user_time", columnList = "user_id, scheduled_time")
+})
 public class ScheduleModels {
 
     @Id
@@ -24,6 +27,14 @@ public class ScheduleModels {
     @Column(name = "timestamp", nullable = false)
     private String timeStamp;
 
+    // Set when a reminder node claims the entry; a stale claim is picked up again after the lease
+    @Column(name = "reminder_claimed_at")
+    private Date reminderClaimedAt;
+
+    // Set once the reminder has been handed to the push service
+    @Column(name = "reminder_sent_at")
+    private Date reminderSentAt;
+
     // Default constructor
     public ScheduleModels() {
     }
@@ -77,4 +88,20 @@ public class ScheduleModels {
     public void setTimeStamp(String timeStamp) {
         this.timeStamp = timeStamp;
     }
+
+    public Date getReminderClaimedAt() {
+        return reminderClaimedAt;
+    }
+
+    public void setReminderClaimedAt(Date reminderClaimedAt) {
+        this.reminderClaimedAt = reminderClaimedAt;
+    }
+
+    public Date getReminderSentAt() {
+        return reminderSentAt;
+    }
+
+    public void setReminderSentAt(Date reminderSentAt) {
+        this.reminderSentAt = reminderSentAt;
+    }
 }
\ No newline at end of file
@@ -5,10 +5,13 @@ import jakarta.persistence.Id;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Column;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
 
 @Entity
-@Table(name = "subtasks")
+@Table(name = "subtasks", indexes = {
+        @Index(name = "idx_subtasks_task_position", columnList = "task_id, position")
+})
 public class SubTaskModels {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -27,6 +30,10 @@ public class SubTaskModels {
     @Column(name = "task_id", nullable = false)
     private Long taskId;
 
+    // Display order within the task; rows created before ordering existed sort last
+    @Column(name = "position")
+    private Integer position;
+
     public SubTaskModels() {}
 
     public SubTaskModels(Long id, String title, String description, boolean completed, Long taskId) {
@@ -76,4 +83,12 @@ public class SubTaskModels {
     public void setTaskId(Long taskId) {
         this.taskId = taskId;
     }
+
+    public Integer getPosition() {
+        return position;
+    }
+
+    public void setPosition(Integer position) {
+        this.position = position;
+    }
 }
@@ -4,13 +4,18 @@ import jakarta.persistence.*;
 import java.time.ZonedDateTime;
 
 @Entity
-@Table(name = "tasks") // Ensure this matches your database table name
+@Table(name = "tasks", indexes = {
+        @Index(name = "idx_tasks_user_id", columnList = "user_id"),
+        @Index(name = "idx_tasks_goal_id", columnList = "goal_id"),
+        @Index(name = "idx_tasks_user_task", columnList = "user_id, task_id")
+}) // Ensure this matches your database table name
 public class TasksModels {
 
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY) // Automatically generate the task_id
     private long task_id;
 
+    @Column(name = "user_id")
     private long userId;
     @Column(name="task_name")
     private String task_name;
@@ -36,6 +41,22 @@ public class TasksModels {
     @Column(name = "notes")
     private String notes; // Field to store notes for the task
 
+    @Column(name = "completed_at")
+    private ZonedDateTime completed_at; // Set when the task becomes completed, cleared when reopened
+
+    // Denormalized subtask progress, maintained by SubTaskService through atomic increments only;
+    // not updatable so saving a loaded task can't write back counters a subtask change moved since
+    @Column(name = "subtask_total", columnDefinition = "integer not null default 0", updatable = false)
+    private int subtask_total;
+
+    @Column(name = "subtask_done", columnDefinition = "integer not null default 0", updatable = false)
+    private int subtask_done;
+
+    // Goal this task counts towards, set through the goal endpoints only; not updatable so saving
+    // a loaded task can't undo a link or unlink made since it was read
+    @Column(name = "goal_id", updatable = false)
+    private Long goal_id;
+
 
 
     // Default constructor (required for JPA)
@@ -160,4 +181,36 @@ public class TasksModels {
         this.notes = notes;
     }
 
+    public ZonedDateTime getCompleted_at() {
+        return completed_at;
+    }
+
+    public void setCompleted_at(ZonedDateTime completed_at) {
+        this.completed_at = completed_at;
+    }
+
+    public int getSubtask_total() {
+        return subtask_total;
+    }
+
+    public void setSubtask_total(int subtask_total) {
+        this.subtask_total = subtask_total;
+    }
+
+    public int getSubtask_done() {
+        return subtask_done;
+    }
+
+    public void setSubtask_done(int subtask_done) {
+        this.subtask_done = subtask_done;
+    }
+
+    public Long getGoal_id() {
+        return goal_id;
+    }
+
+    public void setGoal_id(Long goal_id) {
+        this.goal_id = goal_id;
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,51 @@
+package com.jalennorris.server.Models;
+
+import jakarta.persistence.*;
+import java.time.LocalDate;
+
+@Entity
+@Table(name = "user_daily_task_stats", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_user_daily_task_stats_user_date", columnNames = {"user_id", "stat_date"})
+})
+public class UserDailyTaskStats {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    // UTC calendar day the counters belong to
+    @Column(name = "stat_date", nullable = false)
+    private LocalDate statDate;
+
+    @Column(name = "created_count", nullable = false)
+    private long createdCount;
+
+    @Column(name = "completed_count", nullable = false)
+    private long completedCount;
+
+    public UserDailyTaskStats() {}
+
+    public UserDailyTaskStats(Long userId, LocalDate statDate, long createdCount, long completedCount) {
+        this.userId = userId;
+        this.statDate = statDate;
+        this.createdCount = createdCount;
+        this.completedCount = completedCount;
+    }
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+
+    public LocalDate getStatDate() { return statDate; }
+    public void setStatDate(LocalDate statDate) { this.statDate = statDate; }
+
+    public long getCreatedCount() { return createdCount; }
+    public void setCreatedCount(long createdCount) { this.createdCount = createdCount; }
+
+    public long getCompletedCount() { return completedCount; }
+    public void setCompletedCount(long completedCount) { this.completedCount = completedCount; }
+}
@@ -4,7 +4,10 @@ import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "user_feedback")
+@Table(name = "user_feedback", indexes = {
+        @Index(name = "idx_user_feedback_user_id", columnList = "user_id, id"),
+        @Index(name = "idx_user_feedback_accepted_task", columnList = "accepted_ai_task_id, id")
+})
 public class UserFeedback {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -5,7 +5,9 @@ import java.time.LocalDateTime;
 import com.jalennorris.server.dto.UserGoalDTO;
 
 @Entity
-@Table(name = "user_goals")
+@Table(name = "user_goals", indexes = {
+        @Index(name = "idx_user_goals_user_id", columnList = "user_id")
+})
 public class UserGoal {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -58,6 +58,10 @@ public class UserModels {
 
     private Boolean isDarkMode = false;
 
+    // Expo push token of the user's device, used for server-side reminders
+    @Column(name = "expo_push_token")
+    private String expo_push_token;
+
     // Default constructor
     public UserModels() {}
 
@@ -164,4 +168,12 @@ public class UserModels {
     public  void setIsDarkMode(Boolean isDarkMode){
         this.isDarkMode = isDarkMode;
     }
+
+    public String getExpo_push_token() {
+        return expo_push_token;
+    }
+
+    public void setExpo_push_token(String expo_push_token) {
+        this.expo_push_token = expo_push_token;
+    }
 }
\ No newline at end of file
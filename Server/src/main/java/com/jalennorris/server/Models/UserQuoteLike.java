@@ -3,13 +3,18 @@ package com.jalennorris.server.Models;
 import jakarta.persistence.*; // Use jakarta for Spring Boot 3+
 import java.time.ZonedDateTime;
 
+// (user_id, quote_id) is unique via uk_favorites_and_likes_user_quote, created in schema.sql after
+// existing duplicates are collapsed
 @Entity
-@Table(name = "favorites_and_likes")
+@Table(name = "favorites_and_likes", indexes = {
+        @Index(name = "idx_favorites_and_likes_user_id", columnList = "user_id, id")
+})
 public class UserQuoteLike {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    @Column(name = "user_id")
     private Long userId;
 
     @ManyToOne
@@ -7,7 +7,7 @@ import org.springframework.stereotype.Repository;
 import java.util.List;
 
 @Repository
-public interface AcceptRepository extends JpaRepository<AcceptedTask, Long> {
+public interface AcceptRepository extends JpaRepository<AcceptedTask, Long>, AcceptRepositoryCustom {
     // Add custom query methods if needed
     List<AcceptedTask> findByUser( Long user);
 }
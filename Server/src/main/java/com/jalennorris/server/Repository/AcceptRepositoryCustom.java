@@ -0,0 +1,15 @@
+package com.jalennorris.server.Repository;
+
+import com.jalennorris.server.dto.AcceptedSuggestionDTO;
+import com.jalennorris.server.dto.MaterializedTaskDTO;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+// Set-based writes for accepting AI suggestions
+public interface AcceptRepositoryCustom {
+
+    // Insert an accepted_tasks row, a tasks row and the subtasks of every suggestion with one
+    // multi-row INSERT per table; run it inside a transaction. Results are in suggestion order
+    List<MaterializedTaskDTO> materialize(Long userId, List<AcceptedSuggestionDTO> suggestions, OffsetDateTime now);
+}
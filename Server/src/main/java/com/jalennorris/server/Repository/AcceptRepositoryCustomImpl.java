@@ -0,0 +1,143 @@
+package com.jalennorris.server.Repository;
+
+import com.jalennorris.server.dto.AcceptedSuggestionDTO;
+import com.jalennorris.server.dto.MaterializedTaskDTO;
+import com.jalennorris.server.dto.SubTaskDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class AcceptRepositoryCustomImpl implements AcceptRepositoryCustom {
+
+    // Identity values are handed out in insert order, so the ascending returned ids line up with ord
+    private static final String INSERT_ACCEPTED_SQL =
+            "INSERT INTO accepted_tasks (user_id, task_title, task_description, deadline, accepted_at) " +
+            "SELECT ?, t.title, t.description, t.deadline, ? " +
+            "FROM unnest(?::text[], ?::text[], ?::timestamptz[]) WITH ORDINALITY AS t(title, description, deadline, ord) " +
+            "ORDER BY t.ord " +
+            "RETURNING id";
+
+    private static final String INSERT_TASKS_SQL =
+            "INSERT INTO tasks (user_id, task_name, task_description, priority, estimated_duration, deadline, status, " +
+            "created_at, completed, category, notes, subtask_total, subtask_done) " +
+            "SELECT ?, t.name, t.description, t.priority, t.duration, t.deadline, t.status, ?, false, t.category, t.notes, " +
+            "t.subtask_total, t.subtask_done " +
+            "FROM unnest(?::text[], ?::text[], ?::text[], ?::text[], ?::timestamptz[], ?::text[], ?::text[], ?::text[], " +
+            "?::int[], ?::int[]) WITH ORDINALITY " +
+            "AS t(name, description, priority, duration, deadline, status, category, notes, subtask_total, subtask_done, ord) " +
+            "ORDER BY t.ord " +
+            "RETURNING task_id";
+
+    private static final String INSERT_SUBTASKS_SQL =
+            "INSERT INTO subtasks (task_id, title, description, completed, position) " +
+            "SELECT * FROM unnest(?::bigint[], ?::text[], ?::text[], ?::boolean[], ?::int[])";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public AcceptRepositoryCustomImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public List<MaterializedTaskDTO> materialize(Long userId, List<AcceptedSuggestionDTO> suggestions, OffsetDateTime now) {
+        int n = suggestions.size();
+        String[] titles = new String[n];
+        String[] descriptions = new String[n];
+        String[] deadlines = new String[n];
+        String[] priorities = new String[n];
+        String[] durations = new String[n];
+        String[] statuses = new String[n];
+        String[] categories = new String[n];
+        String[] notes = new String[n];
+        Integer[] subtaskTotals = new Integer[n];
+        Integer[] subtaskDone = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            AcceptedSuggestionDTO s = suggestions.get(i);
+            List<SubTaskDTO> subtasks = s.getSubtasks() != null ? s.getSubtasks() : Collections.emptyList();
+            titles[i] = s.getTaskTitle();
+            descriptions[i] = s.getTaskDescription();
+            deadlines[i] = s.getDeadline() != null ? s.getDeadline().atOffset(ZoneOffset.UTC).toString() : null;
+            priorities[i] = s.getPriority();
+            durations[i] = s.getEstimatedDuration();
+            statuses[i] = s.getStatus();
+            categories[i] = s.getCategory();
+            notes[i] = s.getNotes();
+            subtaskTotals[i] = subtasks.size();
+            subtaskDone[i] = (int) subtasks.stream().filter(SubTaskDTO::isCompleted).count();
+        }
+
+        List<Long> acceptedIds = jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(INSERT_ACCEPTED_SQL);
+            ps.setLong(1, userId);
+            ps.setObject(2, now);
+            ps.setArray(3, con.createArrayOf("text", titles));
+            ps.setArray(4, con.createArrayOf("text", descriptions));
+            ps.setArray(5, con.createArrayOf("text", deadlines));
+            return ps;
+        }, (rs, rowNum) -> rs.getLong(1));
+
+        List<Long> taskIds = jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(INSERT_TASKS_SQL);
+            ps.setLong(1, userId);
+            ps.setObject(2, now);
+            ps.setArray(3, con.createArrayOf("text", titles));
+            ps.setArray(4, con.createArrayOf("text", descriptions));
+            ps.setArray(5, con.createArrayOf("text", priorities));
+            ps.setArray(6, con.createArrayOf("text", durations));
+            ps.setArray(7, con.createArrayOf("text", deadlines));
+            ps.setArray(8, con.createArrayOf("text", statuses));
+            ps.setArray(9, con.createArrayOf("text", categories));
+            ps.setArray(10, con.createArrayOf("text", notes));
+            ps.setArray(11, con.createArrayOf("integer", subtaskTotals));
+            ps.setArray(12, con.createArrayOf("integer", subtaskDone));
+            return ps;
+        }, (rs, rowNum) -> rs.getLong(1));
+        Collections.sort(acceptedIds);
+        Collections.sort(taskIds);
+
+        // All subtasks of all new tasks in one statement, positioned 0..k-1 within their task
+        List<Long> subtaskTaskIds = new ArrayList<>();
+        List<String> subtaskTitles = new ArrayList<>();
+        List<String> subtaskDescriptions = new ArrayList<>();
+        List<Boolean> subtaskCompleted = new ArrayList<>();
+        List<Integer> subtaskPositions = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            List<SubTaskDTO> subtasks = suggestions.get(i).getSubtasks();
+            if (subtasks == null) {
+                continue;
+            }
+            for (int p = 0; p < subtasks.size(); p++) {
+                SubTaskDTO sub = subtasks.get(p);
+                subtaskTaskIds.add(taskIds.get(i));
+                subtaskTitles.add(sub.getTitle());
+                subtaskDescriptions.add(sub.getDescription() != null ? sub.getDescription() : "");
+                subtaskCompleted.add(sub.isCompleted());
+                subtaskPositions.add(p);
+            }
+        }
+        if (!subtaskTaskIds.isEmpty()) {
+            jdbcTemplate.update(con -> {
+                PreparedStatement ps = con.prepareStatement(INSERT_SUBTASKS_SQL);
+                ps.setArray(1, con.createArrayOf("bigint", subtaskTaskIds.toArray()));
+                ps.setArray(2, con.createArrayOf("text", subtaskTitles.toArray()));
+                ps.setArray(3, con.createArrayOf("text", subtaskDescriptions.toArray()));
+                ps.setArray(4, con.createArrayOf("boolean", subtaskCompleted.toArray()));
+                ps.setArray(5, con.createArrayOf("integer", subtaskPositions.toArray()));
+                return ps;
+            });
+        }
+
+        List<MaterializedTaskDTO> result = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            result.add(new MaterializedTaskDTO(acceptedIds.get(i), taskIds.get(i), subtaskTotals[i]));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,66 @@
+package com.jalennorris.server.Repository;
+
+import com.jalennorris.server.Models.UserDailyTaskStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface DailyTaskStatsRepository extends JpaRepository<UserDailyTaskStats, Long> {
+
+    // Served by the (user_id, stat_date) unique index in a single range scan
+    List<UserDailyTaskStats> findByUserIdAndStatDateBetweenOrderByStatDateAsc(Long userId, LocalDate from, LocalDate to);
+
+    // Weekly totals over the daily rows; each row is [week start, created, completed]
+    @Query(value = "SELECT CAST(date_trunc('week', s.stat_date) AS date) AS week, " +
+            "SUM(s.created_count) AS created, SUM(s.completed_count) AS completed " +
+            "FROM user_daily_task_stats s WHERE s.user_id = :userId AND s.stat_date BETWEEN :from AND :to " +
+            "GROUP BY 1 ORDER BY 1", nativeQuery = true)
+    List<Object[]> sumByWeek(@Param("userId") Long userId, @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    // Apply a delta to one user/day row, creating it if needed
+    @Modifying
+    @Query(value = "INSERT INTO user_daily_task_stats (user_id, stat_date, created_count, completed_count) " +
+            "VALUES (:userId, :statDate, :createdDelta, :completedDelta) " +
+            "ON CONFLICT (user_id, stat_date) DO UPDATE SET " +
+            "created_count = user_daily_task_stats.created_count + EXCLUDED.created_count, " +
+            "completed_count = user_daily_task_stats.completed_count + EXCLUDED.completed_count", nativeQuery = true)
+    int applyDelta(@Param("userId") Long userId, @Param("statDate") LocalDate statDate,
+                   @Param("createdDelta") long createdDelta, @Param("completedDelta") long completedDelta);
+
+    // Transaction-scoped advisory lock so only one node runs the rebuild; false when another holds it
+    @Query(value = "SELECT pg_try_advisory_xact_lock(hashtext('user_daily_task_stats_rebuild'))", nativeQuery = true)
+    boolean tryLockRebuild();
+
+    // Recompute every row before :today from the tasks table (UTC days) in place: rows that differ are
+    // overwritten, rows with nothing left behind them are deleted, and rows still receiving deltas
+    // (today and later) are left alone. Returns the number of rows corrected, so it runs as a query
+    // rather than an update; the data-modifying CTEs still execute in full.
+    @Query(value = "WITH fresh AS (" +
+            "  SELECT user_id, stat_date, SUM(created) AS created_count, SUM(completed) AS completed_count FROM (" +
+            "    SELECT t.user_id, CAST(t.created_at AT TIME ZONE 'UTC' AS date) AS stat_date, 1 AS created, 0 AS completed " +
+            "    FROM tasks t WHERE t.created_at IS NOT NULL " +
+            "    UNION ALL " +
+            "    SELECT t.user_id, CAST(t.completed_at AT TIME ZONE 'UTC' AS date), 0, 1 " +
+            "    FROM tasks t WHERE t.completed = true AND t.completed_at IS NOT NULL" +
+            "  ) d WHERE stat_date < :today GROUP BY user_id, stat_date" +
+            "), upserted AS (" +
+            "  INSERT INTO user_daily_task_stats (user_id, stat_date, created_count, completed_count) " +
+            "  SELECT user_id, stat_date, created_count, completed_count FROM fresh " +
+            "  ON CONFLICT (user_id, stat_date) DO UPDATE SET " +
+            "  created_count = EXCLUDED.created_count, completed_count = EXCLUDED.completed_count " +
+            "  WHERE (user_daily_task_stats.created_count, user_daily_task_stats.completed_count) " +
+            "  IS DISTINCT FROM (EXCLUDED.created_count, EXCLUDED.completed_count) " +
+            "  RETURNING 1" +
+            "), removed AS (" +
+            "  DELETE FROM user_daily_task_stats s WHERE s.stat_date < :today " +
+            "  AND NOT EXISTS (SELECT 1 FROM fresh f WHERE f.user_id = s.user_id AND f.stat_date = s.stat_date) " +
+            "  RETURNING 1" +
+            ") SELECT (SELECT COUNT(*) FROM upserted) + (SELECT COUNT(*) FROM removed)", nativeQuery = true)
+    long rebuildFromTasks(@Param("today") LocalDate today);
+}
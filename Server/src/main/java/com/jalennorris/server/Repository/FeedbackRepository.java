@@ -2,12 +2,22 @@ package com.jalennorris.server.Repository;
 
 import com.jalennorris.server.Models.UserFeedback;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
-import java.util.List;
+import org.springframework.transaction.annotation.Transactional;
 
 @Repository
-public interface FeedbackRepository extends JpaRepository<UserFeedback, Long> {
+public interface FeedbackRepository extends JpaRepository<UserFeedback, Long>, FeedbackRepositoryCustom {
     
-    List<UserFeedback> findByUser(Long user);
+    // Null out up to :limit references to accepted AI tasks that no longer exist
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE user_feedback SET accepted_ai_task_id = NULL WHERE id IN (" +
+            "SELECT f.id FROM user_feedback f WHERE f.accepted_ai_task_id IS NOT NULL " +
+            "AND NOT EXISTS (SELECT 1 FROM accepted_tasks a WHERE a.id = f.accepted_ai_task_id) " +
+            "LIMIT :limit)", nativeQuery = true)
+    int clearDanglingAcceptedTaskIds(@Param("limit") int limit);
     // Add custom query methods if needed
 }
@@ -0,0 +1,26 @@
+package com.jalennorris.server.Repository;
+
+import com.jalennorris.server.Models.UserFeedback;
+import com.jalennorris.server.dto.FeedbackRatingStatsDTO;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// JDBC batch writes and rating aggregates of user_feedback
+public interface FeedbackRepositoryCustom {
+
+    // Insert all rows as one JDBC batch; generated ids are not read back
+    void insertBatch(List<UserFeedback> feedback);
+
+    // Rating stats of up to limit accepted AI tasks with id > afterTaskId, by task id;
+    // from/to (either may be null) bound created_at
+    List<FeedbackRatingStatsDTO> ratingStatsByAcceptedTask(long afterTaskId, int limit, LocalDateTime from, LocalDateTime to);
+
+    // Rating stats of one accepted AI task, or of one user when acceptedAITaskId is null
+    FeedbackRatingStatsDTO ratingStats(Long acceptedAITaskId, Long userId);
+
+    // Rating stats per date_trunc(unit, created_at) bucket in [from, to), optionally for one task and/or user.
+    // unit must be a trusted date_trunc field name; it is inlined into the SQL
+    List<FeedbackRatingStatsDTO> ratingStatsByBucket(String unit, LocalDateTime from, LocalDateTime to,
+                                                     Long acceptedAITaskId, Long userId);
+}
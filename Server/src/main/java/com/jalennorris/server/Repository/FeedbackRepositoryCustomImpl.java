@@ -0,0 +1,124 @@
+package com.jalennorris.server.Repository;
+
+import com.jalennorris.server.Models.UserFeedback;
+import com.jalennorris.server.dto.FeedbackRatingStatsDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+public class FeedbackRepositoryCustomImpl implements FeedbackRepositoryCustom {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO user_feedback (user_id, feedback_text, rating, created_at, accepted_ai_task_id) " +
+            "VALUES (?, ?, ?, ?, ?)";
+
+    // Aggregates are grouped by (group key, rating) in SQL; the few resulting rows per group
+    // are folded into count/average/distribution in Java
+    private static final String STATS_BY_TASK_SQL =
+            "SELECT accepted_ai_task_id AS k, rating, COUNT(*) AS n FROM user_feedback " +
+            "WHERE accepted_ai_task_id IN (" +
+            "  SELECT DISTINCT accepted_ai_task_id FROM user_feedback WHERE accepted_ai_task_id > ?%1$s " +
+            "  ORDER BY accepted_ai_task_id LIMIT ?" +
+            ")%1$s GROUP BY 1, 2 ORDER BY 1, 2";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public FeedbackRepositoryCustomImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void insertBatch(List<UserFeedback> feedback) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, feedback, feedback.size(), (ps, f) -> {
+            ps.setLong(1, f.getUser());
+            ps.setObject(2, f.getFeedbackText(), Types.VARCHAR);
+            ps.setObject(3, f.getRating(), Types.INTEGER);
+            ps.setObject(4, f.getCreatedAt(), Types.TIMESTAMP);
+            ps.setObject(5, f.getAcceptedAITaskId(), Types.BIGINT);
+        });
+    }
+
+    @Override
+    public List<FeedbackRatingStatsDTO> ratingStatsByAcceptedTask(long afterTaskId, int limit,
+                                                                  LocalDateTime from, LocalDateTime to) {
+        // The same created_at bounds apply to picking the page of tasks and to aggregating them
+        StringBuilder range = new StringBuilder();
+        List<Object> rangeArgs = new ArrayList<>();
+        if (from != null) {
+            range.append(" AND created_at >= ?");
+            rangeArgs.add(from);
+        }
+        if (to != null) {
+            range.append(" AND created_at < ?");
+            rangeArgs.add(to);
+        }
+        List<Object> args = new ArrayList<>();
+        args.add(afterTaskId);
+        args.addAll(rangeArgs);
+        args.add(limit);
+        args.addAll(rangeArgs);
+        return groupedStats(String.format(STATS_BY_TASK_SQL, range), args.toArray(),
+                (stats, key) -> stats.setAcceptedAITaskId(((Number) key).longValue()));
+    }
+
+    @Override
+    public FeedbackRatingStatsDTO ratingStats(Long acceptedAITaskId, Long userId) {
+        String column = acceptedAITaskId != null ? "accepted_ai_task_id" : "user_id";
+        Long id = acceptedAITaskId != null ? acceptedAITaskId : userId;
+        List<FeedbackRatingStatsDTO> stats = groupedStats(
+                "SELECT " + column + " AS k, rating, COUNT(*) AS n FROM user_feedback WHERE " + column + " = ? " +
+                "GROUP BY 1, 2 ORDER BY 1, 2", new Object[]{id}, (s, key) -> {});
+        FeedbackRatingStatsDTO result = stats.isEmpty() ? new FeedbackRatingStatsDTO() : stats.get(0);
+        result.setAcceptedAITaskId(acceptedAITaskId);
+        result.setUserId(acceptedAITaskId != null ? null : userId);
+        return result;
+    }
+
+    @Override
+    public List<FeedbackRatingStatsDTO> ratingStatsByBucket(String unit, LocalDateTime from, LocalDateTime to,
+                                                            Long acceptedAITaskId, Long userId) {
+        StringBuilder sql = new StringBuilder(
+                "SELECT date_trunc('" + unit + "', created_at) AS k, rating, COUNT(*) AS n FROM user_feedback " +
+                "WHERE created_at >= ? AND created_at < ?");
+        List<Object> args = new ArrayList<>();
+        args.add(from);
+        args.add(to);
+        if (acceptedAITaskId != null) {
+            sql.append(" AND accepted_ai_task_id = ?");
+            args.add(acceptedAITaskId);
+        }
+        if (userId != null) {
+            sql.append(" AND user_id = ?");
+            args.add(userId);
+        }
+        sql.append(" GROUP BY 1, 2 ORDER BY 1, 2");
+        return groupedStats(sql.toString(), args.toArray(),
+                (stats, key) -> stats.setBucketStart(((Timestamp) key).toLocalDateTime()));
+    }
+
+    // Run a (k, rating, n) query and fold its rows into one stats object per k, in k order
+    private List<FeedbackRatingStatsDTO> groupedStats(String sql, Object[] args,
+                                                      BiConsumer<FeedbackRatingStatsDTO, Object> setKey) {
+        Map<Object, FeedbackRatingStatsDTO> groups = new LinkedHashMap<>();
+        jdbcTemplate.query(sql, rs -> {
+            Object key = rs.getObject("k");
+            FeedbackRatingStatsDTO stats = groups.get(key);
+            if (stats == null) {
+                stats = new FeedbackRatingStatsDTO();
+                setKey.accept(stats, key);
+                groups.put(key, stats);
+            }
+            stats.add(rs.getObject("rating", Integer.class), rs.getLong("n"));
+        }, args);
+        return new ArrayList<>(groups.values());
+    }
+}
@@ -3,9 +3,37 @@ package com.jalennorris.server.Repository;
 
 import com.jalennorris.server.Models.UserGoal;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
 public interface GoalRepository extends JpaRepository<UserGoal, Long> {
-    // Add custom query methods if needed
+
+    // Lock a goal row for the rest of the transaction, so no task can be linked to it meanwhile;
+    // null when the goal doesn't exist
+    @Query(value = "SELECT id FROM user_goals WHERE id = :goalId FOR UPDATE", nativeQuery = true)
+    Long lockById(@Param("goalId") long goalId);
+
+    // Share-lock a goal row while tasks are linked to it: links run side by side, but wait for (and
+    // then fail to find) a goal being deleted under lockById; null when the goal doesn't exist
+    @Query(value = "SELECT id FROM user_goals WHERE id = :goalId FOR SHARE", nativeQuery = true)
+    Long lockForLinkById(@Param("goalId") long goalId);
+
+    // Task progress of a page of a user's goals (ids after afterId) in one grouped query over
+    // idx_tasks_goal_id; each row is [goal id, goal text, linked tasks, completed linked tasks]
+    @Query(value = "SELECT g.id, g.goal_text, COUNT(t.task_id), COUNT(t.task_id) FILTER (WHERE t.completed) " +
+            "FROM user_goals g LEFT JOIN tasks t ON t.goal_id = g.id " +
+            "WHERE g.user_id = :userId AND g.id > :afterId GROUP BY g.id, g.goal_text ORDER BY g.id LIMIT :limit",
+            nativeQuery = true)
+    List<Object[]> findProgressByUser(@Param("userId") Long userId, @Param("afterId") long afterId,
+                                      @Param("limit") int limit);
+
+    // Same as findProgressByUser for a single goal
+    @Query(value = "SELECT g.id, g.goal_text, COUNT(t.task_id), COUNT(t.task_id) FILTER (WHERE t.completed) " +
+            "FROM user_goals g LEFT JOIN tasks t ON t.goal_id = g.id " +
+            "WHERE g.id = :goalId GROUP BY g.id, g.goal_text", nativeQuery = true)
+    List<Object[]> findProgressById(@Param("goalId") Long goalId);
 }
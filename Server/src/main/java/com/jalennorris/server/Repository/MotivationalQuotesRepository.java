@@ -1,10 +1,24 @@
 package com.jalennorris.server.Repository;
 
 import com.jalennorris.server.Models.MotivationalQuotesModel;
+import com.jalennorris.server.dto.QuoteLeaderboardEntryDTO;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
 public interface MotivationalQuotesRepository extends JpaRepository<MotivationalQuotesModel, Long> {
-    // Add custom query methods if needed
+
+    // Most liked quotes; a top-N walk of idx_quotes_like_count
+    @Query("SELECT new com.jalennorris.server.dto.QuoteLeaderboardEntryDTO(q.id, q.quote, q.author, q.type, " +
+            "q.like_count, q.favorite_count) FROM MotivationalQuotesModel q ORDER BY q.like_count DESC, q.id ASC")
+    List<QuoteLeaderboardEntryDTO> findTopByLikes(Pageable pageable);
+
+    // Most favorited quotes; a top-N walk of idx_quotes_favorite_count
+    @Query("SELECT new com.jalennorris.server.dto.QuoteLeaderboardEntryDTO(q.id, q.quote, q.author, q.type, " +
+            "q.like_count, q.favorite_count) FROM MotivationalQuotesModel q ORDER BY q.favorite_count DESC, q.id ASC")
+    List<QuoteLeaderboardEntryDTO> findTopByFavorites(Pageable pageable);
 }
\ No newline at end of file
@@ -0,0 +1,63 @@
+package com.jalennorris.server.Repository;
+
+import com.jalennorris.server.Models.OutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface OutboxRepository extends JpaRepository<OutboxEvent, Long> {
+
+    // Append an event in the caller's transaction and return its id; a repeated idempotency key is
+    // ignored and returns null
+    @Query(value = "INSERT INTO outbox_events (event_type, payload, idempotency_key, created_at, available_at, attempts) " +
+            "VALUES (:eventType, :payload, :idempotencyKey, now(), now(), 0) " +
+            "ON CONFLICT (idempotency_key) DO NOTHING RETURNING id", nativeQuery = true)
+    Long append(@Param("eventType") String eventType, @Param("payload") String payload,
+               @Param("idempotencyKey") String idempotencyKey);
+
+    // Claim the oldest pending events by pushing their available_at past a lease; other relays skip
+    // rows being claimed (SKIP LOCKED) and, once committed, no longer see them as available. A claim
+    // that is never marked processed or failed (the node died) becomes available again after the lease.
+    @Query(value = "UPDATE outbox_events SET available_at = now() + make_interval(secs => :leaseSeconds) " +
+            "WHERE id IN (SELECT id FROM outbox_events WHERE processed_at IS NULL AND available_at <= now() " +
+            "ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED) RETURNING *", nativeQuery = true)
+    List<OutboxEvent> claimPending(@Param("limit") int limit, @Param("leaseSeconds") double leaseSeconds);
+
+    @Modifying
+    @Query(value = "UPDATE outbox_events SET processed_at = now(), status = 'DELIVERED' WHERE id IN (:ids)", nativeQuery = true)
+    int markProcessed(@Param("ids") List<Long> ids);
+
+    @Modifying
+    @Query(value = "UPDATE outbox_events SET attempts = attempts + 1, last_error = :error, " +
+            "available_at = now() + make_interval(secs => :delaySeconds) WHERE id IN (:ids)", nativeQuery = true)
+    int markFailed(@Param("ids") List<Long> ids, @Param("error") String error, @Param("delaySeconds") double delaySeconds);
+
+    // Give up on events: they leave the pending set but are kept, marked DEAD, for inspection
+    @Modifying
+    @Query(value = "UPDATE outbox_events SET attempts = attempts + 1, last_error = :error, " +
+            "processed_at = now(), status = 'DEAD' WHERE id IN (:ids)", nativeQuery = true)
+    int markDead(@Param("ids") List<Long> ids, @Param("error") String error);
+
+    // Age in seconds of the oldest undelivered event (0 when drained), measured on the database clock
+    @Query(value = "SELECT COALESCE(EXTRACT(EPOCH FROM now() - MIN(created_at)), 0) " +
+            "FROM outbox_events WHERE processed_at IS NULL", nativeQuery = true)
+    double findOldestPendingAgeSeconds();
+
+    @Query(value = "SELECT COUNT(*) FROM outbox_events WHERE processed_at IS NULL", nativeQuery = true)
+    long countPending();
+
+    // Delete up to :limit delivered events processed before the cutoff; dead events are kept
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM outbox_events WHERE id IN (" +
+            "SELECT id FROM outbox_events WHERE processed_at < :cutoff AND status IS DISTINCT FROM 'DEAD' " +
+            "LIMIT :limit)", nativeQuery = true)
+    int deleteProcessedBefore(@Param("cutoff") Instant cutoff, @Param("limit") int limit);
+}
@@ -1,8 +1,33 @@
 package com.jalennorris.server.Repository;
 
 import com.jalennorris.server.Models.ScheduleModels;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
-public interface ScheduleRepository extends JpaRepository<ScheduleModels, Long> {
-    // You can add custom queries here if needed
+import java.util.Date;
+import java.util.List;
+
+public interface ScheduleRepository extends JpaRepository<ScheduleModels, Long>, ScheduleRepositoryCustom {
+
+    // One page of a user's entries in [from, to), ordered by (scheduled_time, scheduleId) and
+    // starting strictly after the (afterTime, afterId) cursor; served by idx_schedule_user_time
+    @Query("SELECT s FROM ScheduleModels s WHERE s.userId = :userId " +
+            "AND s.scheduled_time >= :from AND s.scheduled_time < :to " +
+            "AND (s.scheduled_time > :afterTime OR (s.scheduled_time = :afterTime AND s.scheduleId > :afterId)) " +
+            "ORDER BY s.scheduled_time ASC, s.scheduleId ASC")
+    List<ScheduleModels> findWindowPage(@Param("userId") long userId, @Param("from") Date from, @Param("to") Date to,
+                                        @Param("afterTime") Date afterTime, @Param("afterId") long afterId,
+                                        Pageable pageable);
+
+    // Delete up to :limit schedule entries whose task no longer exists
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM schedule WHERE schedule_id IN (" +
+            "SELECT s.schedule_id FROM schedule s WHERE NOT EXISTS (SELECT 1 FROM tasks t WHERE t.task_id = s.task_id) " +
+            "LIMIT :limit)", nativeQuery = true)
+    int deleteOrphans(@Param("limit") int limit);
 }
\ No newline at end of file
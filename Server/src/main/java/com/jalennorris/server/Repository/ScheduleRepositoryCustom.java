@@ -0,0 +1,24 @@
+package com.jalennorris.server.Repository;
+
+import com.jalennorris.server.dto.ReminderDTO;
+
+import java.util.Date;
+import java.util.List;
+
+// Reminder claiming and task cleanup, which need FOR UPDATE SKIP LOCKED or RETURNING in one statement
+public interface ScheduleRepositoryCustom {
+
+    // Claim up to limit unsent entries due in [dueFrom, dueTo] whose claim is missing or older than
+    // staleBefore, stamping them with claimedAt; rows locked by another node are skipped
+    List<ReminderDTO> claimDueReminders(Date dueFrom, Date dueTo, Date staleBefore, Date claimedAt, int limit);
+
+    // Mark the given reminders as sent, skipping rows whose claim stamp has changed since they were
+    // claimed (rescheduled or re-claimed); returns rows updated
+    int markRemindersSent(List<ReminderDTO> reminders, Date sentAt);
+
+    // Ids of the given reminders that are unsent and still carry the claim stamp they were claimed under
+    List<Long> findStillClaimed(List<ReminderDTO> reminders);
+
+    // Delete every entry of a task; returns {scheduleId, userId} of each deleted row
+    List<long[]> deleteByTaskId(long taskId);
+}
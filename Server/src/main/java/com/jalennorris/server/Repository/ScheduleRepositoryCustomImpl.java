@@ -0,0 +1,113 @@
+package com.jalennorris.server.Repository;
+
+import com.jalennorris.server.dto.ReminderDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.Date;
+import java.util.List;
+
+public class ScheduleRepositoryCustomImpl implements ScheduleRepositoryCustom {
+
+    // The inner SELECT walks idx_schedule_reminder_due; SKIP LOCKED lets several nodes claim
+    // disjoint rows concurrently, and the claim stamp keeps them disjoint after the statement ends
+    private static final String CLAIM_DUE_SQL =
+            "WITH claimed AS (" +
+            "  UPDATE schedule s SET reminder_claimed_at = ? " +
+            "  WHERE s.schedule_id IN (" +
+            "    SELECT d.schedule_id FROM schedule d " +
+            "    WHERE d.reminder_sent_at IS NULL AND d.scheduled_time >= ? AND d.scheduled_time <= ? " +
+            "      AND (d.reminder_claimed_at IS NULL OR d.reminder_claimed_at < ?) " +
+            "    ORDER BY d.scheduled_time LIMIT ? FOR UPDATE SKIP LOCKED) " +
+            "  RETURNING s.schedule_id, s.user_id, s.task_id, s.scheduled_time, s.reminder_claimed_at) " +
+            "SELECT c.schedule_id, c.user_id, c.task_id, c.scheduled_time, c.reminder_claimed_at, " +
+            "  t.task_name, u.expo_push_token " +
+            "FROM claimed c " +
+            "LEFT JOIN tasks t ON t.task_id = c.task_id " +
+            "LEFT JOIN users u ON u.user_id = c.user_id";
+
+    // A row is only touched while it still carries the claim stamp the reminder was sent under;
+    // a reschedule or delete in the meantime resets or removes the claim, and the new time keeps firing
+    private static final String MARK_SENT_SQL =
+            "UPDATE schedule s SET reminder_sent_at = ? " +
+            "FROM unnest(?, ?) AS c(schedule_id, claimed_at) " +
+            "WHERE s.schedule_id = c.schedule_id AND s.reminder_claimed_at = c.claimed_at";
+
+    private static final String STILL_CLAIMED_SQL =
+            "SELECT s.schedule_id FROM schedule s " +
+            "JOIN unnest(?, ?) AS c(schedule_id, claimed_at) " +
+            "  ON s.schedule_id = c.schedule_id AND s.reminder_claimed_at = c.claimed_at " +
+            "WHERE s.reminder_sent_at IS NULL";
+
+    private static final String DELETE_BY_TASK_SQL =
+            "DELETE FROM schedule WHERE task_id = ? RETURNING schedule_id, user_id";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public ScheduleRepositoryCustomImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public List<ReminderDTO> claimDueReminders(Date dueFrom, Date dueTo, Date staleBefore, Date claimedAt, int limit) {
+        return jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(CLAIM_DUE_SQL);
+            ps.setTimestamp(1, new Timestamp(claimedAt.getTime()));
+            ps.setTimestamp(2, new Timestamp(dueFrom.getTime()));
+            ps.setTimestamp(3, new Timestamp(dueTo.getTime()));
+            ps.setTimestamp(4, new Timestamp(staleBefore.getTime()));
+            ps.setInt(5, limit);
+            return ps;
+        }, (rs, rowNum) -> new ReminderDTO(
+                rs.getLong("schedule_id"),
+                rs.getLong("user_id"),
+                rs.getLong("task_id"),
+                new Date(rs.getTimestamp("scheduled_time").getTime()),
+                rs.getString("task_name"),
+                rs.getString("expo_push_token"),
+                rs.getTimestamp("reminder_claimed_at")));
+    }
+
+    @Override
+    public int markRemindersSent(List<ReminderDTO> reminders, Date sentAt) {
+        return jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement(MARK_SENT_SQL);
+            ps.setTimestamp(1, new Timestamp(sentAt.getTime()));
+            setClaims(con, ps, 2, reminders);
+            return ps;
+        });
+    }
+
+    @Override
+    public List<Long> findStillClaimed(List<ReminderDTO> reminders) {
+        return jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(STILL_CLAIMED_SQL);
+            setClaims(con, ps, 1, reminders);
+            return ps;
+        }, (rs, rowNum) -> rs.getLong("schedule_id"));
+    }
+
+    // Bind the reminders' ids and claim stamps as two parallel arrays starting at index
+    private static void setClaims(Connection con, PreparedStatement ps, int index, List<ReminderDTO> reminders)
+            throws SQLException {
+        Long[] ids = new Long[reminders.size()];
+        Timestamp[] claims = new Timestamp[reminders.size()];
+        for (int i = 0; i < reminders.size(); i++) {
+            ids[i] = reminders.get(i).getScheduleId();
+            claims[i] = new Timestamp(reminders.get(i).getClaimedAt().getTime());
+        }
+        ps.setArray(index, con.createArrayOf("bigint", ids));
+        ps.setArray(index + 1, con.createArrayOf("timestamp", claims));
+    }
+
+    @Override
+    public List<long[]> deleteByTaskId(long taskId) {
+        return jdbcTemplate.query(DELETE_BY_TASK_SQL,
+                (rs, rowNum) -> new long[]{rs.getLong("schedule_id"), rs.getLong("user_id")}, taskId);
+    }
+}
@@ -2,14 +2,46 @@ package com.jalennorris.server.Repository;
 
 import com.jalennorris.server.Models.SubTaskModels;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
-public interface SubTaskRepository extends JpaRepository<SubTaskModels, Long> {
+public interface SubTaskRepository extends JpaRepository<SubTaskModels, Long>, SubTaskRepositoryCustom {
     List<SubTaskModels> findByTaskId(Long taskId);
 
+    long countByTaskId(Long taskId);
+
+    // Subtasks of a task in display order (unpositioned rows last)
+    @Query("SELECT s FROM SubTaskModels s WHERE s.taskId = :taskId ORDER BY s.position ASC NULLS LAST, s.id ASC")
+    List<SubTaskModels> findByTaskIdOrdered(@Param("taskId") Long taskId);
+
+    @Query("SELECT COALESCE(MAX(s.position), -1) FROM SubTaskModels s WHERE s.taskId = :taskId")
+    int findMaxPosition(@Param("taskId") Long taskId);
+
+    // Mark several subtasks of one task completed/uncompleted in one UPDATE; only rows that change are counted
+    @Modifying
+    @Query("UPDATE SubTaskModels s SET s.completed = :completed " +
+            "WHERE s.taskId = :taskId AND s.id IN :ids AND s.completed <> :completed")
+    int updateCompleted(@Param("taskId") Long taskId, @Param("ids") Collection<Long> ids, @Param("completed") boolean completed);
+
+    // Subtasks of several tasks in one query, for expanding a page of tasks
+    @Query("SELECT s FROM SubTaskModels s WHERE s.taskId IN :taskIds ORDER BY s.taskId, s.position ASC NULLS LAST, s.id ASC")
+    List<SubTaskModels> findByTaskIdInOrdered(@Param("taskIds") Collection<Long> taskIds);
+
+    // Delete up to :limit subtasks whose task no longer exists; each call is its own short transaction
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM subtasks WHERE id IN (" +
+            "SELECT s.id FROM subtasks s WHERE NOT EXISTS (SELECT 1 FROM tasks t WHERE t.task_id = s.task_id) " +
+            "LIMIT :limit)", nativeQuery = true)
+    int deleteOrphans(@Param("limit") int limit);
+
     // Optional: Explicitly declare findAll (not required, just for clarity)
     @Override
     List<SubTaskModels> findAll();
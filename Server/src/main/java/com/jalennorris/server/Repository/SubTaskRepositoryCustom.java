@@ -0,0 +1,15 @@
+package com.jalennorris.server.Repository;
+
+import com.jalennorris.server.Models.SubTaskModels;
+
+import java.util.List;
+
+// Set-based subtask writes that JPA can't express as a single statement
+public interface SubTaskRepositoryCustom {
+
+    // Insert all subtasks for a task in one statement, appended after the current last position
+    List<SubTaskModels> insertBatch(Long taskId, List<SubTaskModels> subTasks);
+
+    // Set position = index in subtaskIds for the task's subtasks in one UPDATE; returns rows updated
+    int reorder(Long taskId, List<Long> subtaskIds);
+}
@@ -0,0 +1,72 @@
+package com.jalennorris.server.Repository;
+
+import com.jalennorris.server.Models.SubTaskModels;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.util.List;
+
+public class SubTaskRepositoryCustomImpl implements SubTaskRepositoryCustom {
+
+    private static final String INSERT_BATCH_SQL =
+            "INSERT INTO subtasks (task_id, title, description, completed, position) " +
+            "SELECT ?, t.title, t.description, t.completed, " +
+            "(SELECT COALESCE(MAX(s.position), -1) FROM subtasks s WHERE s.task_id = ?) + t.ord " +
+            "FROM unnest(?::text[], ?::text[], ?::boolean[]) WITH ORDINALITY AS t(title, description, completed, ord) " +
+            "ORDER BY t.ord " +
+            "RETURNING id, task_id, title, description, completed, position";
+
+    private static final String REORDER_SQL =
+            "UPDATE subtasks s SET position = o.pos - 1 " +
+            "FROM unnest(?::bigint[]) WITH ORDINALITY AS o(id, pos) " +
+            "WHERE s.id = o.id AND s.task_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public SubTaskRepositoryCustomImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public List<SubTaskModels> insertBatch(Long taskId, List<SubTaskModels> subTasks) {
+        String[] titles = new String[subTasks.size()];
+        String[] descriptions = new String[subTasks.size()];
+        Boolean[] completed = new Boolean[subTasks.size()];
+        for (int i = 0; i < subTasks.size(); i++) {
+            titles[i] = subTasks.get(i).getTitle();
+            descriptions[i] = subTasks.get(i).getDescription();
+            completed[i] = subTasks.get(i).isCompleted();
+        }
+        return jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(INSERT_BATCH_SQL);
+            ps.setLong(1, taskId);
+            ps.setLong(2, taskId);
+            ps.setArray(3, con.createArrayOf("text", titles));
+            ps.setArray(4, con.createArrayOf("text", descriptions));
+            ps.setArray(5, con.createArrayOf("boolean", completed));
+            return ps;
+        }, (rs, rowNum) -> {
+            SubTaskModels subTask = new SubTaskModels(
+                    rs.getLong("id"),
+                    rs.getString("title"),
+                    rs.getString("description"),
+                    rs.getBoolean("completed"),
+                    rs.getLong("task_id"));
+            subTask.setPosition(rs.getInt("position"));
+            return subTask;
+        });
+    }
+
+    @Override
+    public int reorder(Long taskId, List<Long> subtaskIds) {
+        Long[] ids = subtaskIds.toArray(new Long[0]);
+        return jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement(REORDER_SQL);
+            ps.setArray(1, con.createArrayOf("bigint", ids));
+            ps.setLong(2, taskId);
+            return ps;
+        });
+    }
+}
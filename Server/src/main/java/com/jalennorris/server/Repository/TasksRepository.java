@@ -5,14 +5,94 @@ import com.jalennorris.server.Models.TasksModels;
 
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.ZonedDateTime;
 import java.util.List;
+import java.util.Optional;
 
 
 public interface TasksRepository extends JpaRepository<TasksModels, Long> {
     List<TasksModels> findByUserId(long userId);
 
+    @Query("SELECT t.userId FROM TasksModels t WHERE t.task_id = :taskId")
+    Optional<Long> findUserIdByTaskId(@Param("taskId") long taskId);
 
+    // Lock a task row for the rest of the transaction, e.g. to serialize position assignment for its
+    // subtasks; null when the task doesn't exist
+    @Query(value = "SELECT task_id FROM tasks WHERE task_id = :taskId FOR UPDATE", nativeQuery = true)
+    Long lockById(@Param("taskId") long taskId);
 
-    // You can add custom queries here if needed
+    // Set-based increment of the denormalized subtask progress counters; native because the
+    // entity maps these columns as not updatable
+    @Modifying
+    @Query(value = "UPDATE tasks SET subtask_total = subtask_total + :totalDelta, " +
+            "subtask_done = subtask_done + :doneDelta WHERE task_id = :taskId", nativeQuery = true)
+    int adjustSubTaskCounters(@Param("taskId") long taskId, @Param("totalDelta") int totalDelta,
+                              @Param("doneDelta") int doneDelta);
+
+    // Link the user's tasks among taskIds to a goal; tasks of other users are left alone.
+    // The goal link queries are native because the entity maps goal_id as not updatable
+    @Modifying
+    @Query(value = "UPDATE tasks SET goal_id = :goalId WHERE task_id IN (:taskIds) AND user_id = :userId",
+            nativeQuery = true)
+    int linkToGoal(@Param("goalId") long goalId, @Param("userId") long userId, @Param("taskIds") List<Long> taskIds);
+
+    @Modifying
+    @Query(value = "UPDATE tasks SET goal_id = NULL WHERE task_id = :taskId AND goal_id = :goalId", nativeQuery = true)
+    int unlinkFromGoal(@Param("goalId") long goalId, @Param("taskId") long taskId);
+
+    // Unlink every task of a goal that is about to be deleted; each row is [task id, user id]
+    @Query(value = "UPDATE tasks SET goal_id = NULL WHERE goal_id = :goalId RETURNING task_id, user_id",
+            nativeQuery = true)
+    List<Object[]> unlinkAllFromGoal(@Param("goalId") long goalId);
+
+    // Null out up to :limit goal links to goals that no longer exist
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE tasks SET goal_id = NULL WHERE task_id IN (" +
+            "SELECT t.task_id FROM tasks t WHERE t.goal_id IS NOT NULL " +
+            "AND NOT EXISTS (SELECT 1 FROM user_goals g WHERE g.id = t.goal_id) " +
+            "LIMIT :limit)", nativeQuery = true)
+    int clearDanglingGoalIds(@Param("limit") int limit);
+
+    // Aggregations for the dashboard; each row is [group value, count]
+    @Query("SELECT t.status, COUNT(t) FROM TasksModels t WHERE t.userId = :userId GROUP BY t.status")
+    List<Object[]> countByStatus(@Param("userId") long userId);
+
+    @Query("SELECT t.category, COUNT(t) FROM TasksModels t WHERE t.userId = :userId GROUP BY t.category")
+    List<Object[]> countByCategory(@Param("userId") long userId);
+
+    @Query("SELECT t.priority, COUNT(t) FROM TasksModels t WHERE t.userId = :userId GROUP BY t.priority")
+    List<Object[]> countByPriority(@Param("userId") long userId);
+
+    @Query("SELECT t.completed, COUNT(t) FROM TasksModels t WHERE t.userId = :userId GROUP BY t.completed")
+    List<Object[]> countByCompleted(@Param("userId") long userId);
+
+    @Query("SELECT COUNT(t) FROM TasksModels t WHERE t.userId = :userId AND t.completed = false AND t.deadline < :now")
+    long countOverdue(@Param("userId") long userId, @Param("now") ZonedDateTime now);
+
+    // Buckets are 'day' or 'week'; each row is [bucket start as yyyy-MM-dd, total, completed]
+    @Query(value = "SELECT to_char(date_trunc(:bucket, t.deadline), 'YYYY-MM-DD') AS bucket, COUNT(*) AS total, " +
+            "COUNT(*) FILTER (WHERE t.completed) AS done " +
+            "FROM tasks t WHERE t.user_id = :userId AND t.deadline IS NOT NULL " +
+            "GROUP BY 1 ORDER BY 1", nativeQuery = true)
+    List<Object[]> countByDeadlineBucket(@Param("userId") long userId, @Param("bucket") String bucket);
+
+    @Query(value = "SELECT to_char(date_trunc(:bucket, t.created_at), 'YYYY-MM-DD') AS bucket, COUNT(*) AS total, " +
+            "COUNT(*) FILTER (WHERE t.completed) AS done " +
+            "FROM tasks t WHERE t.user_id = :userId AND t.created_at IS NOT NULL " +
+            "GROUP BY 1 ORDER BY 1", nativeQuery = true)
+    List<Object[]> countByCreatedBucket(@Param("userId") long userId, @Param("bucket") String bucket);
+
+    // Ranked full-text search within one user's tasks; query is a to_tsquery expression
+    @Query(value = "SELECT t.* FROM tasks t, to_tsquery('english', :query) q " +
+            "WHERE t.user_id = :userId AND t.search_vector @@ q " +
+            "ORDER BY ts_rank(t.search_vector, q) DESC, t.task_id DESC " +
+            "LIMIT :limit OFFSET :offset", nativeQuery = true)
+    List<TasksModels> searchByUserId(@Param("userId") long userId, @Param("query") String query,
+                                     @Param("limit") int limit, @Param("offset") long offset);
 }
\ No newline at end of file
@@ -7,7 +7,7 @@ import org.springframework.stereotype.Repository;
 import java.util.List;
 
 @Repository
-public interface UserQuoteLikeRepository extends JpaRepository<UserQuoteLike, Long> {
+public interface UserQuoteLikeRepository extends JpaRepository<UserQuoteLike, Long>, UserQuoteLikeRepositoryCustom {
     List<UserQuoteLike> findByUserId(Long userId);
     List<UserQuoteLike> findByUserIdAndFavoriteTrue(Long userId);
     List<UserQuoteLike> findByUserIdAndLikeTrue(Long userId);
@@ -0,0 +1,26 @@
+package com.jalennorris.server.Repository;
+
+import com.jalennorris.server.Models.UserQuoteLike;
+import com.jalennorris.server.dto.LikedQuoteDTO;
+
+import java.util.List;
+
+// Like/favorite writes that also keep the quote's counters in step, in the same statement as the row change
+public interface UserQuoteLikeRepositoryCustom {
+
+    // Insert or overwrite the user's row for the quote; the returned entity's quote is an unloaded reference.
+    // Needs a surrounding transaction; null only if the row was deleted again while this ran
+    UserQuoteLike upsertLike(Long userId, Long quoteId, boolean favorite, boolean like);
+
+    // Change the given flags of an existing row (null leaves a flag as is); null when there is no row
+    UserQuoteLike patchLike(Long userId, Long quoteId, Boolean favorite, Boolean like);
+
+    // Delete the user's row for the quote; false when there was none
+    boolean deleteLike(Long userId, Long quoteId);
+
+    // Newest-first page of the user's rows with id < beforeId, joined to their quotes in one query
+    List<LikedQuoteDTO> findLikedQuotesPage(Long userId, long beforeId, boolean likedOnly, boolean favoritesOnly, int limit);
+
+    // {quote_id, liked, favorited} of every quote the user liked or favorited, by quote id
+    List<long[]> findLikedQuoteFlags(Long userId);
+}
@@ -0,0 +1,148 @@
+package com.jalennorris.server.Repository;
+
+import com.jalennorris.server.Models.MotivationalQuotesModel;
+import com.jalennorris.server.Models.UserQuoteLike;
+import com.jalennorris.server.dto.LikedQuoteDTO;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+public class UserQuoteLikeRepositoryCustomImpl implements UserQuoteLikeRepositoryCustom {
+
+    // Only used when the user has no row yet, so the old flags are both false. When two first taps
+    // race, the loser waits for the winner's insert to commit, hits the conflict and gets no row back;
+    // upsertLike then updates the winner's row like any other existing row.
+    private static final String INSERT_SQL =
+            "WITH prev AS (" +
+            "  INSERT INTO favorites_and_likes (user_id, quote_id, favorite, likes, created_at) " +
+            "  VALUES (?, ?, ?, ?, now()) " +
+            "  ON CONFLICT (user_id, quote_id) DO NOTHING " +
+            "  RETURNING id, user_id, quote_id, favorite, likes, created_at, " +
+            "    false AS old_favorite, false AS old_likes" +
+            "), counters AS (" + counterUpdate("prev") + ") " +
+            "SELECT id, user_id, quote_id, favorite, likes, created_at FROM prev";
+
+    // The UPDATE reads from `old`, so the locking read runs first and sees the latest committed
+    // flags; a CTE only referenced after the write would run after it and find the row already changed
+    private static final String PATCH_SQL =
+            "WITH old AS (" +
+            "  SELECT id, favorite, likes FROM favorites_and_likes WHERE user_id = ? AND quote_id = ? FOR UPDATE" +
+            "), prev AS (" +
+            "  UPDATE favorites_and_likes f SET favorite = COALESCE(?::boolean, f.favorite), likes = COALESCE(?::boolean, f.likes) " +
+            "  FROM old WHERE f.id = old.id " +
+            "  RETURNING f.id, f.user_id, f.quote_id, f.favorite, f.likes, f.created_at, " +
+            "    old.favorite AS old_favorite, old.likes AS old_likes" +
+            "), counters AS (" + counterUpdate("prev") + ") " +
+            "SELECT id, user_id, quote_id, favorite, likes, created_at FROM prev";
+
+    private static final String DELETE_SQL =
+            "WITH prev AS (" +
+            "  DELETE FROM favorites_and_likes WHERE user_id = ? AND quote_id = ? " +
+            "  RETURNING quote_id, false AS favorite, false AS likes, favorite AS old_favorite, likes AS old_likes" +
+            "), counters AS (" + counterUpdate("prev") + ") " +
+            "SELECT COUNT(*) FROM prev";
+
+    // Walks idx_favorites_and_likes_user_id backwards and joins each row to its quote by primary key
+    private static final String LIKED_PAGE_SQL =
+            "SELECT f.id, f.quote_id, f.favorite, f.likes, f.created_at, q.quote, q.author, q.type " +
+            "FROM favorites_and_likes f JOIN motivational_quotes q ON q.id = f.quote_id " +
+            "WHERE f.user_id = ? AND f.id < ? AND (f.likes OR f.favorite) " +
+            "AND (NOT ? OR f.likes) AND (NOT ? OR f.favorite) " +
+            "ORDER BY f.id DESC LIMIT ?";
+
+    private static final String LIKED_FLAGS_SQL =
+            "SELECT quote_id, likes, favorite FROM favorites_and_likes " +
+            "WHERE user_id = ? AND (likes OR favorite) ORDER BY quote_id";
+
+    // Apply the old -> new flag change of the rows in `source` to their quote's counters
+    private static String counterUpdate(String source) {
+        return "UPDATE motivational_quotes q SET " +
+                "like_count = q.like_count + p.likes::int - p.old_likes::int, " +
+                "favorite_count = q.favorite_count + p.favorite::int - p.old_favorite::int " +
+                "FROM " + source + " p WHERE q.id = p.quote_id " +
+                "AND (p.likes <> p.old_likes OR p.favorite <> p.old_favorite)";
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    public UserQuoteLikeRepositoryCustomImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // Update the existing row if there is one, else insert; if a concurrent first tap inserted in
+    // between, update its row instead. Must run in a transaction (see UserQuoteLikeService).
+    @Override
+    public UserQuoteLike upsertLike(Long userId, Long quoteId, boolean favorite, boolean like) {
+        UserQuoteLike updated = patchLike(userId, quoteId, favorite, like);
+        if (updated != null) {
+            return updated;
+        }
+        List<UserQuoteLike> inserted = jdbcTemplate.query(INSERT_SQL, rowMapper(),
+                userId, quoteId, favorite, like);
+        if (!inserted.isEmpty()) {
+            return inserted.get(0);
+        }
+        return patchLike(userId, quoteId, favorite, like);
+    }
+
+    @Override
+    public UserQuoteLike patchLike(Long userId, Long quoteId, Boolean favorite, Boolean like) {
+        List<UserQuoteLike> rows = jdbcTemplate.query(PATCH_SQL, rowMapper(),
+                userId, quoteId, favorite, like);
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
+    @Override
+    public boolean deleteLike(Long userId, Long quoteId) {
+        Long deleted = jdbcTemplate.queryForObject(DELETE_SQL, Long.class, userId, quoteId);
+        return deleted != null && deleted > 0;
+    }
+
+    @Override
+    public List<LikedQuoteDTO> findLikedQuotesPage(Long userId, long beforeId, boolean likedOnly,
+                                                   boolean favoritesOnly, int limit) {
+        return jdbcTemplate.query(LIKED_PAGE_SQL, (rs, rowNum) -> {
+            OffsetDateTime createdAt = rs.getObject("created_at", OffsetDateTime.class);
+            return new LikedQuoteDTO(
+                    rs.getLong("id"),
+                    rs.getLong("quote_id"),
+                    rs.getString("quote"),
+                    rs.getString("author"),
+                    rs.getString("type"),
+                    rs.getBoolean("favorite"),
+                    rs.getBoolean("likes"),
+                    createdAt != null ? createdAt.toZonedDateTime() : null);
+        }, userId, beforeId, likedOnly, favoritesOnly, limit);
+    }
+
+    @Override
+    public List<long[]> findLikedQuoteFlags(Long userId) {
+        return jdbcTemplate.query(LIKED_FLAGS_SQL, (rs, rowNum) -> new long[]{
+                rs.getLong("quote_id"),
+                rs.getBoolean("likes") ? 1 : 0,
+                rs.getBoolean("favorite") ? 1 : 0
+        }, userId);
+    }
+
+    // Rows come back as entities whose quote is a proxy; nothing about the quote is loaded
+    private RowMapper<UserQuoteLike> rowMapper() {
+        return (rs, rowNum) -> {
+            MotivationalQuotesModel quote = entityManager.getReference(MotivationalQuotesModel.class, rs.getLong("quote_id"));
+            OffsetDateTime createdAt = rs.getObject("created_at", OffsetDateTime.class);
+            UserQuoteLike userQuoteLike = new UserQuoteLike(rs.getLong("user_id"), quote,
+                    rs.getBoolean("favorite"), rs.getBoolean("likes"),
+                    createdAt != null ? createdAt.toZonedDateTime() : null);
+            userQuoteLike.setId(rs.getLong("id"));
+            return userQuoteLike;
+        };
+    }
+}
@@ -1,7 +1,11 @@
 package com.jalennorris.server.Repository;
 import com.jalennorris.server.Models.UserModels;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import java.util.Optional;
 
 @Repository
@@ -9,4 +13,10 @@ public interface UserRepository extends JpaRepository<UserModels, Long> {
     Optional<UserModels> findByUsername(String username);
     Optional<UserModels> findByEmail(String email);
     Optional<UserModels> findByRole(String role);
+
+    // Forget a push token that Expo reported as no longer registered
+    @Modifying
+    @Transactional
+    @Query("UPDATE UserModels u SET u.expo_push_token = NULL WHERE u.expo_push_token = :token")
+    int clearExpoPushToken(@Param("token") String token);
 }
\ No newline at end of file
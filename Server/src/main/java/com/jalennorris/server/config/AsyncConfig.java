@@ -1,9 +1,12 @@
 package com.jalennorris.server.config;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Bean;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 
 import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
 
 
 @Configuration
@@ -21,6 +24,30 @@ public class AsyncConfig {
         return executor;
     }
 
+    // Sends push batches; a small queue and caller-runs keep the number of in-flight Expo requests bounded
+    @Bean(name = "pushExecutor")
+    public ThreadPoolTaskExecutor pushExecutor(@Value("${push.max-concurrency:4}") int maxConcurrency) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(maxConcurrency);
+        executor.setMaxPoolSize(maxConcurrency);
+        executor.setQueueCapacity(maxConcurrency * 2);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setThreadNamePrefix("push-");
+        executor.initialize();
+        return executor;
+    }
+
+    // Runs every @Scheduled job (reminder loader/dispatcher, outbox relay, push receipts, stats rebuild,
+    // orphan sweep), sized by spring.task.scheduling.pool.size
+    @Bean(name = "taskScheduler")
+    public ThreadPoolTaskScheduler taskScheduler(@Value("${spring.task.scheduling.pool.size:8}") int poolSize) {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(poolSize);
+        scheduler.setThreadNamePrefix("scheduling-");
+        scheduler.initialize();
+        return scheduler;
+    }
+
 
 
 }
@@ -9,16 +9,25 @@ import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.time.Duration;
 
 @Configuration
 @EnableCaching
 public class CacheConfig {
 
+    public static final String SCHEDULE_ITEM_CACHE = "schedule";
+    public static final String SCHEDULE_WINDOW_CACHE = "schedules-window";
+
     @Bean
     public RedisCacheManager cacheManager(RedisConnectionFactory redisConnectionFactory) {
         RedisCacheConfiguration cacheConfiguration = RedisCacheConfiguration.defaultCacheConfig();
         return RedisCacheManager.builder(redisConnectionFactory)
                 .cacheDefaults(cacheConfiguration)
+                .withCacheConfiguration(SCHEDULE_ITEM_CACHE, cacheConfiguration.entryTtl(Duration.ofMinutes(30)))
+                // Window keys carry the user's collection version, so superseded pages just age out
+                .withCacheConfiguration(SCHEDULE_WINDOW_CACHE, cacheConfiguration.entryTtl(Duration.ofMinutes(5)))
                 .build();
     }
 
@@ -28,6 +37,14 @@ public class CacheConfig {
         return new LettuceConnectionFactory();
     }
 
+    // Pub/sub subscriptions (e.g. catalog refreshes across nodes) register their listeners here
+    @Bean
+    public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory redisConnectionFactory) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(redisConnectionFactory);
+        return container;
+    }
+
     @Bean
     public RedisTemplate<String, Object> redisTemplate(RedisConnectionFactory redisConnectionFactory) {
         RedisTemplate<String, Object> template = new RedisTemplate<>();
@@ -1,5 +1,6 @@
 package com.jalennorris.server.config;
 
+import com.jalennorris.server.query.ListQuery;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
@@ -10,6 +11,6 @@ public class WebConfig implements WebMvcConfigurer {
     }
 
     public void addCorsMappings(CorsRegistry registry) {
-        registry.addMapping("/**").allowedOrigins(new String[]{"http://localhost:8081"}).allowedMethods(new String[]{"GET", "POST", "PUT", "DELETE", "OPTIONS"}).allowedHeaders(new String[]{"*"}).allowCredentials(true);
+        registry.addMapping("/**").allowedOrigins(new String[]{"http://localhost:8081"}).allowedMethods(new String[]{"GET", "POST", "PUT", "DELETE", "OPTIONS"}).allowedHeaders(new String[]{"*"}).exposedHeaders(new String[]{"ETag", ListQuery.TRUNCATED_HEADER, ListQuery.NEXT_CURSOR_HEADER}).allowCredentials(true);
     }
 }
\ No newline at end of file
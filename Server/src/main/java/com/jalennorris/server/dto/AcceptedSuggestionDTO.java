@@ -0,0 +1,51 @@
+package com.jalennorris.server.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import java.time.LocalDateTime;
+import java.util.List;
+
+// One AI suggestion the user accepted, to be recorded and turned into a task with optional subtasks
+public class AcceptedSuggestionDTO {
+    private String taskTitle;
+    private String taskDescription;
+
+    // UTC, like AcceptedDTO
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    private LocalDateTime deadline;
+
+    private String priority;
+    private String estimatedDuration;
+    private String status;
+    private String category;
+    private String notes;
+    private List<SubTaskDTO> subtasks;
+
+    public AcceptedSuggestionDTO() {}
+
+    public String getTaskTitle() { return taskTitle; }
+    public void setTaskTitle(String taskTitle) { this.taskTitle = taskTitle; }
+
+    public String getTaskDescription() { return taskDescription; }
+    public void setTaskDescription(String taskDescription) { this.taskDescription = taskDescription; }
+
+    public LocalDateTime getDeadline() { return deadline; }
+    public void setDeadline(LocalDateTime deadline) { this.deadline = deadline; }
+
+    public String getPriority() { return priority; }
+    public void setPriority(String priority) { this.priority = priority; }
+
+    public String getEstimatedDuration() { return estimatedDuration; }
+    public void setEstimatedDuration(String estimatedDuration) { this.estimatedDuration = estimatedDuration; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public String getCategory() { return category; }
+    public void setCategory(String category) { this.category = category; }
+
+    public String getNotes() { return notes; }
+    public void setNotes(String notes) { this.notes = notes; }
+
+    public List<SubTaskDTO> getSubtasks() { return subtasks; }
+    public void setSubtasks(List<SubTaskDTO> subtasks) { this.subtasks = subtasks; }
+}
@@ -0,0 +1,31 @@
+package com.jalennorris.server.dto;
+
+import java.time.LocalDate;
+
+public class DailyTaskStatsDTO {
+    private Long userId;
+    private LocalDate date;
+    private long created;
+    private long completed;
+
+    public DailyTaskStatsDTO() {}
+
+    public DailyTaskStatsDTO(Long userId, LocalDate date, long created, long completed) {
+        this.userId = userId;
+        this.date = date;
+        this.created = created;
+        this.completed = completed;
+    }
+
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+
+    public LocalDate getDate() { return date; }
+    public void setDate(LocalDate date) { this.date = date; }
+
+    public long getCreated() { return created; }
+    public void setCreated(long created) { this.created = created; }
+
+    public long getCompleted() { return completed; }
+    public void setCompleted(long completed) { this.completed = completed; }
+}
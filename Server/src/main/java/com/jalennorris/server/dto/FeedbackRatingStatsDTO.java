@@ -0,0 +1,69 @@
+package com.jalennorris.server.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Rating aggregate of one group of feedback; only the field naming the group is set
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class FeedbackRatingStatsDTO {
+
+    private Long acceptedAITaskId;
+    private Long userId;
+
+    // Start of the time bucket, for timeline stats
+    private LocalDateTime bucketStart;
+
+    // Feedback rows in the group, rated or not
+    private long count;
+
+    // Rows that carry a rating
+    private long ratedCount;
+
+    // Mean of the ratings, null when nothing was rated
+    private Double averageRating;
+
+    @JsonIgnore
+    private long ratingSum;
+
+    // Rating value -> number of rows with it, ascending
+    private Map<Integer, Long> distribution = new TreeMap<>();
+
+    public FeedbackRatingStatsDTO() {}
+
+    // Fold in the number of rows that share one rating (null = unrated)
+    public void add(Integer rating, long rows) {
+        count += rows;
+        if (rating == null) {
+            return;
+        }
+        ratedCount += rows;
+        ratingSum += (long) rating * rows;
+        averageRating = (double) ratingSum / ratedCount;
+        distribution.merge(rating, rows, Long::sum);
+    }
+
+    public Long getAcceptedAITaskId() { return acceptedAITaskId; }
+    public void setAcceptedAITaskId(Long acceptedAITaskId) { this.acceptedAITaskId = acceptedAITaskId; }
+
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+
+    public LocalDateTime getBucketStart() { return bucketStart; }
+    public void setBucketStart(LocalDateTime bucketStart) { this.bucketStart = bucketStart; }
+
+    public long getCount() { return count; }
+    public void setCount(long count) { this.count = count; }
+
+    public long getRatedCount() { return ratedCount; }
+    public void setRatedCount(long ratedCount) { this.ratedCount = ratedCount; }
+
+    public Double getAverageRating() { return averageRating; }
+    public void setAverageRating(Double averageRating) { this.averageRating = averageRating; }
+
+    public Map<Integer, Long> getDistribution() { return distribution; }
+    public void setDistribution(Map<Integer, Long> distribution) { this.distribution = distribution; }
+}
@@ -0,0 +1,37 @@
+package com.jalennorris.server.dto;
+
+// Completion of the tasks linked to one goal
+public class GoalProgressDTO {
+    private Long goalId;
+    private String goalText;
+    private long totalTasks;
+    private long completedTasks;
+
+    // completedTasks / totalTasks in [0, 1]; 0 when no task is linked
+    private double progress;
+
+    public GoalProgressDTO() {}
+
+    public GoalProgressDTO(Long goalId, String goalText, long totalTasks, long completedTasks) {
+        this.goalId = goalId;
+        this.goalText = goalText;
+        this.totalTasks = totalTasks;
+        this.completedTasks = completedTasks;
+        this.progress = totalTasks > 0 ? (double) completedTasks / totalTasks : 0;
+    }
+
+    public Long getGoalId() { return goalId; }
+    public void setGoalId(Long goalId) { this.goalId = goalId; }
+
+    public String getGoalText() { return goalText; }
+    public void setGoalText(String goalText) { this.goalText = goalText; }
+
+    public long getTotalTasks() { return totalTasks; }
+    public void setTotalTasks(long totalTasks) { this.totalTasks = totalTasks; }
+
+    public long getCompletedTasks() { return completedTasks; }
+    public void setCompletedTasks(long completedTasks) { this.completedTasks = completedTasks; }
+
+    public double getProgress() { return progress; }
+    public void setProgress(double progress) { this.progress = progress; }
+}
@@ -0,0 +1,57 @@
+package com.jalennorris.server.dto;
+
+import java.time.ZonedDateTime;
+
+public class LikedQuoteDTO {
+
+    // Id of the like/favorite row; the listing's cursor
+    private Long likeId;
+
+    private Long quoteId;
+    private String quote;
+    private String author;
+    private String type;
+    private boolean favorite;
+    private boolean like;
+
+    // When the user first liked or favorited the quote
+    private ZonedDateTime likedAt;
+
+    public LikedQuoteDTO() {}
+
+    public LikedQuoteDTO(Long likeId, Long quoteId, String quote, String author, String type,
+                         boolean favorite, boolean like, ZonedDateTime likedAt) {
+        this.likeId = likeId;
+        this.quoteId = quoteId;
+        this.quote = quote;
+        this.author = author;
+        this.type = type;
+        this.favorite = favorite;
+        this.like = like;
+        this.likedAt = likedAt;
+    }
+
+    public Long getLikeId() { return likeId; }
+    public void setLikeId(Long likeId) { this.likeId = likeId; }
+
+    public Long getQuoteId() { return quoteId; }
+    public void setQuoteId(Long quoteId) { this.quoteId = quoteId; }
+
+    public String getQuote() { return quote; }
+    public void setQuote(String quote) { this.quote = quote; }
+
+    public String getAuthor() { return author; }
+    public void setAuthor(String author) { this.author = author; }
+
+    public String getType() { return type; }
+    public void setType(String type) { this.type = type; }
+
+    public boolean isFavorite() { return favorite; }
+    public void setFavorite(boolean favorite) { this.favorite = favorite; }
+
+    public boolean isLike() { return like; }
+    public void setLike(boolean like) { this.like = like; }
+
+    public ZonedDateTime getLikedAt() { return likedAt; }
+    public void setLikedAt(ZonedDateTime likedAt) { this.likedAt = likedAt; }
+}
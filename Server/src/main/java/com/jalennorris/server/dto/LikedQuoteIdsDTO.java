@@ -0,0 +1,50 @@
+package com.jalennorris.server.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+// Either the id lists or the bitmaps are set, depending on the requested format
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class LikedQuoteIdsDTO {
+
+    // Ascending ids of the quotes the user liked
+    private List<Long> liked;
+
+    // Ascending ids of the quotes the user favorited
+    private List<Long> favorited;
+
+    // Base64 little-endian bitset (java.util.BitSet#toByteArray): bit n set = quote n liked
+    private String likedBitmap;
+
+    // Same encoding for favorited quotes
+    private String favoritedBitmap;
+
+    public LikedQuoteIdsDTO() {}
+
+    public static LikedQuoteIdsDTO ofIds(List<Long> liked, List<Long> favorited) {
+        LikedQuoteIdsDTO dto = new LikedQuoteIdsDTO();
+        dto.liked = liked;
+        dto.favorited = favorited;
+        return dto;
+    }
+
+    public static LikedQuoteIdsDTO ofBitmaps(String likedBitmap, String favoritedBitmap) {
+        LikedQuoteIdsDTO dto = new LikedQuoteIdsDTO();
+        dto.likedBitmap = likedBitmap;
+        dto.favoritedBitmap = favoritedBitmap;
+        return dto;
+    }
+
+    public List<Long> getLiked() { return liked; }
+    public void setLiked(List<Long> liked) { this.liked = liked; }
+
+    public List<Long> getFavorited() { return favorited; }
+    public void setFavorited(List<Long> favorited) { this.favorited = favorited; }
+
+    public String getLikedBitmap() { return likedBitmap; }
+    public void setLikedBitmap(String likedBitmap) { this.likedBitmap = likedBitmap; }
+
+    public String getFavoritedBitmap() { return favoritedBitmap; }
+    public void setFavoritedBitmap(String favoritedBitmap) { this.favoritedBitmap = favoritedBitmap; }
+}
@@ -0,0 +1,25 @@
+package com.jalennorris.server.dto;
+
+// Ids created for one accepted suggestion
+public class MaterializedTaskDTO {
+    private Long acceptedTaskId;
+    private Long taskId;
+    private int subtaskCount;
+
+    public MaterializedTaskDTO() {}
+
+    public MaterializedTaskDTO(Long acceptedTaskId, Long taskId, int subtaskCount) {
+        this.acceptedTaskId = acceptedTaskId;
+        this.taskId = taskId;
+        this.subtaskCount = subtaskCount;
+    }
+
+    public Long getAcceptedTaskId() { return acceptedTaskId; }
+    public void setAcceptedTaskId(Long acceptedTaskId) { this.acceptedTaskId = acceptedTaskId; }
+
+    public Long getTaskId() { return taskId; }
+    public void setTaskId(Long taskId) { this.taskId = taskId; }
+
+    public int getSubtaskCount() { return subtaskCount; }
+    public void setSubtaskCount(int subtaskCount) { this.subtaskCount = subtaskCount; }
+}
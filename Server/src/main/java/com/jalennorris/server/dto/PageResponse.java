@@ -0,0 +1,55 @@
+package com.jalennorris.server.dto;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+public class PageResponse<T> implements Serializable {
+
+    // Items of the current page
+    private List<T> items;
+
+    // Requested page size
+    private int size;
+
+    // Whether another page exists after this one
+    private boolean hasMore;
+
+    // Zero-based page number, for offset-paginated endpoints
+    private Integer page;
+
+    // Opaque cursor for the next page, for keyset-paginated endpoints
+    private String nextCursor;
+
+    public PageResponse() {}
+
+    public PageResponse(List<T> items, int size, boolean hasMore, Integer page, String nextCursor) {
+        this.items = items;
+        this.size = size;
+        this.hasMore = hasMore;
+        this.page = page;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<T> getItems() { return items; }
+    public void setItems(List<T> items) { this.items = items; }
+
+    public int getSize() { return size; }
+    public void setSize(int size) { this.size = size; }
+
+    public boolean isHasMore() { return hasMore; }
+    public void setHasMore(boolean hasMore) { this.hasMore = hasMore; }
+
+    public Integer getPage() { return page; }
+    public void setPage(Integer page) { this.page = page; }
+
+    public String getNextCursor() { return nextCursor; }
+    public void setNextCursor(String nextCursor) { this.nextCursor = nextCursor; }
+
+    // The same page with every item converted, e.g. entities to DTOs
+    public <R> PageResponse<R> map(Function<? super T, ? extends R> mapper) {
+        List<R> mapped = items.stream().map(mapper).collect(Collectors.toList());
+        return new PageResponse<>(mapped, size, hasMore, page, nextCursor);
+    }
+}
@@ -0,0 +1,44 @@
+package com.jalennorris.server.dto;
+
+public class QuoteLeaderboardEntryDTO {
+
+    private Long quoteId;
+    private String quote;
+    private String author;
+    private String type;
+
+    // Number of users who liked the quote
+    private int likeCount;
+
+    // Number of users who favorited the quote
+    private int favoriteCount;
+
+    public QuoteLeaderboardEntryDTO() {}
+
+    public QuoteLeaderboardEntryDTO(Long quoteId, String quote, String author, String type, int likeCount, int favoriteCount) {
+        this.quoteId = quoteId;
+        this.quote = quote;
+        this.author = author;
+        this.type = type;
+        this.likeCount = likeCount;
+        this.favoriteCount = favoriteCount;
+    }
+
+    public Long getQuoteId() { return quoteId; }
+    public void setQuoteId(Long quoteId) { this.quoteId = quoteId; }
+
+    public String getQuote() { return quote; }
+    public void setQuote(String quote) { this.quote = quote; }
+
+    public String getAuthor() { return author; }
+    public void setAuthor(String author) { this.author = author; }
+
+    public String getType() { return type; }
+    public void setType(String type) { this.type = type; }
+
+    public int getLikeCount() { return likeCount; }
+    public void setLikeCount(int likeCount) { this.likeCount = likeCount; }
+
+    public int getFavoriteCount() { return favoriteCount; }
+    public void setFavoriteCount(int favoriteCount) { this.favoriteCount = favoriteCount; }
+}
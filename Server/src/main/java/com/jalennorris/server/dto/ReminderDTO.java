@@ -0,0 +1,59 @@
+package com.jalennorris.server.dto;
+
+import java.util.Date;
+
+public class ReminderDTO {
+
+    // Schedule entry the reminder belongs to
+    private long scheduleId;
+
+    private long userId;
+
+    private long taskId;
+
+    // When the reminder is due
+    private Date scheduledTime;
+
+    // Name of the scheduled task, null if the task is gone
+    private String taskName;
+
+    // Expo push token of the user's device, null if none is registered
+    private String pushToken;
+
+    // Claim stamp this copy was claimed under; a reschedule or re-claim replaces it on the row
+    private Date claimedAt;
+
+    public ReminderDTO() {}
+
+    public ReminderDTO(long scheduleId, long userId, long taskId, Date scheduledTime, String taskName,
+                       String pushToken, Date claimedAt) {
+        this.scheduleId = scheduleId;
+        this.userId = userId;
+        this.taskId = taskId;
+        this.scheduledTime = scheduledTime;
+        this.taskName = taskName;
+        this.pushToken = pushToken;
+        this.claimedAt = claimedAt;
+    }
+
+    public long getScheduleId() { return scheduleId; }
+    public void setScheduleId(long scheduleId) { this.scheduleId = scheduleId; }
+
+    public long getUserId() { return userId; }
+    public void setUserId(long userId) { this.userId = userId; }
+
+    public long getTaskId() { return taskId; }
+    public void setTaskId(long taskId) { this.taskId = taskId; }
+
+    public Date getScheduledTime() { return scheduledTime; }
+    public void setScheduledTime(Date scheduledTime) { this.scheduledTime = scheduledTime; }
+
+    public String getTaskName() { return taskName; }
+    public void setTaskName(String taskName) { this.taskName = taskName; }
+
+    public String getPushToken() { return pushToken; }
+    public void setPushToken(String pushToken) { this.pushToken = pushToken; }
+
+    public Date getClaimedAt() { return claimedAt; }
+    public void setClaimedAt(Date claimedAt) { this.claimedAt = claimedAt; }
+}
@@ -1,8 +1,9 @@
 package com.jalennorris.server.dto;
 
+import java.io.Serializable;
 import java.util.Date;
 
-public class ScheduleDTO {
+public class ScheduleDTO implements Serializable {
 
     private long scheduleId;
     private long userId;
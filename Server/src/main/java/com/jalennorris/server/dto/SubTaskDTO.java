@@ -1,11 +1,17 @@
 package com.jalennorris.server.dto;
 
-public class SubTaskDTO {
+import java.io.Serializable;
+
+public class SubTaskDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
     private Long subtaskId;
     private String title;
     private String description;
     private boolean completed;
     private Long taskId;
+    private Integer position;
 
     public SubTaskDTO() {}
 
@@ -17,6 +23,11 @@ public class SubTaskDTO {
         this.taskId = taskId;
     }
 
+    public SubTaskDTO(Long subtaskId, String title, String description, boolean completed, Long taskId, Integer position) {
+        this(subtaskId, title, description, completed, taskId);
+        this.position = position;
+    }
+
     public Long getSubtaskId() {
         return subtaskId;
     }
@@ -56,4 +67,12 @@ public class SubTaskDTO {
     public void setTaskId(Long taskId) {
         this.taskId = taskId;
     }
+
+    public Integer getPosition() {
+        return position;
+    }
+
+    public void setPosition(Integer position) {
+        this.position = position;
+    }
 }
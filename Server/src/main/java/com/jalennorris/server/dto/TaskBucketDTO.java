@@ -0,0 +1,30 @@
+package com.jalennorris.server.dto;
+
+public class TaskBucketDTO {
+
+    // Start of the bucket (yyyy-MM-dd)
+    private String bucketStart;
+
+    // Number of tasks in the bucket
+    private long total;
+
+    // Number of completed tasks in the bucket
+    private long completed;
+
+    public TaskBucketDTO() {}
+
+    public TaskBucketDTO(String bucketStart, long total, long completed) {
+        this.bucketStart = bucketStart;
+        this.total = total;
+        this.completed = completed;
+    }
+
+    public String getBucketStart() { return bucketStart; }
+    public void setBucketStart(String bucketStart) { this.bucketStart = bucketStart; }
+
+    public long getTotal() { return total; }
+    public void setTotal(long total) { this.total = total; }
+
+    public long getCompleted() { return completed; }
+    public void setCompleted(long completed) { this.completed = completed; }
+}
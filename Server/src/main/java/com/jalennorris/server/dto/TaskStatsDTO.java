@@ -0,0 +1,59 @@
+package com.jalennorris.server.dto;
+
+import java.util.List;
+import java.util.Map;
+
+public class TaskStatsDTO {
+
+    private long userId;
+    private long total;
+    private long completed;
+    private long overdue;
+
+    // completed / total, 0 when the user has no tasks
+    private double completionRate;
+
+    private Map<String, Long> byStatus;
+    private Map<String, Long> byCategory;
+    private Map<String, Long> byPriority;
+
+    // Bucket size used for the time series ("day" or "week")
+    private String bucket;
+    private List<TaskBucketDTO> byDeadline;
+    private List<TaskBucketDTO> byCreatedAt;
+
+    public TaskStatsDTO() {}
+
+    public long getUserId() { return userId; }
+    public void setUserId(long userId) { this.userId = userId; }
+
+    public long getTotal() { return total; }
+    public void setTotal(long total) { this.total = total; }
+
+    public long getCompleted() { return completed; }
+    public void setCompleted(long completed) { this.completed = completed; }
+
+    public long getOverdue() { return overdue; }
+    public void setOverdue(long overdue) { this.overdue = overdue; }
+
+    public double getCompletionRate() { return completionRate; }
+    public void setCompletionRate(double completionRate) { this.completionRate = completionRate; }
+
+    public Map<String, Long> getByStatus() { return byStatus; }
+    public void setByStatus(Map<String, Long> byStatus) { this.byStatus = byStatus; }
+
+    public Map<String, Long> getByCategory() { return byCategory; }
+    public void setByCategory(Map<String, Long> byCategory) { this.byCategory = byCategory; }
+
+    public Map<String, Long> getByPriority() { return byPriority; }
+    public void setByPriority(Map<String, Long> byPriority) { this.byPriority = byPriority; }
+
+    public String getBucket() { return bucket; }
+    public void setBucket(String bucket) { this.bucket = bucket; }
+
+    public List<TaskBucketDTO> getByDeadline() { return byDeadline; }
+    public void setByDeadline(List<TaskBucketDTO> byDeadline) { this.byDeadline = byDeadline; }
+
+    public List<TaskBucketDTO> getByCreatedAt() { return byCreatedAt; }
+    public void setByCreatedAt(List<TaskBucketDTO> byCreatedAt) { this.byCreatedAt = byCreatedAt; }
+}
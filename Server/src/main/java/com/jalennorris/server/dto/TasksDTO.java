@@ -1,7 +1,10 @@
 package com.jalennorris.server.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import java.time.ZonedDateTime;
 import java.io.Serializable;
+import java.util.List;
 
 public class TasksDTO implements Serializable {
 
@@ -44,6 +47,20 @@ public class TasksDTO implements Serializable {
     // Timestamp when the task was created
     private ZonedDateTime createdAt;
 
+    // Timestamp when the task was completed
+    private ZonedDateTime completedAt;
+
+    // Number of subtasks and how many of them are completed
+    private int subtaskTotal;
+    private int subtaskDone;
+
+    // Goal the task is linked to, if any
+    private Long goalId;
+
+    // Subtasks, only present when requested with ?include=subtasks
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private List<SubTaskDTO> subtasks;
+
     // Default constructor
     public TasksDTO() {}
 
@@ -160,4 +177,44 @@ public class TasksDTO implements Serializable {
     public void setNotes(String notes) {
         this.notes = notes;
     }
+
+    public ZonedDateTime getCompletedAt() {
+        return completedAt;
+    }
+
+    public void setCompletedAt(ZonedDateTime completedAt) {
+        this.completedAt = completedAt;
+    }
+
+    public int getSubtaskTotal() {
+        return subtaskTotal;
+    }
+
+    public void setSubtaskTotal(int subtaskTotal) {
+        this.subtaskTotal = subtaskTotal;
+    }
+
+    public int getSubtaskDone() {
+        return subtaskDone;
+    }
+
+    public void setSubtaskDone(int subtaskDone) {
+        this.subtaskDone = subtaskDone;
+    }
+
+    public Long getGoalId() {
+        return goalId;
+    }
+
+    public void setGoalId(Long goalId) {
+        this.goalId = goalId;
+    }
+
+    public List<SubTaskDTO> getSubtasks() {
+        return subtasks;
+    }
+
+    public void setSubtasks(List<SubTaskDTO> subtasks) {
+        this.subtasks = subtasks;
+    }
 }
\ No newline at end of file
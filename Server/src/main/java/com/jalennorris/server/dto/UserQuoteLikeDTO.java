@@ -1,25 +1,29 @@
 package com.jalennorris.server.dto;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
+
 import java.time.ZonedDateTime;
-import com.jalennorris.server.Models.UserQuoteLike;
 
 public class UserQuoteLikeDTO {
+
     private Long id;
     private Long userId;
     private Long quoteId;
     private boolean favorite;
     private boolean like;
-    private ZonedDateTime created_at;
+    // Sent as created_at, as clients have always received it
+    @JsonProperty("created_at")
+    private ZonedDateTime createdAt;
 
     public UserQuoteLikeDTO() {}
 
-    public UserQuoteLikeDTO(Long id, Long userId, Long quoteId, boolean favorite, boolean like, ZonedDateTime created_at) {
+    public UserQuoteLikeDTO(Long id, Long userId, Long quoteId, boolean favorite, boolean like, ZonedDateTime createdAt) {
         this.id = id;
         this.userId = userId;
         this.quoteId = quoteId;
         this.favorite = favorite;
         this.like = like;
-        this.created_at = created_at;
+        this.createdAt = createdAt;
     }
 
     public Long getId() { return id; }
@@ -37,6 +41,6 @@ public class UserQuoteLikeDTO {
     public boolean isLike() { return like; }
     public void setLike(boolean like) { this.like = like; }
 
-    public ZonedDateTime getCreated_at() { return created_at; }
-    public void setCreated_at(ZonedDateTime created_at) { this.created_at = created_at; }
+    public ZonedDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(ZonedDateTime createdAt) { this.createdAt = createdAt; }
 }
@@ -0,0 +1,158 @@
+package com.jalennorris.server.query;
+
+import com.jalennorris.server.dto.PageResponse;
+import com.jalennorris.server.query.QueryDefinition.Field;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import jakarta.persistence.criteria.Subquery;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs a {@link ListQuery} as one JPA Criteria query with keyset pagination.
+ *
+ * The page is ORDER BY (sort, id) LIMIT size + 1, starting strictly after the cursor's
+ * (sort value, id), so every page costs an index range scan whatever its depth and the
+ * extra row tells whether another page exists without a COUNT(*). A request that didn't ask
+ * for paging is one max-size page, so no list is unbounded. The scope holds fixed constraints
+ * from the endpoint itself (e.g. the user in the path): an equality per attribute, or an
+ * {@link In} for a parent's column. Items are entities, or whatever a {@link Projection} builds.
+ */
+@Component
+public class KeysetQueryExecutor {
+
+    // Scope value for "attribute IN (SELECT select FROM entity WHERE where = value)", to scope rows
+    // by a column of a parent only mapped by id (e.g. subtasks by their task's user)
+    public record In(Class<?> entity, String select, String where, Object value) {}
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Transactional(readOnly = true)
+    public <T> PageResponse<T> page(QueryDefinition<T> definition, ListQuery query, Map<String, Object> scope) {
+        return page(definition, query, scope, new Projection<T, T>() {
+            @Override
+            public List<Selection<?>> select(CriteriaBuilder cb, Root<T> root) {
+                return List.of(root);
+            }
+
+            @Override
+            public T item(Tuple row) {
+                return row.get(0, definition.getEntityType());
+            }
+        });
+    }
+
+    @Transactional(readOnly = true)
+    public <T, R> PageResponse<R> page(QueryDefinition<T> definition, ListQuery query, Map<String, Object> scope,
+                                       Projection<T, R> projection) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> cq = cb.createTupleQuery();
+        Root<T> root = cq.from(definition.getEntityType());
+
+        List<Predicate> where = new ArrayList<>();
+        scope.forEach((attribute, value) -> where.add(scoped(cb, cq, root, attribute, value)));
+        for (ListQuery.Filter filter : query.getFilters()) {
+            where.add(toPredicate(cb, root.get(filter.field().attribute()), filter));
+        }
+
+        Expression<?> id = root.get(definition.getId().attribute());
+        Expression<?> sort = sortExpression(cb, root, query.getSortField());
+        boolean byId = query.getSortField() == definition.getId();
+        if (query.getAfterId() != null) {
+            Predicate pastId = beyond(cb, id, query.getAfterId(), query.isDescending());
+            where.add(byId ? pastId : cb.or(
+                    beyond(cb, sort, query.getAfterSortValue(), query.isDescending()),
+                    cb.and(cb.equal(sort, query.getAfterSortValue()), pastId)));
+        }
+
+        // The projection's columns, then the sort value and id the cursor is made of
+        List<Selection<?>> columns = new ArrayList<>(projection.select(cb, root));
+        int sortColumn = columns.size();
+        columns.add(sort);
+        columns.add(id);
+        cq.multiselect(columns).where(where.toArray(new Predicate[0]));
+        if (byId) {
+            cq.orderBy(query.isDescending() ? cb.desc(id) : cb.asc(id));
+        } else if (query.isDescending()) {
+            cq.orderBy(cb.desc(sort), cb.desc(id));
+        } else {
+            cq.orderBy(cb.asc(sort), cb.asc(id));
+        }
+
+        // Fetch one extra row to learn whether another page exists
+        List<Tuple> rows = entityManager.createQuery(cq).setMaxResults(query.getSize() + 1).getResultList();
+        boolean hasMore = rows.size() > query.getSize();
+        List<Tuple> pageRows = hasMore ? rows.subList(0, query.getSize()) : rows;
+        List<R> items = new ArrayList<>(pageRows.size());
+        for (Tuple row : pageRows) {
+            items.add(projection.item(row));
+        }
+        String nextCursor = null;
+        if (hasMore) {
+            Tuple last = pageRows.get(pageRows.size() - 1);
+            nextCursor = ListQuery.encodeCursor(query.getSortField(), query.isDescending(),
+                    last.get(sortColumn), last.get(sortColumn + 1));
+        }
+        return new PageResponse<>(items, query.getSize(), hasMore, null, nextCursor);
+    }
+
+    private Predicate scoped(CriteriaBuilder cb, CriteriaQuery<?> cq, Root<?> root, String attribute, Object value) {
+        if (!(value instanceof In)) {
+            return cb.equal(root.get(attribute), value);
+        }
+        In in = (In) value;
+        Subquery<Object> parent = cq.subquery(Object.class);
+        Root<?> parentRoot = parent.from(in.entity());
+        parent.select(parentRoot.get(in.select())).where(cb.equal(parentRoot.get(in.where()), in.value()));
+        return root.get(attribute).in(parent);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Expression<?> sortExpression(CriteriaBuilder cb, Root<?> root, Field field) {
+        Expression path = root.get(field.attribute());
+        return field.nullsAs() == null ? path : cb.coalesce(path, field.nullsAs());
+    }
+
+    // expression > value when ascending, < value when descending
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Predicate beyond(CriteriaBuilder cb, Expression expression, Object value, boolean descending) {
+        return descending
+                ? cb.lessThan(expression, (Comparable) value)
+                : cb.greaterThan(expression, (Comparable) value);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Predicate toPredicate(CriteriaBuilder cb, Expression path, ListQuery.Filter filter) {
+        Comparable value = (Comparable) filter.values().get(0);
+        switch (filter.op()) {
+            case EQ:
+                return cb.equal(path, value);
+            case NE:
+                return cb.notEqual(path, value);
+            case GT:
+                return cb.greaterThan(path, value);
+            case GTE:
+                return cb.greaterThanOrEqualTo(path, value);
+            case LT:
+                return cb.lessThan(path, value);
+            case LTE:
+                return cb.lessThanOrEqualTo(path, value);
+            case IN:
+                return path.in(filter.values());
+            default:
+                throw new IllegalArgumentException("Unsupported operator: " + filter.op());
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package com.jalennorris.server.query;
+
+import com.jalennorris.server.dto.PageResponse;
+import com.jalennorris.server.query.QueryDefinition.Field;
+import com.jalennorris.server.query.QueryDefinition.Op;
+import org.springframework.http.ResponseEntity;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A validated list request: filters, sort order, keyset cursor and page size.
+ *
+ * Parsed from query parameters against a {@link QueryDefinition}:
+ *   name=value            equality filter
+ *   name.op=value         op is ne, gt, gte, lt, lte, or in (comma-separated values)
+ *   sort=name | sort=-name   ascending / descending, ties broken by id in the same direction
+ *   after=cursor          nextCursor of the previous page, only valid with the same sort
+ *   size=n                1..definition max
+ * Only a request with after or size, or one read by {@link #parsePage}, gets a page object back
+ * (see {@link #response}); any other list is still a bare array, as these endpoints always
+ * returned, but capped at the definition's max size with X-Truncated and X-Next-Cursor headers
+ * when rows were left out.
+ * A parameter that names no filter, a malformed value, cursor or size, or an operator a filter
+ * doesn't allow, is an IllegalArgumentException; endpoints pass the extra parameters they accept
+ * (e.g. month) as ignored names.
+ */
+public final class ListQuery {
+
+    public static final String TRUNCATED_HEADER = "X-Truncated";
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    // Longest list an IN filter may carry
+    private static final int MAX_IN_VALUES = 100;
+
+    public record Filter(Field field, Op op, List<Object> values) {}
+
+    private final List<Filter> filters;
+    private final Field sortField;
+    private final boolean descending;
+    private final Object afterSortValue;
+    private final Object afterId;
+    private final int size;
+    private final boolean paged;
+
+    private ListQuery(List<Filter> filters, Field sortField, boolean descending,
+                      Object afterSortValue, Object afterId, int size, boolean paged) {
+        this.filters = filters;
+        this.sortField = sortField;
+        this.descending = descending;
+        this.afterSortValue = afterSortValue;
+        this.afterId = afterId;
+        this.size = size;
+        this.paged = paged;
+    }
+
+    // Parse request parameters; names in ignored are left to the caller (e.g. "include")
+    public static ListQuery parse(QueryDefinition<?> definition, Map<String, List<String>> params, String... ignored) {
+        return parse(definition, params, false, ignored);
+    }
+
+    // Same as parse, for endpoints that always answer with a page: without size it has the default size
+    public static ListQuery parsePage(QueryDefinition<?> definition, Map<String, List<String>> params, String... ignored) {
+        return parse(definition, params, true, ignored);
+    }
+
+    private static ListQuery parse(QueryDefinition<?> definition, Map<String, List<String>> params,
+                                   boolean paged, String... ignored) {
+        Set<String> skip = Set.of(ignored);
+        List<Filter> filters = new ArrayList<>();
+        String sort = null;
+        String after = null;
+        Integer size = null;
+
+        for (Map.Entry<String, List<String>> param : params.entrySet()) {
+            String name = param.getKey();
+            if (skip.contains(name) || param.getValue() == null || param.getValue().isEmpty()) {
+                continue;
+            }
+            String value = param.getValue().get(0);
+            switch (name) {
+                case "sort":
+                    sort = value;
+                    break;
+                case "after":
+                    after = value;
+                    paged = true;
+                    break;
+                case "size":
+                    paged = true;
+                    try {
+                        size = Integer.parseInt(value);
+                    } catch (NumberFormatException e) {
+                        throw new IllegalArgumentException("Invalid size: " + value);
+                    }
+                    break;
+                default:
+                    for (String each : param.getValue()) {
+                        filters.add(parseFilter(definition, name, each));
+                    }
+            }
+        }
+        if (size == null) {
+            // An unpaged list is still bounded: one max-size page
+            size = paged ? definition.getDefaultSize() : definition.getMaxSize();
+        } else if (size < 1 || size > definition.getMaxSize()) {
+            throw new IllegalArgumentException("size must be between 1 and " + definition.getMaxSize());
+        }
+
+        boolean descending = definition.isDefaultDescending();
+        String sortName = definition.getDefaultSort();
+        if (sort != null) {
+            descending = sort.startsWith("-");
+            sortName = descending ? sort.substring(1) : sort;
+        }
+        Field sortField = definition.sort(sortName);
+
+        Object afterSortValue = null;
+        Object afterId = null;
+        if (after != null) {
+            String[] parts = decode(after);
+            if (!parts[0].equals(sort(sortField, descending))) {
+                throw new IllegalArgumentException("Cursor was issued for a different sort");
+            }
+            afterSortValue = QueryDefinition.parse(sortField.type(), parts[1]);
+            afterId = QueryDefinition.parse(definition.getId().type(), parts[2]);
+        }
+        return new ListQuery(filters, sortField, descending, afterSortValue, afterId, size, paged);
+    }
+
+    // The filter a parameter refers to: "deadline.lt" -> "deadline"
+    private static String filterName(String param) {
+        int dot = param.lastIndexOf('.');
+        return dot < 0 ? param : param.substring(0, dot);
+    }
+
+    private static Filter parseFilter(QueryDefinition<?> definition, String param, String value) {
+        int dot = param.lastIndexOf('.');
+        String name = filterName(param);
+        Op op = dot < 0 ? Op.EQ : Op.fromParam(param.substring(dot + 1));
+        Field field = definition.filter(name);
+        if (!field.ops().contains(op)) {
+            throw new IllegalArgumentException("Operator " + op.name().toLowerCase() + " not allowed on " + name);
+        }
+        List<Object> values = new ArrayList<>();
+        if (op == Op.IN) {
+            String[] items = value.split(",");
+            if (items.length > MAX_IN_VALUES) {
+                throw new IllegalArgumentException("At most " + MAX_IN_VALUES + " values for " + name);
+            }
+            for (String item : items) {
+                values.add(QueryDefinition.parse(field.type(), item.trim()));
+            }
+        } else {
+            values.add(QueryDefinition.parse(field.type(), value));
+        }
+        return new Filter(field, op, values);
+    }
+
+    // Cursor format: base64url("<sort>\n<sort value>\n<id>"), e.g. sort "-deadline"
+    static String encodeCursor(Field sortField, boolean descending, Object sortValue, Object id) {
+        String raw = sort(sortField, descending) + "\n" + QueryDefinition.format(sortValue) + "\n"
+                + QueryDefinition.format(id);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String[] decode(String cursor) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\n", 3);
+            if (parts.length == 3) {
+                return parts;
+            }
+        } catch (IllegalArgumentException e) {
+            // fall through
+        }
+        throw new IllegalArgumentException("Invalid cursor: " + cursor);
+    }
+
+    private static String sort(Field sortField, boolean descending) {
+        return (descending ? "-" : "") + sortField.name();
+    }
+
+    public List<Filter> getFilters() { return filters; }
+    public Field getSortField() { return sortField; }
+    public boolean isDescending() { return descending; }
+    public Object getAfterSortValue() { return afterSortValue; }
+    public Object getAfterId() { return afterId; }
+    public int getSize() { return size; }
+    public boolean isPaged() { return paged; }
+
+    public ResponseEntity<Object> response(PageResponse<?> page) {
+        return response(null, page);
+    }
+
+    // 200 for this request: the page itself when paging was asked for, else its items with the
+    // truncation headers set if the cap cut the list short; the ETag is attached when known
+    public ResponseEntity<Object> response(String etag, PageResponse<?> page) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok();
+        if (etag != null) {
+            builder.eTag(etag);
+        }
+        if (paged) {
+            return builder.body(page);
+        }
+        if (page.isHasMore()) {
+            builder.header(TRUNCATED_HEADER, "true").header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return builder.body(page.getItems());
+    }
+}
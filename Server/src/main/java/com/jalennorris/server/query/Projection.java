@@ -0,0 +1,24 @@
+package com.jalennorris.server.query;
+
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+
+import java.util.List;
+
+/**
+ * The columns a list reads instead of whole entities, and how each item is built from them.
+ *
+ * Lets {@link KeysetQueryExecutor} answer a {@link ListQuery} with DTOs built straight from the
+ * row, with no managed entities and no per-row entity-to-DTO copy, under the same filters, sorts
+ * and cursors as the entity list.
+ */
+public interface Projection<T, R> {
+
+    // Expressions to select, in the order item() reads them
+    List<Selection<?>> select(CriteriaBuilder cb, Root<T> root);
+
+    // One item from a row whose columns 0..n-1 are the selections above
+    R item(Tuple row);
+}
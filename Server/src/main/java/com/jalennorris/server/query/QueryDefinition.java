@@ -0,0 +1,199 @@
+package com.jalennorris.server.query;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Collections;
+import java.util.Date;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Whitelist of what a list endpoint may filter and sort on, for one entity.
+ *
+ * Request names map to entity attributes, so clients never name columns directly, and every
+ * filter is limited to the operators declared for it. The entity's id is always sortable and
+ * is the keyset tie-breaker. A nullable sort field must declare the value its nulls sort as,
+ * since keyset comparisons can't step over NULLs.
+ */
+public final class QueryDefinition<T> {
+
+    public enum Op {
+        EQ, NE, GT, GTE, LT, LTE, IN;
+
+        static Op fromParam(String op) {
+            try {
+                return Op.valueOf(op.toUpperCase());
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown operator: " + op);
+            }
+        }
+    }
+
+    // Operators for equality-only fields and for ordered (numeric/temporal) fields
+    public static final Op[] EQUALITY = {Op.EQ, Op.NE, Op.IN};
+    public static final Op[] RANGE = {Op.EQ, Op.GT, Op.GTE, Op.LT, Op.LTE};
+
+    public record Field(String name, String attribute, Class<?> type, Set<Op> ops, Object nullsAs) {}
+
+    private final Class<T> entityType;
+    private final Field id;
+    private final Map<String, Field> filters;
+    private final Map<String, Field> sorts;
+    private final String defaultSort;
+    private final boolean defaultDescending;
+    private final int defaultSize;
+    private final int maxSize;
+
+    private QueryDefinition(Builder<T> builder) {
+        this.entityType = builder.entityType;
+        this.id = builder.id;
+        this.filters = Collections.unmodifiableMap(builder.filters);
+        this.sorts = Collections.unmodifiableMap(builder.sorts);
+        this.defaultSort = builder.defaultSort;
+        this.defaultDescending = builder.defaultDescending;
+        this.defaultSize = builder.defaultSize;
+        this.maxSize = builder.maxSize;
+    }
+
+    public static <T> Builder<T> builder(Class<T> entityType, String idAttribute, Class<?> idType) {
+        return new Builder<>(entityType, idAttribute, idType);
+    }
+
+    public Class<T> getEntityType() { return entityType; }
+    public Field getId() { return id; }
+    public String getDefaultSort() { return defaultSort; }
+    public boolean isDefaultDescending() { return defaultDescending; }
+    public int getDefaultSize() { return defaultSize; }
+    public int getMaxSize() { return maxSize; }
+
+    public Field filter(String name) {
+        Field field = filters.get(name);
+        if (field == null) {
+            throw new IllegalArgumentException("Unknown filter: " + name);
+        }
+        return field;
+    }
+
+    public Field sort(String name) {
+        Field field = sorts.get(name);
+        if (field == null) {
+            throw new IllegalArgumentException("Unknown sort field: " + name);
+        }
+        return field;
+    }
+
+    // Parse a request/cursor value into the field's Java type
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    static Object parse(Class<?> type, String raw) {
+        try {
+            if (type == String.class) {
+                return raw;
+            }
+            if (type == Long.class) {
+                return Long.valueOf(raw);
+            }
+            if (type == Integer.class) {
+                return Integer.valueOf(raw);
+            }
+            if (type == Boolean.class) {
+                if (!"true".equals(raw) && !"false".equals(raw)) {
+                    throw new IllegalArgumentException("Invalid boolean: " + raw);
+                }
+                return Boolean.valueOf(raw);
+            }
+            if (type == LocalDate.class) {
+                return LocalDate.parse(raw);
+            }
+            if (type == LocalDateTime.class) {
+                return LocalDateTime.parse(raw);
+            }
+            if (type == OffsetDateTime.class) {
+                return OffsetDateTime.parse(raw);
+            }
+            if (type == ZonedDateTime.class) {
+                return ZonedDateTime.parse(raw);
+            }
+            if (type == Date.class) {
+                // Epoch millis (as cursors carry them) or an ISO instant
+                return raw.chars().allMatch(Character::isDigit)
+                        ? new Date(Long.parseLong(raw))
+                        : Date.from(Instant.parse(raw));
+            }
+            if (type.isEnum()) {
+                return Enum.valueOf((Class<Enum>) type, raw);
+            }
+        } catch (NumberFormatException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid value: " + raw);
+        }
+        throw new IllegalStateException("Unsupported field type: " + type);
+    }
+
+    // Inverse of parse, for cursors
+    static String format(Object value) {
+        if (value instanceof Date) {
+            return String.valueOf(((Date) value).getTime());
+        }
+        if (value instanceof Enum) {
+            return ((Enum<?>) value).name();
+        }
+        return value.toString();
+    }
+
+    public static final class Builder<T> {
+        private final Class<T> entityType;
+        private final Field id;
+        private final Map<String, Field> filters = new LinkedHashMap<>();
+        private final Map<String, Field> sorts = new LinkedHashMap<>();
+        private String defaultSort = "id";
+        private boolean defaultDescending = false;
+        private int defaultSize = 50;
+        private int maxSize = 200;
+
+        private Builder(Class<T> entityType, String idAttribute, Class<?> idType) {
+            this.entityType = entityType;
+            this.id = new Field("id", idAttribute, idType, EnumSet.of(Op.EQ, Op.IN), null);
+            sorts.put("id", id);
+        }
+
+        public Builder<T> filter(String name, String attribute, Class<?> type, Op... ops) {
+            filters.put(name, new Field(name, attribute, type, EnumSet.of(ops[0], ops), null));
+            return this;
+        }
+
+        // Sort on a non-null attribute
+        public Builder<T> sort(String name, String attribute, Class<?> type) {
+            return sort(name, attribute, type, null);
+        }
+
+        // Sort on a nullable attribute, with nulls ordered as if they were nullsAs
+        public Builder<T> sort(String name, String attribute, Class<?> type, Object nullsAs) {
+            sorts.put(name, new Field(name, attribute, type, EnumSet.noneOf(Op.class), nullsAs));
+            return this;
+        }
+
+        public Builder<T> defaultSort(String name, boolean descending) {
+            this.defaultSort = name;
+            this.defaultDescending = descending;
+            return this;
+        }
+
+        public Builder<T> sizes(int defaultSize, int maxSize) {
+            this.defaultSize = defaultSize;
+            this.maxSize = maxSize;
+            return this;
+        }
+
+        public QueryDefinition<T> build() {
+            if (!sorts.containsKey(defaultSort)) {
+                throw new IllegalStateException("Default sort " + defaultSort + " is not a sort field");
+            }
+            return new QueryDefinition<>(this);
+        }
+    }
+}
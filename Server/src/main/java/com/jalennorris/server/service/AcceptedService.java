@@ -1,24 +1,90 @@
 package com.jalennorris.server.service;
 
 import com.jalennorris.server.Models.AcceptedTask;
+import com.jalennorris.server.Models.TasksModels;
 import com.jalennorris.server.Repository.AcceptRepository;
 import com.jalennorris.server.dto.AcceptedDTO;
+import com.jalennorris.server.dto.AcceptedSuggestionDTO;
+import com.jalennorris.server.dto.MaterializedTaskDTO;
+import com.jalennorris.server.dto.PageResponse;
+import com.jalennorris.server.dto.SubTaskDTO;
+import com.jalennorris.server.query.KeysetQueryExecutor;
+import com.jalennorris.server.query.ListQuery;
+import com.jalennorris.server.query.Projection;
+import com.jalennorris.server.query.QueryDefinition;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Service
 public class AcceptedService {
 
+    // Most suggestions, and most subtasks per suggestion, one accept request may carry
+    private static final int MAX_MATERIALIZE_BATCH = 100;
+
+    // Filters and sorts GET /api/accepted accepts, newest accepted first by default; timestamps are ISO
+    // with an offset, e.g. 2025-01-01T00:00Z
+    public static final QueryDefinition<AcceptedTask> LIST_QUERY = QueryDefinition
+            .builder(AcceptedTask.class, "id", Long.class)
+            .filter("userId", "user", Long.class, QueryDefinition.EQUALITY)
+            .filter("deadline", "deadline", OffsetDateTime.class, QueryDefinition.RANGE)
+            .filter("acceptedAt", "acceptedAt", OffsetDateTime.class, QueryDefinition.RANGE)
+            .sort("deadline", "deadline", OffsetDateTime.class, OffsetDateTime.of(9999, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC))
+            .sort("acceptedAt", "acceptedAt", OffsetDateTime.class, OffsetDateTime.of(1970, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC))
+            .defaultSort("acceptedAt", true)
+            .sizes(20, 100)
+            .build();
+
+    // List items read straight into DTOs; timestamps are converted to the UTC wall-clock times
+    // AcceptedService writes by timezone('UTC', ...) in SQL rather than per row
+    private static final Projection<AcceptedTask, AcceptedDTO> DTO_PROJECTION = new Projection<>() {
+        @Override
+        public List<Selection<?>> select(CriteriaBuilder cb, Root<AcceptedTask> root) {
+            return List.of(root.get("id"), root.get("user"), root.get("taskTitle"), root.get("taskDescription"),
+                    utc(cb, root.get("deadline")), utc(cb, root.get("acceptedAt")));
+        }
+
+        @Override
+        public AcceptedDTO item(Tuple row) {
+            AcceptedDTO dto = new AcceptedDTO(row.get(1, Long.class), row.get(2, String.class),
+                    row.get(3, String.class), row.get(4, LocalDateTime.class), row.get(5, LocalDateTime.class));
+            dto.setId(row.get(0, Long.class));
+            return dto;
+        }
+
+        private Expression<LocalDateTime> utc(CriteriaBuilder cb, Expression<OffsetDateTime> time) {
+            return cb.function("timezone", LocalDateTime.class, cb.literal("UTC"), time);
+        }
+    };
+
     private final AcceptRepository acceptedRepository;
+    private final DailyTaskStatsService dailyTaskStatsService;
+    private final OutboxService outboxService;
+    private final KeysetQueryExecutor keysetQueryExecutor;
 
     @Autowired
-    public AcceptedService(AcceptRepository acceptedRepository) {
+    public AcceptedService(AcceptRepository acceptedRepository, DailyTaskStatsService dailyTaskStatsService,
+                           OutboxService outboxService,
+                           KeysetQueryExecutor keysetQueryExecutor) {
         this.acceptedRepository = acceptedRepository;
+        this.dailyTaskStatsService = dailyTaskStatsService;
+        this.outboxService = outboxService;
+        this.keysetQueryExecutor = keysetQueryExecutor;
     }
 
     // DTO to Entity
@@ -49,6 +115,10 @@ public class AcceptedService {
         if (acceptedDTO.getTaskTitle() == null) {
             throw new IllegalArgumentException("taskTitle must not be null");
         }
+        // Stamp acceptance so the row has a place in the user's accepted_at ordering
+        if (acceptedDTO.getAcceptedAt() == null) {
+            acceptedDTO.setAcceptedAt(LocalDateTime.now(ZoneOffset.UTC));
+        }
         AcceptedTask saved = acceptedRepository.save(toEntity(acceptedDTO));
         return toDTO(saved);
     }
@@ -59,6 +129,9 @@ public class AcceptedService {
                     if (dto.getTaskTitle() == null) {
                         throw new IllegalArgumentException("taskTitle must not be null");
                     }
+                    if (dto.getAcceptedAt() == null) {
+                        dto.setAcceptedAt(LocalDateTime.now(ZoneOffset.UTC));
+                    }
                     return toEntity(dto);
                 })
                 .collect(Collectors.toList());
@@ -66,22 +139,60 @@ public class AcceptedService {
         return saved.stream().map(this::toDTO).collect(Collectors.toList());
     }
 
-    public Optional<AcceptedDTO> getAcceptedById(Long id) {
-        return acceptedRepository.findById(id).map(this::toDTO);
+    // Record accepted suggestions and create their tasks and subtasks in one transaction; returns the new ids.
+    // Nothing to evict: the "tasks" cache is keyed by task id and the new ids can't be in it yet
+    @Transactional
+    public List<MaterializedTaskDTO> acceptAndMaterialize(Long userId, List<AcceptedSuggestionDTO> suggestions) {
+        if (suggestions == null || suggestions.isEmpty()) {
+            throw new IllegalArgumentException("At least one suggestion is required");
+        }
+        if (suggestions.size() > MAX_MATERIALIZE_BATCH) {
+            throw new IllegalArgumentException("A batch may contain at most " + MAX_MATERIALIZE_BATCH + " suggestions");
+        }
+        for (AcceptedSuggestionDTO suggestion : suggestions) {
+            if (suggestion.getTaskTitle() == null || suggestion.getTaskTitle().isBlank()) {
+                throw new IllegalArgumentException("taskTitle must not be null or empty");
+            }
+            List<SubTaskDTO> subtasks = suggestion.getSubtasks();
+            if (subtasks == null) {
+                continue;
+            }
+            if (subtasks.size() > MAX_MATERIALIZE_BATCH) {
+                throw new IllegalArgumentException("A task may have at most " + MAX_MATERIALIZE_BATCH + " subtasks");
+            }
+            for (SubTaskDTO subtask : subtasks) {
+                if (subtask.getTitle() == null || subtask.getTitle().isBlank()) {
+                    throw new IllegalArgumentException("Subtask title must not be null or empty");
+                }
+            }
+        }
+
+        ZonedDateTime now = ZonedDateTime.now(ZoneOffset.UTC);
+        List<MaterializedTaskDTO> created = acceptedRepository.materialize(userId, suggestions, now.toOffsetDateTime());
+
+        // Daily stats are written in the same transaction so they can't drift from the tasks
+        List<TasksModels> tasks = new ArrayList<>(created.size());
+        for (MaterializedTaskDTO ids : created) {
+            TasksModels task = new TasksModels();
+            task.setTask_id(ids.getTaskId());
+            task.setUser_id(userId);
+            task.setCreated_at(now);
+            tasks.add(task);
+        }
+        dailyTaskStatsService.recordCreated(tasks);
+        // The user's task list version is bumped once the new tasks have committed
+        outboxService.appendVersionBump(CollectionVersionService.TASKS_BY_USER, userId, null);
+        return created;
     }
 
-    public List<AcceptedDTO> getAcceptedByUser(Long user) {
-        return acceptedRepository.findByUser(user)
-                .stream()
-                .map(this::toDTO)
-                .collect(Collectors.toList());
+    public Optional<AcceptedDTO> getAcceptedById(Long id) {
+        return acceptedRepository.findById(id).map(this::toDTO);
     }
 
-    public List<AcceptedDTO> getAllAccepted() {
-        return acceptedRepository.findAll()
-                .stream()
-                .map(this::toDTO)
-                .collect(Collectors.toList());
+    // One keyset page of accepted tasks for a parsed LIST_QUERY request, of one user when userId is given
+    public PageResponse<AcceptedDTO> listAccepted(Long userId, ListQuery query) {
+        Map<String, Object> scope = userId != null ? Map.of("user", userId) : Map.of();
+        return keysetQueryExecutor.page(LIST_QUERY, query, scope, DTO_PROJECTION);
     }
 
     public Optional<AcceptedDTO> updateAccepted(Long id, AcceptedDTO updatedDTO) {
@@ -0,0 +1,97 @@
+package com.jalennorris.server.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Keeps a monotonically increasing version number per collection in Redis.
+ * Writers bump the version after a mutation; readers turn it into a strong ETag
+ * so an unchanged poll can be answered with 304 before Postgres is touched.
+ */
+@Service
+public class CollectionVersionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CollectionVersionService.class);
+
+    public static final String TASKS_BY_USER = "tasks-user";
+    public static final String SUBTASKS_BY_TASK = "subtasks-task";
+    public static final String GOALS_BY_USER = "goals-user";
+    public static final String QUOTES = "quotes";
+    public static final String SCHEDULES_BY_USER = "schedules-user";
+
+    private static final String KEY_PREFIX = "version::";
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+    @Autowired
+    public CollectionVersionService(StringRedisTemplate stringRedisTemplate) {
+        this.stringRedisTemplate = stringRedisTemplate;
+    }
+
+    // Bump the version of a collection after it has been written to; inside a transaction
+    // the bump waits for commit so a reader can't pair the new version with the old rows
+    public void bump(String collection, Object scopeId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    bumpNow(collection, scopeId);
+                }
+            });
+            return;
+        }
+        bumpNow(collection, scopeId);
+    }
+
+    // Bump right away, for callers that run after the write has committed (e.g. the outbox relay)
+    public void bumpNow(String collection, Object scopeId) {
+        String key = key(collection, scopeId);
+        try {
+            Long version = stringRedisTemplate.opsForValue().increment(key);
+            if (version != null && version == 1L) {
+                // Key was missing (first write or Redis restart); seed it so old ETags can't collide
+                stringRedisTemplate.opsForValue().set(key, String.valueOf(System.currentTimeMillis()));
+            }
+        } catch (Exception e) {
+            logger.warn("Failed to bump version for {}: {}", key, e.getMessage());
+        }
+    }
+
+    // Strong ETag for the current version, or null when Redis can't be reached
+    public String currentETag(String collection, Object scopeId) {
+        return eTag(collection, scopeId, currentVersion(collection, scopeId));
+    }
+
+    // Current version of a collection, seeded when missing; null when Redis can't be reached
+    public String currentVersion(String collection, Object scopeId) {
+        String key = key(collection, scopeId);
+        try {
+            String version = stringRedisTemplate.opsForValue().get(key);
+            if (version == null) {
+                stringRedisTemplate.opsForValue().setIfAbsent(key, String.valueOf(System.currentTimeMillis()));
+                version = stringRedisTemplate.opsForValue().get(key);
+            }
+            return version;
+        } catch (Exception e) {
+            logger.warn("Failed to read version for {}: {}", key, e.getMessage());
+            return null;
+        }
+    }
+
+    // Strong ETag for a version read earlier (e.g. the one a cached copy was built at); null for no version
+    public String eTag(String collection, Object scopeId, String version) {
+        if (version == null) {
+            return null;
+        }
+        return "\"" + collection + "-" + (scopeId != null ? scopeId + "-" : "") + version + "\"";
+    }
+
+    private String key(String collection, Object scopeId) {
+        return KEY_PREFIX + collection + (scopeId != null ? "::" + scopeId : "");
+    }
+}
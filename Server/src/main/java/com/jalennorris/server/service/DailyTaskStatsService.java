@@ -0,0 +1,145 @@
+package com.jalennorris.server.service;
+
+import com.jalennorris.server.Models.TasksModels;
+import com.jalennorris.server.Models.UserDailyTaskStats;
+import com.jalennorris.server.Repository.DailyTaskStatsRepository;
+import com.jalennorris.server.dto.DailyTaskStatsDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Maintains the user_daily_task_stats rollup (tasks created and completed per user per UTC day).
+ * TaskService reports every create/update/delete as a before/after snapshot and only the
+ * affected days are adjusted; a nightly job rebuilds the table from tasks to correct any drift.
+ *
+ * The rebuild runs on one node at a time (advisory lock) and corrects rows in place with an
+ * upsert instead of emptying the table, so concurrent deltas never hit a missing or duplicate
+ * row. Today's rows are skipped since they are the ones still being written. A delta to an
+ * earlier day that commits while the rebuild runs can still be overwritten; the next rebuild
+ * puts it back.
+ */
+@Service
+public class DailyTaskStatsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DailyTaskStatsService.class);
+
+    private final DailyTaskStatsRepository dailyTaskStatsRepository;
+
+    @Autowired
+    public DailyTaskStatsService(DailyTaskStatsRepository dailyTaskStatsRepository) {
+        this.dailyTaskStatsRepository = dailyTaskStatsRepository;
+    }
+
+    // The fields of a task that the rollup depends on, captured before the entity is mutated
+    public record Snapshot(long userId, ZonedDateTime createdAt, boolean completed, ZonedDateTime completedAt) {
+        public static Snapshot of(TasksModels task) {
+            return task == null ? null
+                    : new Snapshot(task.getUser_id(), task.getCreated_at(), task.isCompleted(), task.getCompleted_at());
+        }
+    }
+
+    // Apply the difference between two states of a task; before is null on create, after is null on delete
+    @Transactional
+    public void recordChange(Snapshot before, Snapshot after) {
+        Map<Long, Map<LocalDate, long[]>> deltas = new HashMap<>();
+        addDeltas(deltas, before, -1);
+        addDeltas(deltas, after, 1);
+        deltas.forEach((userId, days) -> days.forEach((day, delta) -> {
+            if (delta[0] != 0 || delta[1] != 0) {
+                dailyTaskStatsRepository.applyDelta(userId, day, delta[0], delta[1]);
+            }
+        }));
+    }
+
+    // Same as recordChange for many newly created tasks, merged per user/day
+    @Transactional
+    public void recordCreated(List<TasksModels> tasks) {
+        Map<Long, Map<LocalDate, long[]>> deltas = new HashMap<>();
+        for (TasksModels task : tasks) {
+            addDeltas(deltas, Snapshot.of(task), 1);
+        }
+        deltas.forEach((userId, days) -> days.forEach((day, delta) ->
+                dailyTaskStatsRepository.applyDelta(userId, day, delta[0], delta[1])));
+    }
+
+    // Daily history for a user, one indexed range scan
+    @Transactional(readOnly = true)
+    public List<DailyTaskStatsDTO> getDailyStats(long userId, LocalDate from, LocalDate to) {
+        return dailyTaskStatsRepository.findByUserIdAndStatDateBetweenOrderByStatDateAsc(userId, from, to)
+                .stream()
+                .map(this::toDTO)
+                .collect(Collectors.toList());
+    }
+
+    // Weekly history for a user, summed from the daily rows
+    @Transactional(readOnly = true)
+    public List<DailyTaskStatsDTO> getWeeklyStats(long userId, LocalDate from, LocalDate to) {
+        return dailyTaskStatsRepository.sumByWeek(userId, from, to)
+                .stream()
+                .map(row -> new DailyTaskStatsDTO(
+                        userId,
+                        toLocalDate(row[0]),
+                        ((Number) row[1]).longValue(),
+                        ((Number) row[2]).longValue()))
+                .collect(Collectors.toList());
+    }
+
+    // Rebuild the rollup from tasks; runs nightly to correct drift from failed deltas
+    @Scheduled(cron = "${stats.daily.rebuild-cron:0 30 3 * * *}")
+    @Transactional
+    public void rebuildAll() {
+        if (!dailyTaskStatsRepository.tryLockRebuild()) {
+            logger.info("Skipping user_daily_task_stats rebuild: another node is running it");
+            return;
+        }
+        long start = System.currentTimeMillis();
+        long rows = dailyTaskStatsRepository.rebuildFromTasks(LocalDate.now(ZoneOffset.UTC));
+        logger.info("Rebuilt user_daily_task_stats: {} rows corrected in {} ms", rows, System.currentTimeMillis() - start);
+    }
+
+    private void addDeltas(Map<Long, Map<LocalDate, long[]>> deltas, Snapshot snapshot, int sign) {
+        if (snapshot == null) {
+            return;
+        }
+        Map<LocalDate, long[]> days = deltas.computeIfAbsent(snapshot.userId(), k -> new HashMap<>());
+        if (snapshot.createdAt() != null) {
+            days.computeIfAbsent(toUtcDate(snapshot.createdAt()), k -> new long[2])[0] += sign;
+        }
+        if (snapshot.completed() && snapshot.completedAt() != null) {
+            days.computeIfAbsent(toUtcDate(snapshot.completedAt()), k -> new long[2])[1] += sign;
+        }
+    }
+
+    private LocalDate toUtcDate(ZonedDateTime dateTime) {
+        return dateTime.withZoneSameInstant(ZoneOffset.UTC).toLocalDate();
+    }
+
+    private LocalDate toLocalDate(Object value) {
+        if (value instanceof LocalDate) {
+            return (LocalDate) value;
+        }
+        return ((Date) value).toLocalDate();
+    }
+
+    private DailyTaskStatsDTO toDTO(UserDailyTaskStats stats) {
+        return new DailyTaskStatsDTO(
+                stats.getUserId(),
+                stats.getStatDate(),
+                stats.getCreatedCount(),
+                stats.getCompletedCount()
+        );
+    }
+}
@@ -0,0 +1,180 @@
+package com.jalennorris.server.service;
+
+import com.jalennorris.server.Models.UserFeedback;
+import com.jalennorris.server.Repository.FeedbackRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Buffers feedback submissions in memory and writes them to user_feedback in JDBC batches.
+ *
+ * Request threads only offer to a bounded queue, so a burst of feedback after a release
+ * costs one insert per batch instead of a pool connection per submission. A flusher thread
+ * drains up to feedback.ingest.batch-size rows, waiting at most feedback.ingest.linger-ms to
+ * fill a batch. A batch rejected for a bad row (e.g. an unknown accepted task) is retried
+ * row by row so only that row is dropped; other failures are retried with backoff. Rows
+ * still queued at shutdown are flushed before the context closes.
+ */
+@Service
+public class FeedbackIngestor {
+
+    private static final Logger logger = LoggerFactory.getLogger(FeedbackIngestor.class);
+
+    private static final int MAX_ATTEMPTS = 3;
+    private static final long BACKOFF_MS = 500;
+
+    private final FeedbackRepository feedbackRepository;
+    private final BlockingQueue<UserFeedback> queue;
+    private final int batchSize;
+    private final long lingerMs;
+
+    private final Counter queuedCounter;
+    private final Counter rejectedCounter;
+    private final Counter writtenCounter;
+    private final Counter droppedCounter;
+
+    private volatile boolean running = true;
+    private Thread flusher;
+
+    @Autowired
+    public FeedbackIngestor(FeedbackRepository feedbackRepository,
+                            MeterRegistry meterRegistry,
+                            @Value("${feedback.ingest.queue-capacity:10000}") int queueCapacity,
+                            @Value("${feedback.ingest.batch-size:500}") int batchSize,
+                            @Value("${feedback.ingest.linger-ms:200}") long lingerMs) {
+        this.feedbackRepository = feedbackRepository;
+        this.queue = new LinkedBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.lingerMs = lingerMs;
+        this.queuedCounter = Counter.builder("feedback.ingest.queued")
+                .description("Feedback submissions accepted into the queue")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("feedback.ingest.rejected")
+                .description("Feedback submissions rejected because the queue was full")
+                .register(meterRegistry);
+        this.writtenCounter = Counter.builder("feedback.ingest.written")
+                .description("Feedback rows written to the database")
+                .register(meterRegistry);
+        this.droppedCounter = Counter.builder("feedback.ingest.dropped")
+                .description("Feedback rows that could not be written")
+                .register(meterRegistry);
+        Gauge.builder("feedback.ingest.queue.size", queue, BlockingQueue::size)
+                .description("Feedback submissions waiting to be written")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        flusher = new Thread(this::runFlusher, "feedback-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    // Let the flusher finish its batch, then write whatever is still queued
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        if (flusher != null) {
+            flusher.join(TimeUnit.SECONDS.toMillis(10));
+        }
+        List<UserFeedback> batch = new ArrayList<>(batchSize);
+        while (queue.drainTo(batch, batchSize) > 0) {
+            write(batch);
+            batch = new ArrayList<>(batchSize);
+        }
+    }
+
+    // Queue a submission for writing; false when the queue is full
+    public boolean submit(UserFeedback feedback) {
+        if (feedback.getCreatedAt() == null) {
+            feedback.setCreatedAt(LocalDateTime.now());
+        }
+        if (queue.offer(feedback)) {
+            queuedCounter.increment();
+            return true;
+        }
+        rejectedCounter.increment();
+        return false;
+    }
+
+    private void runFlusher() {
+        while (running) {
+            try {
+                UserFeedback first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                List<UserFeedback> batch = new ArrayList<>(batchSize);
+                batch.add(first);
+                queue.drainTo(batch, batchSize - batch.size());
+
+                // Give a partial batch a moment to fill up before writing it
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(lingerMs);
+                while (batch.size() < batchSize) {
+                    long waitNanos = deadline - System.nanoTime();
+                    UserFeedback next = waitNanos > 0 ? queue.poll(waitNanos, TimeUnit.NANOSECONDS) : null;
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                    queue.drainTo(batch, batchSize - batch.size());
+                }
+                write(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                logger.warn("Feedback flusher error: {}", e.getMessage());
+            }
+        }
+    }
+
+    private void write(List<UserFeedback> batch) throws InterruptedException {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                feedbackRepository.insertBatch(batch);
+                writtenCounter.increment(batch.size());
+                return;
+            } catch (DataIntegrityViolationException e) {
+                writeOneByOne(batch);
+                return;
+            } catch (Exception e) {
+                if (attempt >= MAX_ATTEMPTS) {
+                    logger.error("Dropping {} feedback rows after {} attempts: {}", batch.size(), attempt, e.getMessage());
+                    droppedCounter.increment(batch.size());
+                    return;
+                }
+                logger.warn("Feedback batch write failed (attempt {}): {}", attempt, e.getMessage());
+                Thread.sleep(BACKOFF_MS << (attempt - 1));
+            }
+        }
+    }
+
+    private void writeOneByOne(List<UserFeedback> batch) {
+        for (UserFeedback feedback : batch) {
+            try {
+                feedbackRepository.insertBatch(List.of(feedback));
+                writtenCounter.increment();
+            } catch (Exception e) {
+                logger.warn("Dropping feedback from user {}: {}", feedback.getUser(), e.getMessage());
+                droppedCounter.increment();
+            }
+        }
+    }
+}
@@ -2,20 +2,70 @@ package com.jalennorris.server.service;
 
 import com.jalennorris.server.Models.UserFeedback;
 import com.jalennorris.server.Repository.FeedbackRepository;
+import com.jalennorris.server.dto.FeedbackDTO;
+import com.jalennorris.server.dto.FeedbackRatingStatsDTO;
+import com.jalennorris.server.dto.PageResponse;
+import com.jalennorris.server.query.KeysetQueryExecutor;
+import com.jalennorris.server.query.ListQuery;
+import com.jalennorris.server.query.Projection;
+import com.jalennorris.server.query.QueryDefinition;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
 public class FeedbackService {
 
+    // Upper bound on the number of buckets one timeline request may produce
+    private static final int MAX_TIMELINE_BUCKETS = 400;
+
+    // Filters and sorts GET /api/feedback accepts
+    public static final QueryDefinition<UserFeedback> LIST_QUERY = QueryDefinition
+            .builder(UserFeedback.class, "id", Long.class)
+            .filter("userId", "user", Long.class, QueryDefinition.EQUALITY)
+            .filter("acceptedAITaskId", "acceptedAITaskId", Long.class, QueryDefinition.EQUALITY)
+            .filter("rating", "rating", Integer.class, QueryDefinition.RANGE)
+            .filter("createdAt", "createdAt", LocalDateTime.class, QueryDefinition.RANGE)
+            .sort("rating", "rating", Integer.class, 0)
+            .sort("createdAt", "createdAt", LocalDateTime.class, LocalDateTime.of(1970, 1, 1, 0, 0))
+            .defaultSort("id", true)
+            .build();
+
+    // Review listings read straight into DTOs instead of loading the entities
+    private static final Projection<UserFeedback, FeedbackDTO> DTO_PROJECTION = new Projection<>() {
+        @Override
+        public List<Selection<?>> select(CriteriaBuilder cb, Root<UserFeedback> root) {
+            return List.of(root.get("id"), root.get("user"), root.get("feedbackText"), root.get("rating"),
+                    root.get("createdAt"), root.get("acceptedAITaskId"));
+        }
+
+        @Override
+        public FeedbackDTO item(Tuple row) {
+            return new FeedbackDTO(row.get(0, Long.class), row.get(1, Long.class), row.get(2, String.class),
+                    row.get(3, Integer.class), row.get(4, LocalDateTime.class), row.get(5, Long.class));
+        }
+    };
+
     private final FeedbackRepository feedbackRepository;
+    private final FeedbackIngestor feedbackIngestor;
+    private final KeysetQueryExecutor keysetQueryExecutor;
 
     @Autowired
-    public FeedbackService(FeedbackRepository feedbackRepository) {
+    public FeedbackService(FeedbackRepository feedbackRepository, FeedbackIngestor feedbackIngestor,
+                           KeysetQueryExecutor keysetQueryExecutor) {
         this.feedbackRepository = feedbackRepository;
+        this.feedbackIngestor = feedbackIngestor;
+        this.keysetQueryExecutor = keysetQueryExecutor;
     }
 
     public UserFeedback createFeedback(UserFeedback feedback) {
@@ -26,16 +76,75 @@ public class FeedbackService {
         return feedbackRepository.saveAll(feedbackList);
     }
 
-    public Optional<UserFeedback> getFeedbackById(Long id) {
-        return feedbackRepository.findById(id);
+    // Queue feedback for a batched write; false when the ingest queue is full
+    public boolean ingestFeedback(UserFeedback feedback) {
+        if (feedback.getUser() == null) {
+            throw new IllegalArgumentException("userId is required");
+        }
+        feedback.setId(null);
+        return feedbackIngestor.submit(feedback);
+    }
+
+    // One keyset page of a parsed LIST_QUERY request as DTOs, for review
+    public PageResponse<FeedbackDTO> searchFeedback(ListQuery query) {
+        return keysetQueryExecutor.page(LIST_QUERY, query, Map.of(), DTO_PROJECTION);
     }
 
-    public List<UserFeedback> getFeedbackByUserId(Long userId) {
-        return feedbackRepository.findByUser(userId);
+    // Rating stats per accepted AI task, by task id; after is the task id cursor from the previous page
+    public PageResponse<FeedbackRatingStatsDTO> getAcceptedTaskRatingStats(Long after, int size,
+                                                                           LocalDateTime from, LocalDateTime to) {
+        if (from != null && to != null && !from.isBefore(to)) {
+            throw new IllegalArgumentException("from must be before to");
+        }
+        List<FeedbackRatingStatsDTO> rows = feedbackRepository.ratingStatsByAcceptedTask(
+                after != null ? after : 0L, size + 1, from, to);
+        boolean hasMore = rows.size() > size;
+        List<FeedbackRatingStatsDTO> items = hasMore ? new ArrayList<>(rows.subList(0, size)) : rows;
+        String nextCursor = hasMore ? String.valueOf(items.get(items.size() - 1).getAcceptedAITaskId()) : null;
+        return new PageResponse<>(items, size, hasMore, null, nextCursor);
+    }
+
+    public FeedbackRatingStatsDTO getAcceptedTaskRatingStats(Long acceptedTaskId) {
+        return feedbackRepository.ratingStats(acceptedTaskId, null);
+    }
+
+    public FeedbackRatingStatsDTO getUserRatingStats(Long userId) {
+        return feedbackRepository.ratingStats(null, userId);
+    }
+
+    // Rating stats per day, week or month in [from, to), optionally narrowed to one task and/or user
+    public List<FeedbackRatingStatsDTO> getRatingTimeline(String bucket, LocalDateTime from, LocalDateTime to,
+                                                          Long acceptedTaskId, Long userId) {
+        if (from == null || to == null || !from.isBefore(to)) {
+            throw new IllegalArgumentException("from and to are required and from must be before to");
+        }
+        Duration bucketLength;
+        switch (bucket) {
+            case "day":
+                bucketLength = Duration.ofDays(1);
+                break;
+            case "week":
+                bucketLength = Duration.ofDays(7);
+                break;
+            case "month":
+                bucketLength = Duration.ofDays(28);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown bucket: " + bucket);
+        }
+        if (Duration.between(from, to).dividedBy(bucketLength) > MAX_TIMELINE_BUCKETS) {
+            throw new IllegalArgumentException("Range too large for " + bucket + " buckets");
+        }
+        return feedbackRepository.ratingStatsByBucket(bucket, from, to, acceptedTaskId, userId);
+    }
+
+    public Optional<UserFeedback> getFeedbackById(Long id) {
+        return feedbackRepository.findById(id);
     }
 
-    public List<UserFeedback> getAllFeedback() {
-        return feedbackRepository.findAll();
+    // One keyset page of feedback for a parsed LIST_QUERY request
+    public PageResponse<UserFeedback> listFeedback(ListQuery query) {
+        return keysetQueryExecutor.page(LIST_QUERY, query, Map.of());
     }
 
     public Optional<UserFeedback> updateFeedback(Long id, UserFeedback updatedFeedback) {
@@ -1,13 +1,25 @@
 package com.jalennorris.server.service;
 
 import com.jalennorris.server.Models.UserGoal;
+import com.jalennorris.server.dto.GoalProgressDTO;
+import com.jalennorris.server.dto.PageResponse;
 import com.jalennorris.server.dto.UserGoalDTO;
 import com.jalennorris.server.Repository.GoalRepository;
+import com.jalennorris.server.Repository.TasksRepository;
+import com.jalennorris.server.query.KeysetQueryExecutor;
+import com.jalennorris.server.query.ListQuery;
+import com.jalennorris.server.query.QueryDefinition;
+import jakarta.persistence.EntityNotFoundException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -15,6 +27,29 @@ public class GoalService {
     @Autowired
     private GoalRepository goalRepository;
 
+    @Autowired
+    private CollectionVersionService collectionVersionService;
+
+    @Autowired
+    private TasksRepository tasksRepository;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private KeysetQueryExecutor keysetQueryExecutor;
+
+    // Filters and sorts the goal listings accept
+    public static final QueryDefinition<UserGoal> LIST_QUERY = QueryDefinition
+            .builder(UserGoal.class, "id", Long.class)
+            .filter("userId", "user", Long.class, QueryDefinition.EQUALITY)
+            .filter("createdAt", "createdAt", LocalDateTime.class, QueryDefinition.RANGE)
+            .sort("createdAt", "createdAt", LocalDateTime.class, LocalDateTime.of(1970, 1, 1, 0, 0))
+            .build();
+
+    // Most tasks one link request may carry
+    private static final int MAX_LINK_BATCH = 100;
+
     // Create
     public UserGoalDTO createGoal(UserGoalDTO goalDTO) {
         UserGoal userGoal = new UserGoal();
@@ -23,6 +58,7 @@ public class GoalService {
         userGoal.setCreatedAt(goalDTO.getCreatedAt());
         // ...set other fields as needed...
         UserGoal saved = goalRepository.save(userGoal);
+        collectionVersionService.bump(CollectionVersionService.GOALS_BY_USER, saved.getUser());
         return new UserGoalDTO(
             saved.getId(),
             saved.getUser(),
@@ -32,33 +68,17 @@ public class GoalService {
         );
     }
 
-    // Read all
-    public List<UserGoalDTO> getAllGoals() {
-        return goalRepository.findAll()
-                .stream()
-                .map(goal -> new UserGoalDTO(
-                    goal.getId(),
-                    goal.getUser(),
-                    goal.getGoalText(),
-                    goal.getCreatedAt()
-                    // ...add other fields as needed...
-                ))
-                .collect(Collectors.toList());
-    }
-
-    // Get all goals by user ID
-    public List<UserGoalDTO> getGoalsByUserId(Long userId) {
-        return goalRepository.findAll()
-                .stream()
-                .filter(goal -> goal.getUser() != null && goal.getUser().equals(userId))
+    // Read a keyset page of goals for a parsed LIST_QUERY request, optionally limited to one user
+    public PageResponse<UserGoalDTO> listGoals(Long userId, ListQuery query) {
+        Map<String, Object> scope = userId != null ? Map.of("user", userId) : Map.of();
+        return keysetQueryExecutor.page(LIST_QUERY, query, scope)
                 .map(goal -> new UserGoalDTO(
                     goal.getId(),
                     goal.getUser(),
                     goal.getGoalText(),
                     goal.getCreatedAt()
                     // ...add other fields as needed...
-                ))
-                .collect(Collectors.toList());
+                ));
     }
 
     // Read by id
@@ -76,11 +96,16 @@ public class GoalService {
     // Update
     public Optional<UserGoalDTO> updateGoal(Long id, UserGoalDTO updatedGoalDTO) {
         return goalRepository.findById(id).map(goal -> {
+            Long previousUser = goal.getUser();
             goal.setUser(updatedGoalDTO.getUser());
             goal.setGoalText(updatedGoalDTO.getGoalText());
             goal.setCreatedAt(updatedGoalDTO.getCreatedAt());
             // ...add other fields as needed...
             UserGoal saved = goalRepository.save(goal);
+            collectionVersionService.bump(CollectionVersionService.GOALS_BY_USER, saved.getUser());
+            if (previousUser != null && !previousUser.equals(saved.getUser())) {
+                collectionVersionService.bump(CollectionVersionService.GOALS_BY_USER, previousUser);
+            }
             return new UserGoalDTO(
                 saved.getId(),
                 saved.getUser(),
@@ -91,8 +116,97 @@ public class GoalService {
         });
     }
 
-    // Delete
+    // Link tasks to a goal; only tasks owned by the goal's user are linked. Returns the number linked
+    @Transactional
+    public int linkTasks(Long goalId, List<Long> taskIds) {
+        if (goalRepository.lockForLinkById(goalId) == null) {
+            throw new EntityNotFoundException("Goal not found");
+        }
+        UserGoal goal = goalRepository.findById(goalId)
+                .orElseThrow(() -> new EntityNotFoundException("Goal not found"));
+        if (taskIds == null || taskIds.isEmpty()) {
+            throw new IllegalArgumentException("At least one task id is required");
+        }
+        if (taskIds.size() > MAX_LINK_BATCH) {
+            throw new IllegalArgumentException("At most " + MAX_LINK_BATCH + " tasks can be linked at once");
+        }
+        int linked = tasksRepository.linkToGoal(goalId, goal.getUser(), taskIds);
+        if (linked > 0) {
+            // Cached task DTOs carry the goal id
+            for (Long taskId : taskIds) {
+                outboxService.appendCacheEvict("tasks::" + taskId, null);
+            }
+            bumpAfterCommit(CollectionVersionService.TASKS_BY_USER, goal.getUser());
+        }
+        return linked;
+    }
+
+    // Unlink a task from a goal; false when the task wasn't linked to it
+    @Transactional
+    public boolean unlinkTask(Long goalId, Long taskId) {
+        UserGoal goal = goalRepository.findById(goalId)
+                .orElseThrow(() -> new EntityNotFoundException("Goal not found"));
+        if (tasksRepository.unlinkFromGoal(goalId, taskId) == 0) {
+            return false;
+        }
+        outboxService.appendCacheEvict("tasks::" + taskId, null);
+        bumpAfterCommit(CollectionVersionService.TASKS_BY_USER, goal.getUser());
+        return true;
+    }
+
+    // A page of goal progress in goal id order; after is the last goal id of the previous page
+    public PageResponse<GoalProgressDTO> getGoalProgressByUser(Long userId, Long after, int size) {
+        // Fetch one extra row to learn whether another page exists
+        List<GoalProgressDTO> rows = goalRepository.findProgressByUser(userId, after != null ? after : 0L, size + 1)
+                .stream()
+                .map(this::toProgressDTO)
+                .collect(Collectors.toList());
+        boolean hasMore = rows.size() > size;
+        List<GoalProgressDTO> items = hasMore ? rows.subList(0, size) : rows;
+        String nextCursor = hasMore ? String.valueOf(items.get(items.size() - 1).getGoalId()) : null;
+        return new PageResponse<>(items, size, hasMore, null, nextCursor);
+    }
+
+    public Optional<GoalProgressDTO> getGoalProgress(Long goalId) {
+        return goalRepository.findProgressById(goalId)
+                .stream()
+                .findFirst()
+                .map(this::toProgressDTO);
+    }
+
+    private GoalProgressDTO toProgressDTO(Object[] row) {
+        return new GoalProgressDTO(
+            ((Number) row[0]).longValue(),
+            (String) row[1],
+            ((Number) row[2]).longValue(),
+            ((Number) row[3]).longValue()
+        );
+    }
+
+    // Delete. Linked tasks are unlinked here rather than by ON DELETE SET NULL (kept as a backstop,
+    // see schema.sql) so their cached DTOs, which carry the goal id, can be evicted
+    @Transactional
     public void deleteGoal(Long id) {
-        goalRepository.deleteById(id);
+        if (goalRepository.lockById(id) == null) {
+            return;
+        }
+        goalRepository.findById(id).ifPresent(goal -> {
+            Set<Long> users = new HashSet<>();
+            for (Object[] row : tasksRepository.unlinkAllFromGoal(id)) {
+                outboxService.appendCacheEvict("tasks::" + ((Number) row[0]).longValue(), null);
+                users.add(((Number) row[1]).longValue());
+            }
+            goalRepository.delete(goal);
+            bumpAfterCommit(CollectionVersionService.GOALS_BY_USER, goal.getUser());
+            for (Long userId : users) {
+                bumpAfterCommit(CollectionVersionService.TASKS_BY_USER, userId);
+            }
+        });
+    }
+
+    // Version bumps inside a transaction go through the outbox, so they land once the change has
+    // committed and a concurrent read can't cache the old rows under the new version
+    private void bumpAfterCommit(String collection, Long userId) {
+        outboxService.appendVersionBump(collection, userId, null);
     }
 }
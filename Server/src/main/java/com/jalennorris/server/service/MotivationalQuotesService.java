@@ -16,19 +16,44 @@ public class MotivationalQuotesService {
     @Autowired
     private MotivationalQuotesRepository repository;
 
+    @Autowired
+    private CollectionVersionService collectionVersionService;
+
+    @Autowired
+    private QuoteCatalog quoteCatalog;
+
+    // Reads are served from the in-memory catalog; writes go to the database and refresh it
+
     public List<MotivationalQuoteDto> getAllQuotes() {
-        return repository.findAll().stream()
-                .map(this::toDto)
-                .collect(Collectors.toList());
+        return quoteCatalog.all();
+    }
+
+    // The full catalog pre-serialized as a JSON array, with the ETag of the snapshot it came from
+    public QuoteCatalog.SerializedCatalog getAllQuotesSerialized() {
+        return quoteCatalog.serialized();
     }
 
     public Optional<MotivationalQuoteDto> getQuoteById(Long id) {
-        return repository.findById(id).map(this::toDto);
+        return quoteCatalog.byId(id);
+    }
+
+    public List<MotivationalQuoteDto> getQuotesByType(String type) {
+        return quoteCatalog.byType(type);
+    }
+
+    public Optional<MotivationalQuoteDto> getRandomQuote(String type) {
+        return quoteCatalog.random(type);
+    }
+
+    public Optional<MotivationalQuoteDto> getQuoteOfTheDay(long userId) {
+        return quoteCatalog.quoteOfTheDay(userId);
     }
 
     public MotivationalQuoteDto createQuote(MotivationalQuoteDto quoteDto) {
         MotivationalQuotesModel entity = toEntity(quoteDto);
         MotivationalQuotesModel saved = repository.save(entity);
+        collectionVersionService.bump(CollectionVersionService.QUOTES, null);
+        quoteCatalog.refresh();
         return toDto(saved);
     }
 
@@ -37,6 +62,8 @@ public class MotivationalQuotesService {
                 .map(this::toEntity)
                 .collect(Collectors.toList());
         List<MotivationalQuotesModel> savedEntities = repository.saveAll(entities);
+        collectionVersionService.bump(CollectionVersionService.QUOTES, null);
+        quoteCatalog.refresh();
         return savedEntities.stream()
                 .map(this::toDto)
                 .collect(Collectors.toList());
@@ -51,6 +78,8 @@ public class MotivationalQuotesService {
                 existing.setCreated_at(quoteDto.getCreated_at());
             }
             MotivationalQuotesModel saved = repository.save(existing);
+            collectionVersionService.bump(CollectionVersionService.QUOTES, null);
+            quoteCatalog.refresh();
             return toDto(saved);
         });
     }
@@ -64,6 +93,8 @@ public class MotivationalQuotesService {
                 existing.setCreated_at(quoteDto.getCreated_at());
             }
             MotivationalQuotesModel saved = repository.save(existing);
+            collectionVersionService.bump(CollectionVersionService.QUOTES, null);
+            quoteCatalog.refresh();
             return toDto(saved);
         });
     }
@@ -71,6 +102,8 @@ public class MotivationalQuotesService {
     public boolean deleteQuote(Long id) {
         if (repository.existsById(id)) {
             repository.deleteById(id);
+            collectionVersionService.bump(CollectionVersionService.QUOTES, null);
+            quoteCatalog.refresh();
             return true;
         }
         return false;
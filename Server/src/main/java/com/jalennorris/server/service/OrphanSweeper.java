@@ -0,0 +1,89 @@
+package com.jalennorris.server.service;
+
+import com.jalennorris.server.Repository.FeedbackRepository;
+import com.jalennorris.server.Repository.ScheduleRepository;
+import com.jalennorris.server.Repository.SubTaskRepository;
+import com.jalennorris.server.Repository.TasksRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Purges rows left behind by deletes that happened before the ON DELETE constraints existed
+ * (see schema.sql). Work is done in small chunks, each in its own transaction, so no lock is
+ * held for long. Once a table has no orphans left its constraint is validated, after which
+ * the database itself guarantees there are none and the table is skipped.
+ */
+@Service
+public class OrphanSweeper {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrphanSweeper.class);
+
+    private final SubTaskRepository subTaskRepository;
+    private final ScheduleRepository scheduleRepository;
+    private final FeedbackRepository feedbackRepository;
+    private final TasksRepository tasksRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+
+    @Autowired
+    public OrphanSweeper(SubTaskRepository subTaskRepository, ScheduleRepository scheduleRepository,
+                         FeedbackRepository feedbackRepository, TasksRepository tasksRepository,
+                         JdbcTemplate jdbcTemplate,
+                         @Value("${cleanup.orphans.batch-size:500}") int batchSize,
+                         @Value("${cleanup.orphans.max-batches-per-run:200}") int maxBatchesPerRun) {
+        this.subTaskRepository = subTaskRepository;
+        this.scheduleRepository = scheduleRepository;
+        this.feedbackRepository = feedbackRepository;
+        this.tasksRepository = tasksRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+    }
+
+    @Scheduled(initialDelayString = "${cleanup.orphans.initial-delay-ms:60000}",
+            fixedDelayString = "${cleanup.orphans.interval-ms:600000}")
+    public void sweep() {
+        sweepTable("subtasks", "fk_subtasks_task", subTaskRepository::deleteOrphans);
+        sweepTable("schedule", "fk_schedule_task", scheduleRepository::deleteOrphans);
+        sweepTable("user_feedback", "fk_user_feedback_accepted_task", feedbackRepository::clearDanglingAcceptedTaskIds);
+        sweepTable("tasks", "fk_tasks_goal", tasksRepository::clearDanglingGoalIds);
+    }
+
+    private void sweepTable(String table, String constraint, IntUnaryOperator purgeChunk) {
+        try {
+            Boolean validated = constraintValidated(constraint);
+            if (validated == null || validated) {
+                return; // Constraint missing (schema.sql not applied) or already enforced for all rows
+            }
+            long purged = 0;
+            for (int i = 0; i < maxBatchesPerRun; i++) {
+                int affected = purgeChunk.applyAsInt(batchSize);
+                purged += affected;
+                if (affected < batchSize) {
+                    // Nothing left: from now on the constraint covers every row
+                    jdbcTemplate.execute("ALTER TABLE " + table + " VALIDATE CONSTRAINT " + constraint);
+                    logger.info("Purged {} orphaned rows from {} and validated {}", purged, table, constraint);
+                    return;
+                }
+            }
+            logger.info("Purged {} orphaned rows from {}; continuing next run", purged, table);
+        } catch (Exception e) {
+            logger.warn("Orphan sweep of {} failed: {}", table, e.getMessage());
+        }
+    }
+
+    private Boolean constraintValidated(String constraint) {
+        List<Boolean> rows = jdbcTemplate.queryForList(
+                "SELECT convalidated FROM pg_constraint WHERE conname = ?", Boolean.class, constraint);
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+}
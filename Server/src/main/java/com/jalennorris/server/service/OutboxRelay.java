@@ -0,0 +1,258 @@
+package com.jalennorris.server.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jalennorris.server.Models.OutboxEvent;
+import com.jalennorris.server.Repository.OutboxRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Drains outbox_events to Redis pub/sub, collection versions and the push service.
+ *
+ * Each run claims a batch of pending events in a short transaction: SKIP LOCKED lets several
+ * nodes claim in parallel, and the claim moves available_at past a lease so the rows stay
+ * theirs after commit. Delivery happens outside any transaction, so no row lock is held while
+ * Redis or Expo is slow. Evictions and version bumps are applied and marked processed right
+ * away; pushes are handed to the push queue and marked once Expo has accepted or refused them.
+ * Delivery is at least once: a claim whose node dies is handed out again when the lease runs
+ * out. Evictions and bumps are harmless to repeat; pushes leave a marker in Redis under their
+ * idempotency key once Expo has accepted them, and a marked event is not sent again. Failed
+ * events are retried with exponential backoff; after outbox.relay.max-attempts failures an event
+ * is marked DEAD, leaves the pending set (and the lag gauge) and is counted in outbox.dead. Evictions and bumps are usually delivered before
+ * the scheduled run gets to them, by OutboxService right after their transaction commits.
+ */
+@Service
+public class OutboxRelay {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxRelay.class);
+
+    private static final String PUSH_MARKER_PREFIX = "outbox::pushed::";
+    private static final Duration PUSH_MARKER_TTL = Duration.ofHours(24);
+    private static final long MAX_BACKOFF_SECONDS = 3600;
+
+    private final OutboxRepository outboxRepository;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final PushNotificationService pushNotificationService;
+    private final CollectionVersionService collectionVersionService;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final int batchSize;
+    private final long leaseSeconds;
+    private final int maxAttempts;
+    private final Duration retention;
+
+    // Push outcomes reported by the push service, applied on the next relay run
+    private final ConcurrentLinkedQueue<OutboxEvent> pushesAccepted = new ConcurrentLinkedQueue<>();
+    private final ConcurrentLinkedQueue<OutboxEvent> pushesFailed = new ConcurrentLinkedQueue<>();
+
+    private volatile double lagSeconds;
+    private volatile long pending;
+
+    @Autowired
+    public OutboxRelay(OutboxRepository outboxRepository, StringRedisTemplate stringRedisTemplate,
+                       PushNotificationService pushNotificationService,
+                       CollectionVersionService collectionVersionService, TransactionTemplate transactionTemplate,
+                       ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                       @Value("${outbox.relay.batch-size:200}") int batchSize,
+                       @Value("${outbox.relay.lease-seconds:300}") long leaseSeconds,
+                       @Value("${outbox.relay.max-attempts:10}") int maxAttempts,
+                       @Value("${outbox.retention-hours:24}") long retentionHours) {
+        this.outboxRepository = outboxRepository;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.pushNotificationService = pushNotificationService;
+        this.collectionVersionService = collectionVersionService;
+        // Delivery also runs from another transaction's afterCommit, where work needs its own transaction
+        this.transactionTemplate = new TransactionTemplate(transactionTemplate.getTransactionManager(), transactionTemplate);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.batchSize = batchSize;
+        this.leaseSeconds = leaseSeconds;
+        this.maxAttempts = maxAttempts;
+        this.retention = Duration.ofHours(retentionHours);
+        Gauge.builder("outbox.lag.seconds", this, relay -> relay.lagSeconds)
+                .description("Age of the oldest undelivered outbox event")
+                .register(meterRegistry);
+        Gauge.builder("outbox.pending", this, relay -> relay.pending)
+                .description("Undelivered outbox events")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.relay.interval-ms:500}")
+    public void relay() {
+        try {
+            applyPushResults();
+            List<OutboxEvent> events;
+            do {
+                events = transactionTemplate.execute(status -> outboxRepository.claimPending(batchSize, leaseSeconds));
+                if (events == null || events.isEmpty()) {
+                    break;
+                }
+                // RETURNING gives no order; keep delivery in append order
+                List<OutboxEvent> ordered = new ArrayList<>(events);
+                ordered.sort(Comparator.comparing(OutboxEvent::getId));
+                deliver(ordered);
+            } while (events.size() == batchSize);
+        } catch (Exception e) {
+            logger.warn("Outbox relay failed: {}", e.getMessage());
+        }
+        try {
+            lagSeconds = outboxRepository.findOldestPendingAgeSeconds();
+            pending = outboxRepository.countPending();
+        } catch (Exception e) {
+            logger.warn("Failed to read outbox lag: {}", e.getMessage());
+        }
+    }
+
+    // Deliver evictions and bumps a transaction appended, right after it committed; whatever fails
+    // here stays pending for the scheduled run
+    public void deliverCommitted(List<OutboxEvent> events) {
+        try {
+            deliver(events);
+        } catch (Exception e) {
+            logger.warn("Immediate outbox delivery failed, left to the relay: {}", e.getMessage());
+        }
+    }
+
+    // Deliver claimed events; runs outside any transaction
+    void deliver(List<OutboxEvent> events) {
+        List<Long> delivered = new ArrayList<>();
+        for (OutboxEvent event : events) {
+            switch (event.getEventType()) {
+                case OutboxService.CACHE_EVICT:
+                    try {
+                        stringRedisTemplate.delete(event.getPayload());
+                        stringRedisTemplate.convertAndSend("cacheEvictChannel", event.getPayload());
+                        delivered.add(event.getId());
+                    } catch (Exception e) {
+                        fail(event, e.getMessage());
+                    }
+                    break;
+                case OutboxService.VERSION_BUMP:
+                    String[] parts = event.getPayload().split("::", 2);
+                    collectionVersionService.bumpNow(parts[0], parts.length > 1 ? parts[1] : null);
+                    delivered.add(event.getId());
+                    break;
+                case OutboxService.PUSH:
+                    if (alreadyPushed(event)) {
+                        delivered.add(event.getId());
+                    } else {
+                        relayPush(event);
+                    }
+                    break;
+                default:
+                    fail(event, "Unknown event type " + event.getEventType());
+            }
+        }
+        markProcessed(delivered);
+    }
+
+    // Hand a push to the push queue; its outcome is recorded by applyPushResults
+    private void relayPush(OutboxEvent event) {
+        Map<String, Object> message;
+        try {
+            message = objectMapper.readValue(event.getPayload(), new TypeReference<Map<String, Object>>() {});
+        } catch (Exception e) {
+            fail(event, "Unreadable push payload: " + e.getMessage());
+            return;
+        }
+        boolean queued = pushNotificationService.enqueue(message, accepted -> {
+            if (accepted) {
+                recordPushed(event);
+                pushesAccepted.add(event);
+            } else {
+                pushesFailed.add(event);
+            }
+        });
+        if (!queued) {
+            fail(event, "Push queue is full");
+        }
+    }
+
+    // Mark pushes the push service has finished with since the last run
+    void applyPushResults() {
+        List<Long> accepted = new ArrayList<>();
+        OutboxEvent event;
+        while ((event = pushesAccepted.poll()) != null) {
+            accepted.add(event.getId());
+        }
+        markProcessed(accepted);
+        while ((event = pushesFailed.poll()) != null) {
+            fail(event, "Expo did not accept the push");
+        }
+    }
+
+    private void markProcessed(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> outboxRepository.markProcessed(ids));
+        meterRegistry.counter("outbox.delivered").increment(ids.size());
+    }
+
+    private void recordPushed(OutboxEvent event) {
+        try {
+            stringRedisTemplate.opsForValue().set(PUSH_MARKER_PREFIX + event.getIdempotencyKey(), "1", PUSH_MARKER_TTL);
+        } catch (Exception e) {
+            logger.warn("Failed to record push marker for outbox event {}: {}", event.getId(), e.getMessage());
+        }
+    }
+
+    // True when an earlier relay pass got this push accepted but could not mark it processed
+    private boolean alreadyPushed(OutboxEvent event) {
+        try {
+            return Boolean.TRUE.equals(stringRedisTemplate.hasKey(PUSH_MARKER_PREFIX + event.getIdempotencyKey()));
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    private void fail(OutboxEvent event, String error) {
+        if (event.getAttempts() + 1 >= maxAttempts) {
+            transactionTemplate.executeWithoutResult(status -> outboxRepository.markDead(List.of(event.getId()), error));
+            meterRegistry.counter("outbox.dead", "type", event.getEventType()).increment();
+            logger.error("Outbox event {} ({}) gave up after {} attempts: {}",
+                    event.getId(), event.getEventType(), event.getAttempts() + 1, error);
+            return;
+        }
+        long delaySeconds = Math.min(MAX_BACKOFF_SECONDS, 1L << Math.min(event.getAttempts(), 12));
+        transactionTemplate.executeWithoutResult(status ->
+                outboxRepository.markFailed(List.of(event.getId()), error, delaySeconds));
+        meterRegistry.counter("outbox.failed", "type", event.getEventType()).increment();
+        logger.warn("Outbox event {} ({}) failed, attempt {}: {}",
+                event.getId(), event.getEventType(), event.getAttempts() + 1, error);
+    }
+
+    // Delivered events are only kept for a while, for inspection
+    @Scheduled(fixedDelayString = "${outbox.cleanup.interval-ms:3600000}")
+    public void purgeDelivered() {
+        try {
+            Instant cutoff = Instant.now().minus(retention);
+            int deleted;
+            do {
+                deleted = outboxRepository.deleteProcessedBefore(cutoff, 1000);
+            } while (deleted == 1000);
+        } catch (Exception e) {
+            logger.warn("Failed to purge delivered outbox events: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.jalennorris.server.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jalennorris.server.Models.OutboxEvent;
+import com.jalennorris.server.Repository.OutboxRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Records side effects in the outbox_events table in the caller's transaction, so they are
+ * committed together with the data change that caused them, or not at all. Evictions and
+ * version bumps are also handed to OutboxRelay as soon as that transaction commits, so the
+ * writer's next read already sees them; the row is the backstop the scheduled relay delivers
+ * if that attempt fails or the node dies first. Pushes are only sent by the scheduled relay.
+ */
+@Service
+public class OutboxService {
+
+    // Payload is a Redis cache key to delete and announce on cacheEvictChannel
+    public static final String CACHE_EVICT = "CACHE_EVICT";
+    // Payload is an Expo push message as JSON
+    public static final String PUSH = "PUSH";
+    // Payload is "<collection>::<scope id>" of a CollectionVersionService version to bump
+    public static final String VERSION_BUMP = "VERSION_BUMP";
+
+    private final OutboxRepository outboxRepository;
+    private final ObjectMapper objectMapper;
+    private final OutboxRelay outboxRelay;
+
+    @Autowired
+    public OutboxService(OutboxRepository outboxRepository, ObjectMapper objectMapper, OutboxRelay outboxRelay) {
+        this.outboxRepository = outboxRepository;
+        this.objectMapper = objectMapper;
+        this.outboxRelay = outboxRelay;
+    }
+
+    // Queue a cache eviction; a null idempotency key makes the event unique
+    @Transactional
+    public void appendCacheEvict(String cacheKey, String idempotencyKey) {
+        append(CACHE_EVICT, cacheKey, idempotencyKey);
+    }
+
+    // Queue a collection version bump, for writes whose readers are keyed by that version
+    @Transactional
+    public void appendVersionBump(String collection, Object scopeId, String idempotencyKey) {
+        append(VERSION_BUMP, scopeId != null ? collection + "::" + scopeId : collection, idempotencyKey);
+    }
+
+    // Queue a push message; returns false if an event with the same idempotency key already exists
+    @Transactional
+    public boolean appendPush(Map<String, Object> message, String idempotencyKey) {
+        try {
+            return append(PUSH, objectMapper.writeValueAsString(message), idempotencyKey);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Push message is not serializable: " + e.getMessage());
+        }
+    }
+
+    private boolean append(String eventType, String payload, String idempotencyKey) {
+        String key = idempotencyKey != null ? idempotencyKey : eventType + ":" + UUID.randomUUID();
+        Long id = outboxRepository.append(eventType, payload, key);
+        if (id == null) {
+            return false;
+        }
+        if (!PUSH.equals(eventType)) {
+            deliverAfterCommit(id, eventType, payload, key);
+        }
+        return true;
+    }
+
+    // Collect the transaction's events and deliver them in one pass once it has committed
+    @SuppressWarnings("unchecked")
+    private void deliverAfterCommit(long id, String eventType, String payload, String idempotencyKey) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        List<OutboxEvent> committed = (List<OutboxEvent>) TransactionSynchronizationManager.getResource(this);
+        if (committed == null) {
+            List<OutboxEvent> events = new ArrayList<>();
+            TransactionSynchronizationManager.bindResource(this, events);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    outboxRelay.deliverCommitted(events);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(OutboxService.this);
+                }
+            });
+            committed = events;
+        }
+        OutboxEvent event = new OutboxEvent();
+        event.setId(id);
+        event.setEventType(eventType);
+        event.setPayload(payload);
+        event.setIdempotencyKey(idempotencyKey);
+        committed.add(event);
+    }
+}
@@ -0,0 +1,373 @@
+package com.jalennorris.server.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jalennorris.server.Repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Queues push messages and sends them to the Expo push API in the background.
+ *
+ * Callers only enqueue, so no request thread waits on Expo. A batcher thread groups queued
+ * messages into requests of up to 100 (the most Expo accepts), waiting at most push.linger-ms
+ * to fill a batch, and hands them to the bounded push executor. Requests share one pooled
+ * HttpClient, and 429/5xx/network failures are retried with exponential backoff. Ticket ids
+ * are kept and their receipts fetched later; tokens Expo reports as DeviceNotRegistered, on
+ * a ticket or a receipt, are cleared from the user. The Expo URLs are configurable so a
+ * local stub can stand in for Expo. A caller that needs to know the outcome passes a callback
+ * to enqueue; it runs once the message's batch is accepted by Expo or given up on.
+ */
+@Service
+public class PushNotificationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PushNotificationService.class);
+
+    static final int MAX_MESSAGES_PER_REQUEST = 100;
+    private static final int MAX_RECEIPT_IDS_PER_REQUEST = 1000;
+    private static final long RECEIPT_MAX_AGE_MS = TimeUnit.HOURS.toMillis(24);
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    private final ObjectMapper objectMapper;
+    private final ThreadPoolTaskExecutor pushExecutor;
+    private final UserRepository userRepository;
+    private final URI sendUri;
+    private final URI receiptsUri;
+    private final BlockingQueue<Queued> queue;
+    private final long lingerMs;
+    private final int maxAttempts;
+    private final long backoffMs;
+    private final long receiptDelayMs;
+    private final int maxPendingReceipts;
+
+    // Ticket id -> (token, time sent), waiting for its receipt
+    private final ConcurrentMap<String, PendingReceipt> pendingReceipts = new ConcurrentHashMap<>();
+
+    private final Counter queuedCounter;
+    private final Counter rejectedCounter;
+    private final Counter sentCounter;
+    private final Counter failedCounter;
+    private final Counter retryCounter;
+    private final MeterRegistry meterRegistry;
+
+    private volatile boolean running = true;
+    private Thread batcher;
+
+    private record PendingReceipt(String token, long sentAt) {}
+
+    // A queued message and the callback told whether Expo accepted it (may be null)
+    private record Queued(Map<String, Object> message, Consumer<Boolean> onResult) {}
+
+    @Autowired
+    public PushNotificationService(ObjectMapper objectMapper,
+                                   @Qualifier("pushExecutor") ThreadPoolTaskExecutor pushExecutor,
+                                   UserRepository userRepository,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${push.expo.url:https://exp.host/--/api/v2/push/send}") String sendUrl,
+                                   @Value("${push.expo.receipts-url:https://exp.host/--/api/v2/push/getReceipts}") String receiptsUrl,
+                                   @Value("${push.queue-capacity:50000}") int queueCapacity,
+                                   @Value("${push.linger-ms:50}") long lingerMs,
+                                   @Value("${push.max-attempts:4}") int maxAttempts,
+                                   @Value("${push.backoff-ms:500}") long backoffMs,
+                                   @Value("${push.receipts.delay-ms:900000}") long receiptDelayMs,
+                                   @Value("${push.receipts.max-pending:100000}") int maxPendingReceipts) {
+        this.objectMapper = objectMapper;
+        this.pushExecutor = pushExecutor;
+        this.userRepository = userRepository;
+        this.meterRegistry = meterRegistry;
+        this.sendUri = URI.create(sendUrl);
+        this.receiptsUri = URI.create(receiptsUrl);
+        this.queue = new LinkedBlockingQueue<>(queueCapacity);
+        this.lingerMs = lingerMs;
+        this.maxAttempts = maxAttempts;
+        this.backoffMs = backoffMs;
+        this.receiptDelayMs = receiptDelayMs;
+        this.maxPendingReceipts = maxPendingReceipts;
+        this.queuedCounter = Counter.builder("push.messages.queued")
+                .description("Push messages accepted into the queue")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("push.messages.rejected")
+                .description("Push messages rejected because the queue was full")
+                .register(meterRegistry);
+        this.sentCounter = Counter.builder("push.messages.sent")
+                .description("Push messages accepted by Expo")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("push.messages.failed")
+                .description("Push messages given up on after retries")
+                .register(meterRegistry);
+        this.retryCounter = Counter.builder("push.requests.retried")
+                .description("Expo requests retried after a failure")
+                .register(meterRegistry);
+        Gauge.builder("push.queue.size", queue, BlockingQueue::size)
+                .description("Push messages waiting to be batched")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        batcher = new Thread(this::runBatcher, "push-batcher");
+        batcher.setDaemon(true);
+        batcher.start();
+    }
+
+    @PreDestroy
+    void stop() {
+        running = false;
+        if (batcher != null) {
+            batcher.interrupt();
+        }
+    }
+
+    // Build an Expo message payload
+    public static Map<String, Object> message(String to, String title, String body, Map<String, Object> data) {
+        Map<String, Object> message = new LinkedHashMap<>();
+        message.put("to", to);
+        message.put("sound", "default");
+        message.put("title", title);
+        message.put("body", body);
+        message.put("data", data != null ? data : Collections.emptyMap());
+        return message;
+    }
+
+    // Queue a message for sending; false when the queue is full
+    public boolean enqueue(Map<String, Object> message) {
+        return enqueue(message, null);
+    }
+
+    // Queue a message; onResult gets true once Expo accepted it, false once it was given up on.
+    // It is not called when this returns false (queue full).
+    public boolean enqueue(Map<String, Object> message, Consumer<Boolean> onResult) {
+        if (queue.offer(new Queued(message, onResult))) {
+            queuedCounter.increment();
+            return true;
+        }
+        rejectedCounter.increment();
+        return false;
+    }
+
+    private void runBatcher() {
+        while (running) {
+            try {
+                Queued first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                List<Queued> batch = new ArrayList<>(MAX_MESSAGES_PER_REQUEST);
+                batch.add(first);
+                queue.drainTo(batch, MAX_MESSAGES_PER_REQUEST - batch.size());
+
+                // Give a partial batch a moment to fill up before sending it
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(lingerMs);
+                while (batch.size() < MAX_MESSAGES_PER_REQUEST) {
+                    long waitNanos = deadline - System.nanoTime();
+                    Queued next = waitNanos > 0 ? queue.poll(waitNanos, TimeUnit.NANOSECONDS) : null;
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                    queue.drainTo(batch, MAX_MESSAGES_PER_REQUEST - batch.size());
+                }
+
+                // Runs on the batcher itself when the executor is saturated, which throttles batching
+                pushExecutor.execute(() -> sendQueued(batch));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                logger.warn("Push batcher error: {}", e.getMessage());
+            }
+        }
+    }
+
+    private void sendQueued(List<Queued> batch) {
+        List<Map<String, Object>> messages = new ArrayList<>(batch.size());
+        for (Queued queued : batch) {
+            messages.add(queued.message());
+        }
+        boolean accepted = sendWithRetry(messages);
+        for (Queued queued : batch) {
+            if (queued.onResult() == null) {
+                continue;
+            }
+            try {
+                queued.onResult().accept(accepted);
+            } catch (Exception e) {
+                logger.warn("Push result callback failed: {}", e.getMessage());
+            }
+        }
+    }
+
+    private boolean sendWithRetry(List<Map<String, Object>> batch) {
+        String body;
+        try {
+            body = objectMapper.writeValueAsString(batch);
+        } catch (IOException e) {
+            logger.warn("Failed to serialize {} push messages: {}", batch.size(), e.getMessage());
+            failedCounter.increment(batch.size());
+            return false;
+        }
+
+        for (int attempt = 1; attempt <= maxAttempts; attempt++) {
+            try {
+                HttpResponse<String> response = httpClient.send(jsonPost(sendUri, body), HttpResponse.BodyHandlers.ofString());
+                int status = response.statusCode();
+                if (status == 200) {
+                    sentCounter.increment(batch.size());
+                    handleTickets(batch, response.body());
+                    return true;
+                }
+                if (status != 429 && status < 500) {
+                    // The request itself is bad; sending it again won't help
+                    logger.warn("Expo rejected {} push messages with status {}: {}", batch.size(), status, response.body());
+                    failedCounter.increment(batch.size());
+                    return false;
+                }
+                logger.warn("Expo returned {} for {} push messages (attempt {})", status, batch.size(), attempt);
+            } catch (IOException e) {
+                logger.warn("Failed to reach Expo for {} push messages (attempt {}): {}", batch.size(), attempt, e.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failedCounter.increment(batch.size());
+                return false;
+            }
+
+            if (attempt < maxAttempts && !backoff(attempt)) {
+                break;
+            }
+        }
+        failedCounter.increment(batch.size());
+        return false;
+    }
+
+    // Sleep backoffMs * 2^(attempt-1) plus jitter; false if interrupted
+    private boolean backoff(int attempt) {
+        retryCounter.increment();
+        long delay = backoffMs * (1L << (attempt - 1));
+        try {
+            Thread.sleep(delay + ThreadLocalRandom.current().nextLong(delay / 2 + 1));
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    // Tickets come back in message order: keep ok ids for receipts, drop unregistered tokens
+    private void handleTickets(List<Map<String, Object>> batch, String responseBody) {
+        try {
+            JsonNode tickets = objectMapper.readTree(responseBody).path("data");
+            for (int i = 0; i < tickets.size() && i < batch.size(); i++) {
+                JsonNode ticket = tickets.get(i);
+                String token = (String) batch.get(i).get("to");
+                if ("ok".equals(ticket.path("status").asText())) {
+                    String id = ticket.path("id").asText(null);
+                    if (id != null && pendingReceipts.size() < maxPendingReceipts) {
+                        pendingReceipts.put(id, new PendingReceipt(token, System.currentTimeMillis()));
+                    }
+                } else {
+                    handleError(token, ticket.path("details").path("error").asText("Unknown"));
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to parse Expo push tickets: {}", e.getMessage());
+        }
+    }
+
+    // Fetch receipts for tickets old enough for Expo to have processed them
+    @Scheduled(fixedDelayString = "${push.receipts.interval-ms:60000}")
+    public void checkReceipts() {
+        long now = System.currentTimeMillis();
+        List<String> due = new ArrayList<>();
+        Iterator<Map.Entry<String, PendingReceipt>> it = pendingReceipts.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, PendingReceipt> entry = it.next();
+            if (now - entry.getValue().sentAt() > RECEIPT_MAX_AGE_MS) {
+                it.remove(); // Expo keeps receipts for about a day
+            } else if (now - entry.getValue().sentAt() >= receiptDelayMs) {
+                due.add(entry.getKey());
+            }
+        }
+
+        for (int i = 0; i < due.size(); i += MAX_RECEIPT_IDS_PER_REQUEST) {
+            List<String> ids = due.subList(i, Math.min(i + MAX_RECEIPT_IDS_PER_REQUEST, due.size()));
+            try {
+                String body = objectMapper.writeValueAsString(Map.of("ids", ids));
+                HttpResponse<String> response = httpClient.send(jsonPost(receiptsUri, body), HttpResponse.BodyHandlers.ofString());
+                if (response.statusCode() != 200) {
+                    logger.warn("Expo returned {} for {} receipt ids", response.statusCode(), ids.size());
+                    continue;
+                }
+                JsonNode receipts = objectMapper.readTree(response.body()).path("data");
+                for (String id : ids) {
+                    JsonNode receipt = receipts.get(id);
+                    if (receipt == null) {
+                        continue; // Not ready yet; try again on the next run
+                    }
+                    PendingReceipt pending = pendingReceipts.remove(id);
+                    if (pending != null && "error".equals(receipt.path("status").asText())) {
+                        handleError(pending.token(), receipt.path("details").path("error").asText("Unknown"));
+                    }
+                }
+            } catch (IOException e) {
+                logger.warn("Failed to fetch {} push receipts: {}", ids.size(), e.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void handleError(String token, String error) {
+        meterRegistry.counter("push.errors", "error", error).increment();
+        if ("DeviceNotRegistered".equals(error) && token != null) {
+            try {
+                userRepository.clearExpoPushToken(token);
+            } catch (Exception e) {
+                logger.warn("Failed to clear unregistered push token: {}", e.getMessage());
+            }
+        }
+    }
+
+    private HttpRequest jsonPost(URI uri, String body) {
+        return HttpRequest.newBuilder(uri)
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json")
+                .header("Accept", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+}
@@ -0,0 +1,210 @@
+package com.jalennorris.server.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jalennorris.server.Models.MotivationalQuotesModel;
+import com.jalennorris.server.Repository.MotivationalQuotesRepository;
+import com.jalennorris.server.dto.MotivationalQuoteDto;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * In-process copy of the quote catalog. Each load builds a new immutable snapshot (list, id and
+ * type indexes, and the full list pre-serialized as JSON) and swaps it in with one volatile
+ * write, so readers never lock and never see a half-built catalog. Writers call refresh(),
+ * which reloads locally and tells the other nodes to reload over Redis pub/sub.
+ * Each snapshot records the QUOTES collection version it was built at, and the ETag served
+ * with the catalog comes from that version, so a node never pairs a newer ETag with an older
+ * body. A periodic version check reloads a node that missed a pub/sub message.
+ * The DTOs in a snapshot are shared between requests and must be treated as read-only.
+ */
+@Service
+public class QuoteCatalog {
+
+    private static final Logger logger = LoggerFactory.getLogger(QuoteCatalog.class);
+
+    static final String CHANNEL = "quotesChangedChannel";
+
+    private final MotivationalQuotesRepository repository;
+    private final ObjectMapper objectMapper;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final CollectionVersionService collectionVersionService;
+
+    // Lets a node ignore its own refresh announcements
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+    private volatile boolean loadAttempted;
+
+    // version is the QUOTES collection version read before the rows; null when Redis was unreachable
+    private record Snapshot(List<MotivationalQuoteDto> all,
+                            Map<Long, MotivationalQuoteDto> byId,
+                            Map<String, List<MotivationalQuoteDto>> byType,
+                            String allJson,
+                            String version) {
+        static final Snapshot EMPTY = new Snapshot(List.of(), Map.of(), Map.of(), "[]", null);
+    }
+
+    // The full catalog as a JSON array with the ETag of the snapshot it came from (null: send none)
+    public record SerializedCatalog(String json, String eTag) {}
+
+    @Autowired
+    public QuoteCatalog(MotivationalQuotesRepository repository, ObjectMapper objectMapper,
+                        StringRedisTemplate stringRedisTemplate, RedisMessageListenerContainer listenerContainer,
+                        CollectionVersionService collectionVersionService) {
+        this.repository = repository;
+        this.objectMapper = objectMapper;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.listenerContainer = listenerContainer;
+        this.collectionVersionService = collectionVersionService;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        reload();
+        listenerContainer.addMessageListener((message, pattern) -> {
+            if (!nodeId.equals(new String(message.getBody()))) {
+                reload();
+            }
+        }, new ChannelTopic(CHANNEL));
+    }
+
+    // Reload after a write and have the other nodes do the same
+    public void refresh() {
+        reload();
+        try {
+            stringRedisTemplate.convertAndSend(CHANNEL, nodeId);
+        } catch (Exception e) {
+            logger.warn("Failed to announce quote catalog refresh: {}", e.getMessage());
+        }
+    }
+
+    // Reload when the collection version moved on without this node hearing about it
+    @Scheduled(fixedDelayString = "${quotes.catalog.version-check-ms:30000}")
+    public void checkVersion() {
+        String latest = collectionVersionService.currentVersion(CollectionVersionService.QUOTES, null);
+        Snapshot current = snapshot;
+        if (current == Snapshot.EMPTY || (latest != null && !latest.equals(current.version()))) {
+            reload();
+        }
+    }
+
+    // Build a fresh snapshot from the database and swap it in; concurrent reloads are serialized
+    public synchronized void reload() {
+        loadAttempted = true;
+        try {
+            // Read the version first: rows written after this read get a newer version, which the
+            // next check picks up, whereas a version read after the rows could hide them
+            String version = collectionVersionService.currentVersion(CollectionVersionService.QUOTES, null);
+            List<MotivationalQuoteDto> all = new ArrayList<>();
+            Map<Long, MotivationalQuoteDto> byId = new HashMap<>();
+            Map<String, List<MotivationalQuoteDto>> byType = new LinkedHashMap<>();
+            for (MotivationalQuotesModel entity : repository.findAll(Sort.by("id"))) {
+                MotivationalQuoteDto dto = new MotivationalQuoteDto(entity.getId(), entity.getQuote(),
+                        entity.getAuthor(), entity.getType(), entity.getCreated_at());
+                all.add(dto);
+                byId.put(dto.getId(), dto);
+                if (dto.getType() != null) {
+                    byType.computeIfAbsent(typeKey(dto.getType()), t -> new ArrayList<>()).add(dto);
+                }
+            }
+            byType.replaceAll((type, quotes) -> Collections.unmodifiableList(quotes));
+            snapshot = new Snapshot(Collections.unmodifiableList(all), Collections.unmodifiableMap(byId),
+                    Collections.unmodifiableMap(byType), objectMapper.writeValueAsString(all), version);
+        } catch (JsonProcessingException e) {
+            logger.warn("Failed to serialize quote catalog: {}", e.getMessage());
+        } catch (Exception e) {
+            // Keep serving the previous snapshot
+            logger.warn("Failed to load quote catalog: {}", e.getMessage());
+        }
+    }
+
+    public List<MotivationalQuoteDto> all() {
+        return current().all();
+    }
+
+    // The full catalog, serialized once per load, and the ETag of the same snapshot
+    public SerializedCatalog serialized() {
+        Snapshot current = current();
+        return new SerializedCatalog(current.allJson(),
+                collectionVersionService.eTag(CollectionVersionService.QUOTES, null, current.version()));
+    }
+
+    public Optional<MotivationalQuoteDto> byId(Long id) {
+        return Optional.ofNullable(current().byId().get(id));
+    }
+
+    public List<MotivationalQuoteDto> byType(String type) {
+        return current().byType().getOrDefault(typeKey(type), List.of());
+    }
+
+    // Uniformly random quote, optionally of one type
+    public Optional<MotivationalQuoteDto> random(String type) {
+        List<MotivationalQuoteDto> pool = type != null ? byType(type) : current().all();
+        if (pool.isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(pool.get(ThreadLocalRandom.current().nextInt(pool.size())));
+    }
+
+    // Same quote for a user all day (UTC), different users and days spread across the catalog
+    public Optional<MotivationalQuoteDto> quoteOfTheDay(long userId, LocalDate day) {
+        List<MotivationalQuoteDto> all = current().all();
+        if (all.isEmpty()) {
+            return Optional.empty();
+        }
+        long seed = mix(userId * 0x9E3779B97F4A7C15L + day.toEpochDay());
+        return Optional.of(all.get((int) Math.floorMod(seed, (long) all.size())));
+    }
+
+    public Optional<MotivationalQuoteDto> quoteOfTheDay(long userId) {
+        return quoteOfTheDay(userId, LocalDate.now(ZoneOffset.UTC));
+    }
+
+    // Requests that arrive before ApplicationReadyEvent load the catalog themselves, once;
+    // after a failed load the version check keeps retrying
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        if (current == Snapshot.EMPTY && !loadAttempted) {
+            reload();
+            return snapshot;
+        }
+        return current;
+    }
+
+    private static String typeKey(String type) {
+        return type.trim().toLowerCase();
+    }
+
+    // 64-bit finalizer from MurmurHash3, so neighbouring users/days land far apart
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,221 @@
+package com.jalennorris.server.service;
+
+import com.jalennorris.server.Repository.ScheduleRepository;
+import com.jalennorris.server.dto.ReminderDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.PriorityBlockingQueue;
+
+/**
+ * Fires reminders for schedule entries when their scheduled time arrives.
+ *
+ * A loader claims entries due within a short lookahead window from the database and keeps them
+ * in a priority queue ordered by due time; a dispatcher drains whatever is due and sends it in
+ * batches. Only the window is ever in memory and the queue is capped, so memory stays bounded
+ * no matter how large the table grows. Claims use SKIP LOCKED, so several nodes split the work,
+ * and expire after a lease so entries held by a node that died are claimed again. Delivery is
+ * at least once: an entry is only marked sent after the push service reports Expo accepted it,
+ * so a reminder lost in the push queue, refused or failed is sent again once its lease expires,
+ * and a node that dies between acceptance and marking repeats it. Each queued copy carries the
+ * claim stamp it was claimed under; rescheduling or deleting the entry resets that claim, so a
+ * stale copy is dropped before sending and never marks the rescheduled row as sent.
+ */
+@Service
+public class ReminderEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReminderEngine.class);
+
+    private final ScheduleRepository scheduleRepository;
+    private final PushNotificationService pushNotificationService;
+
+    private final PriorityBlockingQueue<ReminderDTO> queue =
+            new PriorityBlockingQueue<>(1024, Comparator.comparing(ReminderDTO::getScheduledTime));
+
+    // Entries Expo has accepted (or that had no token), waiting to be marked sent by the dispatcher
+    private final ConcurrentLinkedQueue<ReminderDTO> confirmed = new ConcurrentLinkedQueue<>();
+
+    private final boolean enabled;
+    private final long lookaheadMs;
+    private final long leaseMs;
+    private final long maxLatenessMs;
+    private final int claimBatchSize;
+    private final int dispatchBatchSize;
+    private final int queueCapacity;
+
+    private final Counter claimedCounter;
+    private final Counter sentCounter;
+    private final Counter skippedCounter;
+    private final Counter staleCounter;
+    private final Counter failedCounter;
+
+    @Autowired
+    public ReminderEngine(ScheduleRepository scheduleRepository, PushNotificationService pushNotificationService,
+                          MeterRegistry meterRegistry,
+                          @Value("${reminders.enabled:true}") boolean enabled,
+                          @Value("${reminders.lookahead-ms:60000}") long lookaheadMs,
+                          @Value("${reminders.lease-ms:300000}") long leaseMs,
+                          @Value("${reminders.max-lateness-ms:900000}") long maxLatenessMs,
+                          @Value("${reminders.claim-batch-size:2000}") int claimBatchSize,
+                          @Value("${reminders.dispatch-batch-size:500}") int dispatchBatchSize,
+                          @Value("${reminders.queue-capacity:20000}") int queueCapacity) {
+        this.scheduleRepository = scheduleRepository;
+        this.pushNotificationService = pushNotificationService;
+        this.enabled = enabled;
+        this.lookaheadMs = lookaheadMs;
+        this.leaseMs = leaseMs;
+        this.maxLatenessMs = maxLatenessMs;
+        this.claimBatchSize = claimBatchSize;
+        this.dispatchBatchSize = dispatchBatchSize;
+        this.queueCapacity = queueCapacity;
+        this.claimedCounter = Counter.builder("reminders.claimed")
+                .description("Reminders claimed from the schedule table")
+                .register(meterRegistry);
+        this.sentCounter = Counter.builder("reminders.sent")
+                .description("Reminders accepted by Expo")
+                .register(meterRegistry);
+        this.skippedCounter = Counter.builder("reminders.skipped")
+                .description("Reminders dropped because the user has no push token")
+                .register(meterRegistry);
+        this.staleCounter = Counter.builder("reminders.stale")
+                .description("Queued reminders dropped because their entry was rescheduled or deleted after the claim")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("reminders.failed")
+                .description("Reminders refused by a full push queue or not accepted by Expo; retried once the claim lease expires")
+                .register(meterRegistry);
+        Gauge.builder("reminders.queue.size", queue, PriorityBlockingQueue::size)
+                .description("Claimed reminders waiting for their due time")
+                .register(meterRegistry);
+    }
+
+    // Claim entries due within the lookahead window, as far as the queue has room
+    @Scheduled(fixedDelayString = "${reminders.poll-interval-ms:1000}")
+    public void loadDueWindow() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            int room = queueCapacity - queue.size();
+            while (room > 0) {
+                long now = System.currentTimeMillis();
+                int limit = Math.min(claimBatchSize, room);
+                // Entries missed by more than maxLateness (e.g. while the service was down) are not sent late
+                List<ReminderDTO> claimed = scheduleRepository.claimDueReminders(
+                        new Date(now - maxLatenessMs), new Date(now + lookaheadMs),
+                        new Date(now - leaseMs), new Date(now), limit);
+                queue.addAll(claimed);
+                claimedCounter.increment(claimed.size());
+                room -= claimed.size();
+                if (claimed.size() < limit) {
+                    break;
+                }
+            }
+        } catch (Exception e) {
+            logger.warn("Failed to claim due reminders: {}", e.getMessage());
+        }
+    }
+
+    // Send every queued reminder whose time has come, in batches
+    @Scheduled(fixedDelayString = "${reminders.dispatch-interval-ms:200}")
+    public void dispatchDue() {
+        if (!enabled) {
+            return;
+        }
+        List<ReminderDTO> batch;
+        while (!(batch = drainDue(System.currentTimeMillis())).isEmpty()) {
+            dispatch(batch);
+        }
+        markConfirmedSent();
+    }
+
+    private List<ReminderDTO> drainDue(long now) {
+        List<ReminderDTO> batch = new ArrayList<>();
+        while (batch.size() < dispatchBatchSize) {
+            ReminderDTO head = queue.peek();
+            if (head == null || head.getScheduledTime().getTime() > now) {
+                break;
+            }
+            ReminderDTO polled = queue.poll();
+            if (polled != null) {
+                batch.add(polled);
+            }
+        }
+        return batch;
+    }
+
+    private void dispatch(List<ReminderDTO> batch) {
+        Set<Long> stillClaimed;
+        try {
+            stillClaimed = new HashSet<>(scheduleRepository.findStillClaimed(batch));
+        } catch (Exception e) {
+            // Leave the batch claimed; the lease expiry hands it out again
+            logger.warn("Failed to recheck {} reminder claims: {}", batch.size(), e.getMessage());
+            failedCounter.increment(batch.size());
+            return;
+        }
+        for (ReminderDTO reminder : batch) {
+            long scheduleId = reminder.getScheduleId();
+            if (!stillClaimed.contains(scheduleId)) {
+                staleCounter.increment();
+                continue;
+            }
+            if (reminder.getPushToken() == null || reminder.getPushToken().isEmpty()) {
+                skippedCounter.increment();
+                confirmed.add(reminder);
+                continue;
+            }
+            String taskName = reminder.getTaskName() != null ? reminder.getTaskName() : "your task";
+            boolean queued = pushNotificationService.enqueue(PushNotificationService.message(
+                    reminder.getPushToken(),
+                    "Reminder",
+                    "It's time for " + taskName,
+                    Map.of("scheduleId", scheduleId, "taskId", reminder.getTaskId())),
+                    accepted -> {
+                        if (accepted) {
+                            sentCounter.increment();
+                            confirmed.add(reminder);
+                        } else {
+                            // Leave it claimed; the lease expiry hands it out again
+                            failedCounter.increment();
+                        }
+                    });
+            if (!queued) {
+                failedCounter.increment();
+            }
+        }
+    }
+
+    // Mark everything confirmed so far as sent in one UPDATE, under the claims it was sent for.
+    // If that fails the entries stay claimed and are sent again after the lease, which keeps
+    // delivery at least once.
+    void markConfirmedSent() {
+        List<ReminderDTO> done = new ArrayList<>();
+        ReminderDTO reminder;
+        while ((reminder = confirmed.poll()) != null) {
+            done.add(reminder);
+        }
+        if (done.isEmpty()) {
+            return;
+        }
+        try {
+            scheduleRepository.markRemindersSent(done, new Date());
+        } catch (Exception e) {
+            logger.warn("Failed to mark {} reminders as sent: {}", done.size(), e.getMessage());
+        }
+    }
+}
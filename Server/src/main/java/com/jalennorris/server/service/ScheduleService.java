@@ -1,24 +1,76 @@
 package com.jalennorris.server.service;
 
 import com.jalennorris.server.Models.ScheduleModels;
+import com.jalennorris.server.config.CacheConfig;
+import com.jalennorris.server.dto.PageResponse;
 import com.jalennorris.server.dto.ScheduleDTO;
 import com.jalennorris.server.Repository.ScheduleRepository;
-import org.springframework.cache.annotation.Cacheable;
-import org.springframework.cache.annotation.CacheEvict;
+import com.jalennorris.server.query.KeysetQueryExecutor;
+import com.jalennorris.server.query.ListQuery;
+import com.jalennorris.server.query.QueryDefinition;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
+/**
+ * Schedule reads are cached in two Redis caches: single entries by id, and user window pages
+ * under a key that embeds the user's schedule version. The cache is consulted inside the async
+ * method body, so resolved DTOs are cached rather than futures. Writes evict the affected item
+ * and bump the version of every user they touch, which retires that user's window pages only.
+ * Both go through the outbox with the change, so they only happen once it has committed and
+ * survive a Redis blip.
+ */
 @Service
 public class ScheduleService {
 
+    private static final Logger logger = LoggerFactory.getLogger(ScheduleService.class);
+
+    // Filters and sorts GET /api/schedules accepts
+    public static final QueryDefinition<ScheduleModels> LIST_QUERY = QueryDefinition
+            .builder(ScheduleModels.class, "scheduleId", Long.class)
+            .filter("userId", "userId", Long.class, QueryDefinition.EQUALITY)
+            .filter("taskId", "taskId", Long.class, QueryDefinition.EQUALITY)
+            .filter("scheduledTime", "scheduled_time", Date.class, QueryDefinition.RANGE)
+            .sort("scheduledTime", "scheduled_time", Date.class, new Date(253370764800000L)) // 9999-01-01
+            .sizes(50, 200)
+            .build();
+
     private final ScheduleRepository scheduleRepository;
+    private final CacheManager cacheManager;
+    private final CollectionVersionService collectionVersionService;
+    private final MeterRegistry meterRegistry;
+    private final OutboxService outboxService;
+    private final TransactionTemplate transactionTemplate;
+    private final KeysetQueryExecutor keysetQueryExecutor;
 
-    public ScheduleService(ScheduleRepository scheduleRepository) {
+    public ScheduleService(ScheduleRepository scheduleRepository, CacheManager cacheManager,
+                           CollectionVersionService collectionVersionService, MeterRegistry meterRegistry,
+                           OutboxService outboxService, TransactionTemplate transactionTemplate,
+                           KeysetQueryExecutor keysetQueryExecutor) {
         this.scheduleRepository = scheduleRepository;
+        this.cacheManager = cacheManager;
+        this.collectionVersionService = collectionVersionService;
+        this.meterRegistry = meterRegistry;
+        this.outboxService = outboxService;
+        this.transactionTemplate = transactionTemplate;
+        this.keysetQueryExecutor = keysetQueryExecutor;
     }
 
     // Convert ScheduleModels to ScheduleDTO
@@ -39,59 +91,197 @@ public class ScheduleService {
                 .collect(Collectors.toList());
     }
 
-    // Get all schedules asynchronously and return a List of ScheduleDTO
+    // One keyset page of schedules for a parsed LIST_QUERY request; not cached, a global list
+    // is invalidated by every write
     @Async
-    @Cacheable(value = "schedules")
-    public CompletableFuture<List<ScheduleDTO>> getAllSchedules() {
-        List<ScheduleModels> schedules = scheduleRepository.findAll();
-        List<ScheduleDTO> scheduleDTOs = convertToDTOList(schedules);
-        return CompletableFuture.completedFuture(scheduleDTOs);
+    public CompletableFuture<PageResponse<ScheduleDTO>> listSchedules(ListQuery query) {
+        return CompletableFuture.completedFuture(
+                keysetQueryExecutor.page(LIST_QUERY, query, Map.of()).map(this::convertToDTO));
     }
 
     // Get a schedule by ID asynchronously and return a ScheduleDTO
     @Async
-    @Cacheable(value = "schedules", key = "#id")
     public CompletableFuture<ScheduleDTO> getScheduleById(long id) {
-        ScheduleModels schedule = scheduleRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Schedule not found with ID: " + id));
-        ScheduleDTO scheduleDTO = convertToDTO(schedule);
+        ScheduleDTO scheduleDTO = cached(CacheConfig.SCHEDULE_ITEM_CACHE, id, ScheduleDTO.class, () -> {
+            ScheduleModels schedule = scheduleRepository.findById(id)
+                    .orElseThrow(() -> new RuntimeException("Schedule not found with ID: " + id));
+            return convertToDTO(schedule);
+        });
         return CompletableFuture.completedFuture(scheduleDTO);
     }
 
+    // Get one keyset page of a user's schedule entries in [from, to), ordered by scheduled time
+    @Async
+    @SuppressWarnings("unchecked")
+    public CompletableFuture<PageResponse<ScheduleDTO>> getSchedulesInWindow(long userId, Date from, Date to,
+                                                                             Date afterTime, Long afterId, int size) {
+        Supplier<PageResponse<ScheduleDTO>> loader = () -> loadWindowPage(userId, from, to, afterTime, afterId, size);
+
+        // Without a version there is nothing to invalidate the page with, so skip the cache
+        String version = collectionVersionService.currentETag(CollectionVersionService.SCHEDULES_BY_USER, userId);
+        if (version == null) {
+            return CompletableFuture.completedFuture(loader.get());
+        }
+        String key = userId + ":" + version + ":" + from.getTime() + ":" + to.getTime() + ":"
+                + (afterTime != null ? encodeCursor(afterTime, afterId) : "") + ":" + size;
+        PageResponse<ScheduleDTO> page = cached(CacheConfig.SCHEDULE_WINDOW_CACHE, key, PageResponse.class, loader::get);
+        return CompletableFuture.completedFuture(page);
+    }
+
+    private PageResponse<ScheduleDTO> loadWindowPage(long userId, Date from, Date to,
+                                                     Date afterTime, Long afterId, int size) {
+        // Without a cursor, (from, -1) admits every row at or after the window start
+        Date startTime = afterTime != null ? afterTime : from;
+        long startId = afterId != null ? afterId : -1L;
+
+        // Fetch one extra row to learn whether another page exists
+        List<ScheduleModels> rows = scheduleRepository.findWindowPage(
+                userId, from, to, startTime, startId, PageRequest.of(0, size + 1));
+        boolean hasMore = rows.size() > size;
+        if (hasMore) {
+            rows = rows.subList(0, size);
+        }
+
+        String nextCursor = null;
+        if (hasMore) {
+            ScheduleModels last = rows.get(rows.size() - 1);
+            nextCursor = encodeCursor(last.getScheduled_time(), last.getScheduleId());
+        }
+        return new PageResponse<>(convertToDTOList(rows), size, hasMore, null, nextCursor);
+    }
+
+    // Cursor format: "<scheduledTimeMillis>_<scheduleId>"
+    public static String encodeCursor(Date scheduledTime, long scheduleId) {
+        return scheduledTime.getTime() + "_" + scheduleId;
+    }
+
+    // Parse a cursor produced by encodeCursor into {scheduledTimeMillis, scheduleId}
+    public static long[] decodeCursor(String cursor) {
+        String[] parts = cursor.split("_", 2);
+        if (parts.length != 2) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+        try {
+            return new long[]{Long.parseLong(parts[0]), Long.parseLong(parts[1])};
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+    }
+
     // Create a new schedule asynchronously and return a ScheduleDTO
     @Async
-    @CacheEvict(value = "schedules", allEntries = true)
     public CompletableFuture<ScheduleDTO> createSchedule(ScheduleModels newSchedule) {
-        ScheduleModels createdSchedule = scheduleRepository.save(newSchedule);
+        ScheduleModels createdSchedule = transactionTemplate.execute(status -> {
+            ScheduleModels saved = scheduleRepository.save(newSchedule);
+            bumpWindows(saved.getUserId());
+            return saved;
+        });
         ScheduleDTO scheduleDTO = convertToDTO(createdSchedule);
         return CompletableFuture.completedFuture(scheduleDTO);
     }
 
     // Update a schedule by ID asynchronously and return a ScheduleDTO
     @Async
-    @CacheEvict(value = "schedules", key = "#id")
     public CompletableFuture<ScheduleDTO> updateSchedule(long id, ScheduleModels updatedSchedule) {
-        return CompletableFuture.supplyAsync(() -> {
-            ScheduleModels existingSchedule = scheduleRepository.findById(id)
+        ScheduleModels existingSchedule = transactionTemplate.execute(status -> {
+            ScheduleModels schedule = scheduleRepository.findById(id)
                     .orElseThrow(() -> new RuntimeException("Schedule not found with ID: " + id));
-            existingSchedule.setUserId(updatedSchedule.getUserId());
-            existingSchedule.setTaskId(updatedSchedule.getTaskId());
-            existingSchedule.setTimeStamp(updatedSchedule.getTimeStamp());
-            existingSchedule.setScheduled_time(updatedSchedule.getScheduled_time());
-            scheduleRepository.save(existingSchedule);
-            return convertToDTO(existingSchedule);
+            long previousUserId = schedule.getUserId();
+            if (!Objects.equals(schedule.getScheduled_time(), updatedSchedule.getScheduled_time())) {
+                // Rescheduled: the reminder fires again at the new time
+                schedule.setReminderClaimedAt(null);
+                schedule.setReminderSentAt(null);
+            }
+            schedule.setUserId(updatedSchedule.getUserId());
+            schedule.setTaskId(updatedSchedule.getTaskId());
+            schedule.setTimeStamp(updatedSchedule.getTimeStamp());
+            schedule.setScheduled_time(updatedSchedule.getScheduled_time());
+            scheduleRepository.save(schedule);
+
+            outboxService.appendCacheEvict(itemCacheKey(id), null);
+            bumpWindows(previousUserId);
+            if (schedule.getUserId() != previousUserId) {
+                // Moved to another user: both users' windows changed
+                bumpWindows(schedule.getUserId());
+            }
+            return schedule;
         });
+
+        return CompletableFuture.completedFuture(convertToDTO(existingSchedule));
     }
 
     // Delete a schedule by ID asynchronously
     @Async
-    @CacheEvict(value = "schedules", key = "#id")
     public CompletableFuture<Void> deleteSchedule(long id) {
-        return CompletableFuture.runAsync(() -> {
-            if (!scheduleRepository.existsById(id)) {
-                throw new RuntimeException("Schedule not found with ID: " + id);
-            }
-            scheduleRepository.deleteById(id);
+        transactionTemplate.executeWithoutResult(status -> {
+            ScheduleModels existingSchedule = scheduleRepository.findById(id)
+                    .orElseThrow(() -> new RuntimeException("Schedule not found with ID: " + id));
+            scheduleRepository.delete(existingSchedule);
+
+            outboxService.appendCacheEvict(itemCacheKey(id), "schedule-deleted:" + id);
+            bumpWindows(existingSchedule.getUserId());
         });
+
+        return CompletableFuture.completedFuture(null);
+    }
+
+    // Delete a task's entries as part of the caller's task delete transaction. The schema would
+    // cascade them, but doing it here queues the item evictions and retires the users' window pages
+    // with the delete. Returns the number of entries removed.
+    public int deleteForTask(long taskId) {
+        List<long[]> deleted = scheduleRepository.deleteByTaskId(taskId);
+        Set<Long> userIds = new HashSet<>();
+        for (long[] row : deleted) {
+            outboxService.appendCacheEvict(itemCacheKey(row[0]), "schedule-deleted:" + row[0]);
+            userIds.add(row[1]);
+        }
+        userIds.forEach(this::bumpWindows);
+        return deleted.size();
+    }
+
+    // Read-through lookup that records a hit/miss per cache; cache failures fall back to the loader
+    private <T> T cached(String cacheName, Object key, Class<T> type, Supplier<T> loader) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null) {
+            try {
+                T value = cache.get(key, type);
+                if (value != null) {
+                    recordLookup(cacheName, "hit");
+                    return value;
+                }
+            } catch (RuntimeException e) {
+                logger.warn("Cache read failed for {}::{}: {}", cacheName, key, e.getMessage());
+            }
+        }
+        recordLookup(cacheName, "miss");
+        T value = loader.get();
+        if (cache != null) {
+            try {
+                cache.put(key, value);
+            } catch (RuntimeException e) {
+                logger.warn("Cache write failed for {}::{}: {}", cacheName, key, e.getMessage());
+            }
+        }
+        return value;
+    }
+
+    private void recordLookup(String cacheName, String result) {
+        Counter.builder("schedule.cache.lookups")
+                .description("Schedule cache lookups by cache and result")
+                .tag("cache", cacheName)
+                .tag("result", result)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    // Retire a user's window pages once the caller's transaction commits; a bump before commit
+    // would let a concurrent read cache the old rows under the new version
+    private void bumpWindows(long userId) {
+        outboxService.appendVersionBump(CollectionVersionService.SCHEDULES_BY_USER, userId, null);
+    }
+
+    // Redis key RedisCacheManager stores an item under
+    private String itemCacheKey(long id) {
+        return CacheConfig.SCHEDULE_ITEM_CACHE + "::" + id;
     }
-}
\ No newline at end of file
+}
@@ -1,63 +1,314 @@
 package com.jalennorris.server.service;
 
 import com.jalennorris.server.Models.SubTaskModels;
+import com.jalennorris.server.Models.TasksModels;
 import com.jalennorris.server.Repository.SubTaskRepository;
+import com.jalennorris.server.Repository.TasksRepository;
+import com.jalennorris.server.dto.PageResponse;
+import com.jalennorris.server.dto.SubTaskDTO;
+import com.jalennorris.server.query.KeysetQueryExecutor;
+import com.jalennorris.server.query.ListQuery;
+import com.jalennorris.server.query.Projection;
+import com.jalennorris.server.query.QueryDefinition;
+import jakarta.persistence.EntityNotFoundException;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 @Service
 public class SubTaskService {
 
+    // Keeps IN (...) lists well below the driver's bind parameter limit
+    private static final int IN_CLAUSE_CHUNK = 1000;
+
+    // Largest number of subtasks accepted by one batch request
+    private static final int MAX_BATCH_SIZE = 100;
+
+    // Filters and sorts the per-task subtask listings accept; default is display order,
+    // unpositioned rows last
+    public static final QueryDefinition<SubTaskModels> LIST_QUERY = QueryDefinition
+            .builder(SubTaskModels.class, "id", Long.class)
+            .filter("completed", "completed", Boolean.class, QueryDefinition.EQUALITY)
+            .sort("position", "position", Integer.class, Integer.MAX_VALUE)
+            .defaultSort("position", false)
+            .build();
+
+    // Filters and sorts GET /api/subtasks accepts, oldest first: positions only order subtasks within one task
+    public static final QueryDefinition<SubTaskModels> USER_LIST_QUERY = QueryDefinition
+            .builder(SubTaskModels.class, "id", Long.class)
+            .filter("taskId", "taskId", Long.class, QueryDefinition.EQUALITY)
+            .filter("completed", "completed", Boolean.class, QueryDefinition.EQUALITY)
+            .build();
+
+    // Listings read straight into DTOs instead of loading the entities
+    private static final Projection<SubTaskModels, SubTaskDTO> DTO_PROJECTION = new Projection<>() {
+        @Override
+        public List<Selection<?>> select(CriteriaBuilder cb, Root<SubTaskModels> root) {
+            return List.of(root.get("id"), root.get("title"), root.get("description"), root.get("completed"),
+                    root.get("taskId"), root.get("position"));
+        }
+
+        @Override
+        public SubTaskDTO item(Tuple row) {
+            return new SubTaskDTO(row.get(0, Long.class), row.get(1, String.class), row.get(2, String.class),
+                    row.get(3, Boolean.class), row.get(4, Long.class), row.get(5, Integer.class));
+        }
+    };
+
     private final SubTaskRepository subTaskRepository;
+    private final TasksRepository tasksRepository;
+    private final OutboxService outboxService;
+    private final KeysetQueryExecutor keysetQueryExecutor;
 
     @Autowired
-    public SubTaskService(SubTaskRepository subTaskRepository) {
+    public SubTaskService(SubTaskRepository subTaskRepository, TasksRepository tasksRepository,
+                         OutboxService outboxService, KeysetQueryExecutor keysetQueryExecutor) {
         this.subTaskRepository = subTaskRepository;
+        this.tasksRepository = tasksRepository;
+        this.outboxService = outboxService;
+        this.keysetQueryExecutor = keysetQueryExecutor;
+    }
+
+    // One keyset page of a task's subtasks for a parsed LIST_QUERY request
+    public PageResponse<SubTaskModels> listSubTasks(Long taskId, ListQuery query) {
+        return keysetQueryExecutor.page(LIST_QUERY, query, Map.of("taskId", taskId));
+    }
+
+    // Same as listSubTasks as DTOs, for a task that must exist
+    public PageResponse<SubTaskDTO> listSubTaskDTOs(Long taskId, ListQuery query) {
+        requireTask(taskId);
+        return keysetQueryExecutor.page(LIST_QUERY, query, Map.of("taskId", taskId), DTO_PROJECTION);
+    }
+
+    // One keyset page of subtasks as DTOs for a parsed USER_LIST_QUERY request, of one user's tasks when
+    // userId is given
+    public PageResponse<SubTaskDTO> listAllSubTaskDTOs(Long userId, ListQuery query) {
+        Map<String, Object> scope = userId != null
+                ? Map.of("taskId", new KeysetQueryExecutor.In(TasksModels.class, "task_id", "userId", userId))
+                : Map.of();
+        return keysetQueryExecutor.page(USER_LIST_QUERY, query, scope, DTO_PROJECTION);
+    }
+
+    // Subtasks of a task as DTOs, in display order
+    public List<SubTaskDTO> getSubTaskDTOsByTaskId(Long taskId) {
+        requireTask(taskId);
+        return subTaskRepository.findByTaskIdOrdered(taskId).stream()
+                .map(this::toDTO)
+                .collect(Collectors.toList());
+    }
+
+    // A subtask, only if it belongs to the given task
+    public Optional<SubTaskModels> getSubTaskForTask(Long taskId, Long subtaskId) {
+        return subTaskRepository.findById(subtaskId)
+                .filter(subTask -> taskId.equals(subTask.getTaskId()));
+    }
+
+    // Create many subtasks for a task with a single INSERT (e.g. an AI-generated breakdown)
+    @Transactional
+    public List<SubTaskDTO> createSubTasksBatch(Long taskId, List<SubTaskDTO> subTasks) {
+        lockTask(taskId);
+        if (subTasks == null || subTasks.isEmpty()) {
+            throw new IllegalArgumentException("At least one subtask is required");
+        }
+        if (subTasks.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("A batch may contain at most " + MAX_BATCH_SIZE + " subtasks");
+        }
+        List<SubTaskModels> entities = new ArrayList<>(subTasks.size());
+        for (SubTaskDTO dto : subTasks) {
+            if (dto.getTitle() == null || dto.getTitle().isBlank()) {
+                throw new IllegalArgumentException("Subtask title must not be null or empty");
+            }
+            entities.add(new SubTaskModels(null, dto.getTitle(),
+                    dto.getDescription() != null ? dto.getDescription() : "", dto.isCompleted(), taskId));
+        }
+        List<SubTaskDTO> created = subTaskRepository.insertBatch(taskId, entities).stream()
+                .map(this::toDTO)
+                .collect(Collectors.toList());
+        int done = (int) created.stream().filter(SubTaskDTO::isCompleted).count();
+        adjustCounters(taskId, created.size(), done);
+        return created;
+    }
+
+    // Mark several subtasks of a task completed/uncompleted in one UPDATE; returns the number changed
+    @Transactional
+    public int setSubTasksCompleted(Long taskId, List<Long> subtaskIds, boolean completed) {
+        requireTask(taskId);
+        if (subtaskIds == null || subtaskIds.isEmpty()) {
+            return 0;
+        }
+        int updated = subTaskRepository.updateCompleted(taskId, new HashSet<>(subtaskIds), completed);
+        adjustCounters(taskId, 0, completed ? updated : -updated);
+        return updated;
+    }
+
+    // Reorder a task's subtasks with one UPDATE. subtaskIds must list every subtask of the task
+    // exactly once, so the new positions 0..n-1 can't collide with rows left out; the task lock
+    // keeps concurrent reorders and creates from interleaving with the count check
+    @Transactional
+    public void reorderSubTasks(Long taskId, List<Long> subtaskIds) {
+        lockTask(taskId);
+        if (subtaskIds == null || subtaskIds.isEmpty()) {
+            throw new IllegalArgumentException("subtaskIds must not be empty");
+        }
+        if (new HashSet<>(subtaskIds).size() != subtaskIds.size()) {
+            throw new IllegalArgumentException("subtaskIds must not contain duplicates");
+        }
+        if (subTaskRepository.countByTaskId(taskId) != subtaskIds.size()) {
+            throw new IllegalArgumentException("subtaskIds must list every subtask of task " + taskId);
+        }
+        int updated = subTaskRepository.reorder(taskId, subtaskIds);
+        if (updated != subtaskIds.size()) {
+            // Rolls back the partial update
+            throw new IllegalArgumentException("Some subtaskIds do not belong to task " + taskId);
+        }
+        bumpVersion(CollectionVersionService.SUBTASKS_BY_TASK, taskId);
     }
 
-    public List<SubTaskModels> getSubTasksByTaskId(Long taskId) {
-        return subTaskRepository.findByTaskId(taskId);
+    // Subtasks of many tasks grouped by task ID, loaded with one IN query per chunk of task IDs
+    public Map<Long, List<SubTaskDTO>> getSubTasksByTaskIds(Collection<Long> taskIds) {
+        Map<Long, List<SubTaskDTO>> byTaskId = new HashMap<>();
+        List<Long> ids = new ArrayList<>(taskIds);
+        for (int start = 0; start < ids.size(); start += IN_CLAUSE_CHUNK) {
+            List<Long> chunk = ids.subList(start, Math.min(start + IN_CLAUSE_CHUNK, ids.size()));
+            for (SubTaskModels subTask : subTaskRepository.findByTaskIdInOrdered(chunk)) {
+                byTaskId.computeIfAbsent(subTask.getTaskId(), k -> new ArrayList<>()).add(toDTO(subTask));
+            }
+        }
+        return byTaskId;
     }
 
     public Optional<SubTaskModels> getSubTaskById(Long id) {
         return subTaskRepository.findById(id);
     }
 
+    @Transactional
     public SubTaskModels saveSubTask(SubTaskModels subTask) {
-        return subTaskRepository.save(subTask);
+        if (subTask.getPosition() == null && subTask.getTaskId() != null) {
+            lockTask(subTask.getTaskId());
+            subTask.setPosition(subTaskRepository.findMaxPosition(subTask.getTaskId()) + 1);
+        }
+        SubTaskModels saved = subTaskRepository.save(subTask);
+        adjustCounters(saved.getTaskId(), 1, saved.isCompleted() ? 1 : 0);
+        return saved;
     }
 
+    @Transactional
     public void deleteSubTask(Long id) {
-        subTaskRepository.deleteById(id);
+        subTaskRepository.findById(id).ifPresent(subTask -> {
+            subTaskRepository.delete(subTask);
+            adjustCounters(subTask.getTaskId(), -1, subTask.isCompleted() ? -1 : 0);
+        });
     }
 
+    @Transactional
     public SubTaskModels updateSubTask(Long id, SubTaskModels updatedSubTask) {
         return subTaskRepository.findById(id).map(subTask -> {
             subTask.setTitle(updatedSubTask.getTitle());
             subTask.setDescription(updatedSubTask.getDescription());
+            Long previousTaskId = subTask.getTaskId();
+            boolean previousCompleted = subTask.isCompleted();
             subTask.setCompleted(updatedSubTask.isCompleted());
             subTask.setTaskId(updatedSubTask.getTaskId());
             // ...add other fields as needed...
-            return subTaskRepository.save(subTask);
+            SubTaskModels saved = subTaskRepository.save(subTask);
+            applyMove(previousTaskId, previousCompleted, saved.getTaskId(), saved.isCompleted());
+            return saved;
         }).orElseThrow(() -> new RuntimeException("SubTask not found"));
     }
 
-    public SubTaskModels patchSubTask(Long id, SubTaskModels patch) {
+    // Only fields present in the patch change; a patch without "completed" leaves the flag alone
+    @Transactional
+    public SubTaskModels patchSubTask(Long id, Map<String, Object> patch) {
         return subTaskRepository.findById(id).map(subTask -> {
-            if (patch.getTitle() != null) subTask.setTitle(patch.getTitle());
-            if (patch.getDescription() != null) subTask.setDescription(patch.getDescription());
-            if (patch.getTaskId() != null) subTask.setTaskId(patch.getTaskId());
-            // For boolean, check for boxed type if needed
-            if (patch.isCompleted() != subTask.isCompleted()) subTask.setCompleted(patch.isCompleted());
+            Long previousTaskId = subTask.getTaskId();
+            boolean previousCompleted = subTask.isCompleted();
+            if (patch.get("title") != null) subTask.setTitle(patchValue(patch, "title", String.class));
+            if (patch.get("description") != null) subTask.setDescription(patchValue(patch, "description", String.class));
+            if (patch.get("taskId") != null) subTask.setTaskId(patchValue(patch, "taskId", Number.class).longValue());
+            if (patch.get("completed") != null) subTask.setCompleted(patchValue(patch, "completed", Boolean.class));
             // ...add other fields as needed...
-            return subTaskRepository.save(subTask);
+            SubTaskModels saved = subTaskRepository.save(subTask);
+            applyMove(previousTaskId, previousCompleted, saved.getTaskId(), saved.isCompleted());
+            return saved;
         }).orElseThrow(() -> new RuntimeException("SubTask not found"));
     }
 
-    public List<SubTaskModels> getAllSubTasks() {
-        return subTaskRepository.findAll();
+    // A PATCH field of the expected JSON type
+    private static <T> T patchValue(Map<String, Object> patch, String name, Class<T> type) {
+        Object value = patch.get(name);
+        if (!type.isInstance(value)) {
+            throw new IllegalArgumentException("Invalid value for " + name);
+        }
+        return type.cast(value);
+    }
+
+    public SubTaskDTO toDTO(SubTaskModels subTask) {
+        return new SubTaskDTO(
+                subTask.getId(),
+                subTask.getTitle(),
+                subTask.getDescription(),
+                subTask.isCompleted(),
+                subTask.getTaskId(),
+                subTask.getPosition()
+        );
+    }
+
+    private void requireTask(Long taskId) {
+        if (taskId == null || !tasksRepository.existsById(taskId)) {
+            throw new EntityNotFoundException("Task not found");
+        }
+    }
+
+    // Like requireTask, and holds the task row lock until commit so concurrent creates and reorders
+    // for the same task run one after the other instead of both reading the same MAX(position) or count
+    private void lockTask(Long taskId) {
+        if (taskId == null || tasksRepository.lockById(taskId) == null) {
+            throw new EntityNotFoundException("Task not found");
+        }
+    }
+
+    // Move a subtask's contribution from its old (task, completed) state to the new one
+    private void applyMove(Long previousTaskId, boolean previousCompleted, Long taskId, boolean completed) {
+        if (previousTaskId != null && !previousTaskId.equals(taskId)) {
+            adjustCounters(previousTaskId, -1, previousCompleted ? -1 : 0);
+            adjustCounters(taskId, 1, completed ? 1 : 0);
+        } else {
+            adjustCounters(taskId, 0, (completed ? 1 : 0) - (previousCompleted ? 1 : 0));
+        }
+    }
+
+    // Apply a counter delta to tasks.subtask_total/subtask_done in one UPDATE and bump list versions
+    private void adjustCounters(Long taskId, int totalDelta, int doneDelta) {
+        if (taskId == null) {
+            return;
+        }
+        bumpVersion(CollectionVersionService.SUBTASKS_BY_TASK, taskId);
+        if (totalDelta == 0 && doneDelta == 0) {
+            return;
+        }
+        tasksRepository.adjustSubTaskCounters(taskId, totalDelta, doneDelta);
+        // The counters are part of the task representation, both cached (getTaskById) and listed
+        outboxService.appendCacheEvict("tasks::" + taskId, null);
+        tasksRepository.findUserIdByTaskId(taskId)
+                .ifPresent(userId -> bumpVersion(CollectionVersionService.TASKS_BY_USER, userId));
+    }
+
+    // Bumps and evictions go through the outbox so they only happen once the caller's transaction
+    // has committed; earlier, a concurrent read could cache the old rows under the new version
+    private void bumpVersion(String collection, Long scopeId) {
+        outboxService.appendVersionBump(collection, scopeId, null);
     }
 }
@@ -1,44 +1,87 @@
 package com.jalennorris.server.service;
 
 import com.jalennorris.server.Models.TasksModels;
+import com.jalennorris.server.dto.PageResponse;
+import com.jalennorris.server.dto.SubTaskDTO;
 import com.jalennorris.server.dto.TasksDTO;
 import com.jalennorris.server.Repository.TasksRepository;
+import com.jalennorris.server.query.KeysetQueryExecutor;
+import com.jalennorris.server.query.ListQuery;
+import com.jalennorris.server.query.QueryDefinition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cache.annotation.Cacheable;
-import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 import java.util.Map;
+import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeParseException;
 
 @Service
 public class TaskService {
 
+    private static final Logger logger = LoggerFactory.getLogger(TaskService.class);
+
+    // Filters and sorts the task list endpoints accept; tasks without a deadline sort last
+    public static final QueryDefinition<TasksModels> LIST_QUERY = QueryDefinition
+            .builder(TasksModels.class, "task_id", Long.class)
+            .filter("userId", "userId", Long.class, QueryDefinition.EQUALITY)
+            .filter("status", "status", String.class, QueryDefinition.EQUALITY)
+            .filter("priority", "priority", String.class, QueryDefinition.EQUALITY)
+            .filter("category", "category", String.class, QueryDefinition.EQUALITY)
+            .filter("completed", "completed", Boolean.class, QueryDefinition.Op.EQ)
+            .filter("goalId", "goal_id", Long.class, QueryDefinition.EQUALITY)
+            .filter("deadline", "deadline", ZonedDateTime.class, QueryDefinition.RANGE)
+            .filter("createdAt", "created_at", ZonedDateTime.class, QueryDefinition.RANGE)
+            .filter("completedAt", "completed_at", ZonedDateTime.class, QueryDefinition.RANGE)
+            .sort("deadline", "deadline", ZonedDateTime.class, ZonedDateTime.of(9999, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC))
+            .sort("createdAt", "created_at", ZonedDateTime.class, ZonedDateTime.of(1970, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC))
+            .sizes(50, 200)
+            .build();
+
     private final TasksRepository tasksRepository;
-    private final StringRedisTemplate stringRedisTemplate;
+    private final CollectionVersionService collectionVersionService;
+    private final DailyTaskStatsService dailyTaskStatsService;
+    private final SubTaskService subTaskService;
+    private final OutboxService outboxService;
+    private final TransactionTemplate transactionTemplate;
+    private final KeysetQueryExecutor keysetQueryExecutor;
+    private final ScheduleService scheduleService;
 
     @Autowired
-    public TaskService(TasksRepository tasksRepository, StringRedisTemplate stringRedisTemplate) {
+    public TaskService(TasksRepository tasksRepository,
+                       CollectionVersionService collectionVersionService,
+                       DailyTaskStatsService dailyTaskStatsService,
+                       SubTaskService subTaskService,
+                       OutboxService outboxService,
+                       TransactionTemplate transactionTemplate,
+                       KeysetQueryExecutor keysetQueryExecutor,
+                       ScheduleService scheduleService) {
         this.tasksRepository = tasksRepository;
-        this.stringRedisTemplate = stringRedisTemplate;
+        this.collectionVersionService = collectionVersionService;
+        this.dailyTaskStatsService = dailyTaskStatsService;
+        this.subTaskService = subTaskService;
+        this.outboxService = outboxService;
+        this.transactionTemplate = transactionTemplate;
+        this.keysetQueryExecutor = keysetQueryExecutor;
+        this.scheduleService = scheduleService;
     }
 
+    // One keyset page of tasks for a parsed LIST_QUERY request, optionally limited to one user
     @Async
-    @Cacheable(value = "tasks")
-    public CompletableFuture<List<TasksDTO>> getAllTasks() {
-        // Fetch all tasks from the database and convert them to DTOs
-        return CompletableFuture.supplyAsync(() -> tasksRepository.findAll()
-                .stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList()));
+    public CompletableFuture<PageResponse<TasksDTO>> listTasks(Long userId, ListQuery query) {
+        Map<String, Object> scope = userId != null ? Map.of("userId", userId) : Map.of();
+        return CompletableFuture.completedFuture(
+                keysetQueryExecutor.page(LIST_QUERY, query, scope).map(this::convertToDTO));
     }
 
     @Async
@@ -51,37 +94,73 @@ public class TaskService {
         });
     }
 
-    // getting all tasks by userId
+    // Fetch a task with its subtasks (bypasses the "tasks" cache so the cached DTO stays unexpanded)
     @Async
-    public CompletableFuture<List<TasksDTO>> getTasksByUserId(long userId) {
-        // Fetch all tasks for a specific user ID
-        return CompletableFuture.supplyAsync(() -> {
-            List<TasksModels> tasks = tasksRepository.findByUserId(userId);
-            return tasks.stream()
-                    .map(this::convertToDTO)
-                    .collect(Collectors.toList());
-        });
+    public CompletableFuture<TasksDTO> getTaskWithSubTasks(long id) {
+        return CompletableFuture.completedFuture(tasksRepository.findById(id)
+                .map(this::convertToDTO)
+                .map(task -> {
+                    attachSubTasks(List.of(task));
+                    return task;
+                })
+                .orElse(null));
+    }
+
+    // Attach subtasks to a page of tasks with a single IN query instead of one query per task
+    public List<TasksDTO> attachSubTasks(List<TasksDTO> tasks) {
+        if (tasks == null || tasks.isEmpty()) {
+            return tasks;
+        }
+        Map<Long, List<SubTaskDTO>> subTasksByTaskId = subTaskService.getSubTasksByTaskIds(
+                tasks.stream().map(TasksDTO::getTaskId).collect(Collectors.toList()));
+        for (TasksDTO task : tasks) {
+            task.setSubtasks(subTasksByTaskId.getOrDefault(task.getTaskId(), List.of()));
+        }
+        return tasks;
+    }
+
+    // Full-text search over a user's task names, descriptions and notes, best matches first
+    @Async
+    public CompletableFuture<PageResponse<TasksDTO>> searchTasks(long userId, String query, int page, int size) {
+        String tsQuery = toPrefixTsQuery(query);
+        if (tsQuery.isEmpty()) {
+            return CompletableFuture.completedFuture(new PageResponse<>(List.of(), size, false, page, null));
+        }
+        // Fetch one extra row to know whether there is a next page without a COUNT(*)
+        List<TasksModels> matches = tasksRepository.searchByUserId(userId, tsQuery, size + 1, (long) page * size);
+        boolean hasMore = matches.size() > size;
+        List<TasksDTO> items = matches.stream()
+                .limit(size)
+                .map(this::convertToDTO)
+                .collect(Collectors.toList());
+        return CompletableFuture.completedFuture(new PageResponse<>(items, size, hasMore, page, null));
     }
 
     @Async
-    @CacheEvict(value = "tasks", allEntries = true)
     public CompletableFuture<TasksDTO> createTask(TasksModels task) {
         // Validate and save a new task, then convert it to a DTO
         return CompletableFuture.supplyAsync(() -> {
             validateTask(task);
-            TasksModels savedTask = tasksRepository.save(task);
+            updateCompletedAt(task, false);
+            TasksModels savedTask = transactionTemplate.execute(status -> {
+                TasksModels saved = tasksRepository.save(task);
+                evictTaskCaches(saved);
+                return saved;
+            });
+            collectionVersionService.bump(CollectionVersionService.TASKS_BY_USER, savedTask.getUser_id());
+            recordDailyStats(null, DailyTaskStatsService.Snapshot.of(savedTask));
             return convertToDTO(savedTask);
         });
     }
 
     @Async
-    @CacheEvict(value = "tasks", key = "#id")
     public CompletableFuture<TasksDTO> updateTask(long id, TasksModels task) {
         // Update an existing task by its ID
         return CompletableFuture.supplyAsync(() -> {
             Optional<TasksModels> existingTaskOptional = tasksRepository.findById(id);
             if (existingTaskOptional.isPresent()) {
                 TasksModels existingTask = existingTaskOptional.get();
+                DailyTaskStatsService.Snapshot before = DailyTaskStatsService.Snapshot.of(existingTask);
                 // Update fields
                 existingTask.setTask_name(task.getTask_name()); // Keep snake_case as in TasksModels
                 existingTask.setTask_description(task.getTask_description()); // Keep snake_case
@@ -94,21 +173,27 @@ public class TaskService {
                 existingTask.setCreated_at(task.getCreated_at()); // Keep snake_case
                 existingTask.setNotes(task.getNotes()); // Add handling for notes
                 validateTask(existingTask);
-                TasksModels updatedTask = tasksRepository.save(existingTask);
+                updateCompletedAt(existingTask, before.completed());
+                TasksModels updatedTask = transactionTemplate.execute(status -> {
+                    TasksModels saved = tasksRepository.save(existingTask);
+                    evictTaskCaches(saved);
+                    return saved;
+                });
+                collectionVersionService.bump(CollectionVersionService.TASKS_BY_USER, updatedTask.getUser_id());
+                recordDailyStats(before, DailyTaskStatsService.Snapshot.of(updatedTask));
                 return convertToDTO(updatedTask);
             }
             return null;
         });
     }
 
-    @Transactional
     @Async
-    @CacheEvict(value = "tasks", key = "#id")
     public CompletableFuture<TasksDTO> updateTask(long id, Map<String, Object> task) {
         // Update specific fields of a task using a map of key-value pairs
         return CompletableFuture.supplyAsync(() -> {
             TasksModels existingTask = tasksRepository.findById(id)
                     .orElseThrow(() -> new RuntimeException("Task not found"));
+            DailyTaskStatsService.Snapshot before = DailyTaskStatsService.Snapshot.of(existingTask);
 
             task.forEach((key, value) -> {
                 switch (key) {
@@ -199,50 +284,92 @@ public class TaskService {
                 }
             });
 
-            TasksModels updatedTask = tasksRepository.save(existingTask);
+            updateCompletedAt(existingTask, before.completed());
+            TasksModels updatedTask = transactionTemplate.execute(status -> {
+                TasksModels saved = tasksRepository.save(existingTask);
+                evictTaskCaches(saved);
+                return saved;
+            });
+            collectionVersionService.bump(CollectionVersionService.TASKS_BY_USER, updatedTask.getUser_id());
+            recordDailyStats(before, DailyTaskStatsService.Snapshot.of(updatedTask));
             return convertToDTO(updatedTask);
         });
     }
 
     @Async
-    @CacheEvict(value = "tasks", key = "#id")
     public CompletableFuture<Boolean> deleteTask(long id) {
         // Delete a task by its ID and evict related cache entries
         return CompletableFuture.supplyAsync(() -> {
-            Optional<TasksModels> taskOptional = tasksRepository.findById(id);
-            if (taskOptional.isPresent()) {
-                TasksModels task = taskOptional.get();
-                long userId = task.getUser_id(); // Retrieve the userId of the task
+            TasksModels task = transactionTemplate.execute(status -> {
+                Optional<TasksModels> taskOptional = tasksRepository.findById(id);
+                if (taskOptional.isEmpty()) {
+                    return null;
+                }
+                long userId = taskOptional.get().getUser_id(); // Retrieve the userId of the task
+                // Schedule entries go through ScheduleService so their cached items and window pages are
+                // retired; subtasks are removed by ON DELETE CASCADE (see schema.sql)
+                scheduleService.deleteForTask(id);
                 tasksRepository.deleteById(id);
 
-                // Explicitly evict cache for getTasksByUserId and all tasks
-                evictCache("tasks::" + userId); // Evict cache for getTasksByUserId
-                evictCache("tasks"); // Evict cache for all tasks
-
-                // Refresh the cache for getTasksByUserId to ensure no stale data
-                refreshTasksByUserIdCache(userId);
-
+                // Evictions for the task's own, per-user and all-tasks cache keys commit with the delete
+                evictCache("tasks::" + id, "task-deleted:" + id + ":tasks::" + id);
+                evictCache("tasks::" + userId, "task-deleted:" + id + ":tasks::" + userId);
+                evictCache("tasks", "task-deleted:" + id + ":tasks");
+                return taskOptional.get();
+            });
+            if (task != null) {
+                long userId = task.getUser_id();
+                // Bumped once the delete has committed, so a poller can't pair the new ETag with the old rows
+                collectionVersionService.bump(CollectionVersionService.TASKS_BY_USER, userId);
+                collectionVersionService.bump(CollectionVersionService.SUBTASKS_BY_TASK, id);
+                recordDailyStats(DailyTaskStatsService.Snapshot.of(task), null);
                 return true;
             }
             return false;
         });
     }
 
-    // Helper method to evict cache entries
-    private void evictCache(String cacheKey) {
-        stringRedisTemplate.convertAndSend("cacheEvictChannel", cacheKey);
-        stringRedisTemplate.delete(cacheKey); // Ensure the cache entry is deleted
+    // Turn free text into an AND of prefix terms ("weekly rep" -> "weekly:* & rep:*"), dropping tsquery operators
+    private String toPrefixTsQuery(String query) {
+        if (query == null) {
+            return "";
+        }
+        return Arrays.stream(query.toLowerCase().split("[^\\p{L}\\p{N}]+"))
+                .filter(term -> !term.isEmpty())
+                .limit(8)
+                .map(term -> term + ":*")
+                .collect(Collectors.joining(" & "));
     }
 
-    // Helper method to refresh cache for tasks by user ID
-    private void refreshTasksByUserIdCache(long userId) {
-        CompletableFuture.runAsync(() -> {
-            List<TasksModels> tasks = tasksRepository.findByUserId(userId);
-            List<TasksDTO> tasksDTOs = tasks.stream()
-                    .map(this::convertToDTO)
-                    .collect(Collectors.toList());
-            stringRedisTemplate.opsForValue().set("tasks::" + userId, tasksDTOs.toString());
-        });
+    // Stamp completed_at when a task becomes completed and clear it when it is reopened
+    private void updateCompletedAt(TasksModels task, boolean wasCompleted) {
+        if (task.isCompleted() && !wasCompleted) {
+            task.setCompleted_at(ZonedDateTime.now());
+        } else if (!task.isCompleted()) {
+            task.setCompleted_at(null);
+        }
+    }
+
+    // Helper method to keep the daily rollup in step; the nightly rebuild repairs any missed delta
+    private void recordDailyStats(DailyTaskStatsService.Snapshot before, DailyTaskStatsService.Snapshot after) {
+        try {
+            dailyTaskStatsService.recordChange(before, after);
+        } catch (Exception e) {
+            logger.warn("Failed to update daily task stats: {}", e.getMessage());
+        }
+    }
+
+    // Helper method to evict cache entries through the outbox, in the caller's transaction; the
+    // eviction runs as soon as that commits, and the relay repeats it if that attempt is lost
+    private void evictCache(String cacheKey, String idempotencyKey) {
+        outboxService.appendCacheEvict(cacheKey, idempotencyKey);
+    }
+
+    // Evict the task's own entry and its owner's list once the save commits, so a GET after the
+    // write reads the new row
+    private void evictTaskCaches(TasksModels task) {
+        evictCache("tasks::" + task.getTask_id(), null);
+        evictCache("tasks::" + task.getUser_id(), null);
     }
 
     private void validateTask(TasksModels task) {
@@ -267,6 +394,10 @@ public class TaskService {
         taskDTO.setStatus(task.getStatus());
         taskDTO.setCreatedAt(task.getCreated_at()); // Map snake_case field to camelCase
         taskDTO.setNotes(task.getNotes()); // Map notes field
+        taskDTO.setCompletedAt(task.getCompleted_at());
+        taskDTO.setSubtaskTotal(task.getSubtask_total());
+        taskDTO.setSubtaskDone(task.getSubtask_done());
+        taskDTO.setGoalId(task.getGoal_id());
         return taskDTO;
     }
 
@@ -292,8 +423,18 @@ public class TaskService {
         return CompletableFuture.supplyAsync(() -> {
             for (TasksModels task : tasks) {
                 validateTask(task);
+                updateCompletedAt(task, false);
             }
             List<TasksModels> savedTasks = tasksRepository.saveAll(tasks);
+            try {
+                dailyTaskStatsService.recordCreated(savedTasks);
+            } catch (Exception e) {
+                logger.warn("Failed to update daily task stats for batch: {}", e.getMessage());
+            }
+            savedTasks.stream()
+                    .map(TasksModels::getUser_id)
+                    .distinct()
+                    .forEach(userId -> collectionVersionService.bump(CollectionVersionService.TASKS_BY_USER, userId));
             return savedTasks.stream()
                     .map(this::convertToDTO)
                     .collect(Collectors.toList());
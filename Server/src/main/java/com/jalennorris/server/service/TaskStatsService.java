@@ -0,0 +1,83 @@
+package com.jalennorris.server.service;
+
+import com.jalennorris.server.Repository.TasksRepository;
+import com.jalennorris.server.dto.TaskBucketDTO;
+import com.jalennorris.server.dto.TaskStatsDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.ZonedDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+@Service
+public class TaskStatsService {
+
+    private static final Set<String> BUCKETS = Set.of("day", "week");
+
+    private final TasksRepository tasksRepository;
+
+    @Autowired
+    public TaskStatsService(TasksRepository tasksRepository) {
+        this.tasksRepository = tasksRepository;
+    }
+
+    // Dashboard stats for a user, computed with GROUP BY queries instead of loading every task
+    @Async
+    @Transactional(readOnly = true)
+    public CompletableFuture<TaskStatsDTO> getTaskStats(long userId, String bucket) {
+        if (!BUCKETS.contains(bucket)) {
+            throw new IllegalArgumentException("Invalid bucket: " + bucket + ". Must be 'day' or 'week'.");
+        }
+
+        long total = 0;
+        long completed = 0;
+        for (Object[] row : tasksRepository.countByCompleted(userId)) {
+            long count = ((Number) row[1]).longValue();
+            total += count;
+            if (Boolean.TRUE.equals(row[0])) {
+                completed = count;
+            }
+        }
+
+        TaskStatsDTO stats = new TaskStatsDTO();
+        stats.setUserId(userId);
+        stats.setTotal(total);
+        stats.setCompleted(completed);
+        stats.setCompletionRate(total > 0 ? (double) completed / total : 0.0);
+        stats.setOverdue(tasksRepository.countOverdue(userId, ZonedDateTime.now()));
+        stats.setByStatus(toCountMap(tasksRepository.countByStatus(userId)));
+        stats.setByCategory(toCountMap(tasksRepository.countByCategory(userId)));
+        stats.setByPriority(toCountMap(tasksRepository.countByPriority(userId)));
+        stats.setBucket(bucket);
+        stats.setByDeadline(toBuckets(tasksRepository.countByDeadlineBucket(userId, bucket)));
+        stats.setByCreatedAt(toBuckets(tasksRepository.countByCreatedBucket(userId, bucket)));
+        return CompletableFuture.completedFuture(stats);
+    }
+
+    // Convert [group, count] rows to a map; null groups are reported as "none"
+    private Map<String, Long> toCountMap(List<Object[]> rows) {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (Object[] row : rows) {
+            String key = row[0] != null ? row[0].toString() : "none";
+            counts.merge(key, ((Number) row[1]).longValue(), Long::sum);
+        }
+        return counts;
+    }
+
+    // Convert [bucket, total, completed] rows to DTOs
+    private List<TaskBucketDTO> toBuckets(List<Object[]> rows) {
+        return rows.stream()
+                .map(row -> new TaskBucketDTO(
+                        (String) row[0],
+                        ((Number) row[1]).longValue(),
+                        ((Number) row[2]).longValue()))
+                .collect(Collectors.toList());
+    }
+}
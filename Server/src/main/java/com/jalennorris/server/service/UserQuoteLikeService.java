@@ -1,14 +1,24 @@
 package com.jalennorris.server.service;
 
 import com.jalennorris.server.Models.UserQuoteLike;
-import com.jalennorris.server.Models.MotivationalQuotesModel;
 import com.jalennorris.server.Repository.UserQuoteLikeRepository;
 import com.jalennorris.server.Repository.MotivationalQuotesRepository;
+import com.jalennorris.server.dto.LikedQuoteDTO;
+import com.jalennorris.server.dto.LikedQuoteIdsDTO;
+import com.jalennorris.server.dto.PageResponse;
+import com.jalennorris.server.dto.QuoteLeaderboardEntryDTO;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Optional;
 
 @Service
 public class UserQuoteLikeService {
@@ -19,44 +29,94 @@ public class UserQuoteLikeService {
     @Autowired
     private MotivationalQuotesRepository motivationalQuotesRepository;
 
-    // Like or favorite a quote for a user (create if not exists, update if exists)
+    // Like or favorite a quote for a user (create if not exists, update if exists).
+    // The row and the quote's counters change together; safe under concurrent double taps.
+    @Transactional
     public UserQuoteLike likeOrFavoriteQuote(Long userId, Long quoteId, boolean favorite, boolean like) {
-        UserQuoteLike userQuoteLike = userQuoteLikeRepository.findByUserIdAndQuote_Id(userId, quoteId);
-        MotivationalQuotesModel quote = motivationalQuotesRepository.findById(quoteId).orElse(null);
-
-        if (quote == null) {
+        try {
+            return userQuoteLikeRepository.upsertLike(userId, quoteId, favorite, like);
+        } catch (DataIntegrityViolationException e) {
+            // quote_id references motivational_quotes
             throw new IllegalArgumentException("Quote not found");
         }
-
-        if (userQuoteLike == null) {
-            userQuoteLike = new UserQuoteLike(userId, quote, favorite, like, ZonedDateTime.now());
-        } else {
-            userQuoteLike.setFavorite(favorite);
-            userQuoteLike.setLike(like);
-        }
-        return userQuoteLikeRepository.save(userQuoteLike);
     }
 
     // Update like/favorite status for a user and quote (PATCH)
+    @Transactional
     public UserQuoteLike patchLikeOrFavoriteStatus(Long userId, Long quoteId, Boolean favorite, Boolean like) {
-        UserQuoteLike userQuoteLike = userQuoteLikeRepository.findByUserIdAndQuote_Id(userId, quoteId);
+        UserQuoteLike userQuoteLike = userQuoteLikeRepository.patchLike(userId, quoteId, favorite, like);
         if (userQuoteLike == null) {
             throw new IllegalArgumentException("UserQuoteLike not found for userId: " + userId + " and quoteId: " + quoteId);
         }
-        if (favorite != null) {
-            userQuoteLike.setFavorite(favorite);
-        }
-        if (like != null) {
-            userQuoteLike.setLike(like);
-        }
-        return userQuoteLikeRepository.save(userQuoteLike);
+        return userQuoteLike;
     }
 
     // Unlike or unfavorite a quote (delete the record)
+    @Transactional
     public void unlikeOrUnfavoriteQuote(Long userId, Long quoteId) {
-        UserQuoteLike userQuoteLike = userQuoteLikeRepository.findByUserIdAndQuote_Id(userId, quoteId);
-        if (userQuoteLike != null) {
-            userQuoteLikeRepository.delete(userQuoteLike);
+        userQuoteLikeRepository.deleteLike(userId, quoteId);
+    }
+
+    // Newest-first page of the quotes a user liked and/or favorited, with quote content.
+    // filter: "all" (either flag), "likes" or "favorites"; after: likeId cursor from the previous page
+    public PageResponse<LikedQuoteDTO> getLikedQuotes(Long userId, String filter, Long after, int size) {
+        boolean likedOnly = "likes".equalsIgnoreCase(filter);
+        boolean favoritesOnly = "favorites".equalsIgnoreCase(filter);
+        if (!likedOnly && !favoritesOnly && !"all".equalsIgnoreCase(filter)) {
+            throw new IllegalArgumentException("Unknown filter: " + filter);
+        }
+
+        // Fetch one extra row to learn whether another page exists
+        List<LikedQuoteDTO> rows = userQuoteLikeRepository.findLikedQuotesPage(
+                userId, after != null ? after : Long.MAX_VALUE, likedOnly, favoritesOnly, size + 1);
+        boolean hasMore = rows.size() > size;
+        List<LikedQuoteDTO> items = hasMore ? new ArrayList<>(rows.subList(0, size)) : rows;
+        String nextCursor = hasMore ? String.valueOf(items.get(items.size() - 1).getLikeId()) : null;
+        return new PageResponse<>(items, size, hasMore, null, nextCursor);
+    }
+
+    // Every quote id the user liked or favorited, as sorted id lists or as bitsets indexed by quote id
+    public LikedQuoteIdsDTO getLikedQuoteIds(Long userId, boolean bitmap) {
+        List<long[]> flags = userQuoteLikeRepository.findLikedQuoteFlags(userId);
+        if (bitmap) {
+            BitSet liked = new BitSet();
+            BitSet favorited = new BitSet();
+            for (long[] row : flags) {
+                if (row[0] > Integer.MAX_VALUE) {
+                    throw new IllegalArgumentException("Quote ids too large for a bitmap; use the id lists");
+                }
+                if (row[1] == 1) liked.set((int) row[0]);
+                if (row[2] == 1) favorited.set((int) row[0]);
+            }
+            Base64.Encoder encoder = Base64.getEncoder();
+            return LikedQuoteIdsDTO.ofBitmaps(encoder.encodeToString(liked.toByteArray()),
+                    encoder.encodeToString(favorited.toByteArray()));
+        }
+        List<Long> liked = new ArrayList<>();
+        List<Long> favorited = new ArrayList<>();
+        for (long[] row : flags) {
+            if (row[1] == 1) liked.add(row[0]);
+            if (row[2] == 1) favorited.add(row[0]);
+        }
+        return LikedQuoteIdsDTO.ofIds(liked, favorited);
+    }
+
+    // Like/favorite totals of one quote
+    public Optional<QuoteLeaderboardEntryDTO> getQuoteCounts(Long quoteId) {
+        return motivationalQuotesRepository.findById(quoteId)
+                .map(q -> new QuoteLeaderboardEntryDTO(q.getId(), q.getQuote(), q.getAuthor(), q.getType(),
+                        q.getLike_count(), q.getFavorite_count()));
+    }
+
+    // Most liked or most favorited quotes, with their counts
+    public List<QuoteLeaderboardEntryDTO> getTopQuotes(String by, int limit) {
+        PageRequest top = PageRequest.of(0, limit);
+        if ("likes".equalsIgnoreCase(by)) {
+            return motivationalQuotesRepository.findTopByLikes(top);
+        }
+        if ("favorites".equalsIgnoreCase(by)) {
+            return motivationalQuotesRepository.findTopByFavorites(top);
         }
+        throw new IllegalArgumentException("Unknown leaderboard: " + by);
     }
 }
@@ -4,7 +4,11 @@ import com.jalennorris.server.Models.UserModels;
 import com.jalennorris.server.Models.loginModels;
 import com.jalennorris.server.Repository.UserRepository;
 import com.jalennorris.server.enums.Role;
+import com.jalennorris.server.dto.PageResponse;
 import com.jalennorris.server.dto.UserDTO;
+import com.jalennorris.server.query.KeysetQueryExecutor;
+import com.jalennorris.server.query.ListQuery;
+import com.jalennorris.server.query.QueryDefinition;
 import com.jalennorris.server.util.JwtUtil;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.cache.annotation.Cacheable;
@@ -13,7 +17,6 @@ import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.logging.Level;
@@ -29,11 +32,21 @@ public class UserService {
     private final UserRepository userRepository;
     private final JwtUtil jwtUtil;
     private final PasswordEncoder passwordEncoder;
+    private final KeysetQueryExecutor keysetQueryExecutor;
 
-    public UserService(UserRepository userRepository, JwtUtil jwtUtil, PasswordEncoder passwordEncoder) {
+    // Filters and sorts the user listings accept
+    public static final QueryDefinition<UserModels> LIST_QUERY = QueryDefinition
+            .builder(UserModels.class, "user_id", Long.class)
+            .filter("role", "role", Role.class, QueryDefinition.EQUALITY)
+            .sort("username", "username", String.class)
+            .build();
+
+    public UserService(UserRepository userRepository, JwtUtil jwtUtil, PasswordEncoder passwordEncoder,
+                       KeysetQueryExecutor keysetQueryExecutor) {
         this.userRepository = userRepository;
         this.jwtUtil = jwtUtil;
         this.passwordEncoder = passwordEncoder;
+        this.keysetQueryExecutor = keysetQueryExecutor;
     }
 
 
@@ -85,16 +98,11 @@ public class UserService {
         });
     }
 
-    // Get all users
+    // Get one keyset page of users for a parsed LIST_QUERY request; not cached, pages vary by query
     @Async
-    @Cacheable(value = "users", unless = "#result == null || #result.isEmpty()")
-    public CompletableFuture<List<UserDTO>> getAllUsers() {
-        return CompletableFuture.supplyAsync(() -> {
-            List<UserModels> users = userRepository.findAll();
-            return users.stream()
-                    .map(user -> convertToDto(user, null))
-                    .toList();
-        });
+    public CompletableFuture<PageResponse<UserDTO>> listUsers(ListQuery query) {
+        return CompletableFuture.supplyAsync(() ->
+                keysetQueryExecutor.page(LIST_QUERY, query, Map.of()).map(user -> convertToDto(user, null)));
     }
 
     // Get user by id
@@ -148,6 +156,9 @@ public class UserService {
                     case "isDarkMode":
                         existingUser.setIsDarkMode((Boolean) value);
                         break;
+                    case "expo_push_token":
+                        existingUser.setExpo_push_token((String) value);
+                        break;
                     default:
                         throw new IllegalArgumentException("Invalid field: " + key);
                 }
@@ -0,0 +1,85 @@
+-- Runs after Hibernate's ddl-auto=update (spring.jpa.defer-datasource-initialization=true).
+-- Only objects Hibernate can't express belong here; every statement must be idempotent.
+-- Statements end with ^; (spring.sql.init.separator) so DO blocks can contain plain semicolons.
+
+-- Full-text search over task name, description and notes, scoped by user
+CREATE EXTENSION IF NOT EXISTS btree_gin^;
+
+ALTER TABLE tasks ADD COLUMN IF NOT EXISTS search_vector tsvector
+    GENERATED ALWAYS AS (
+        setweight(to_tsvector('english', coalesce(task_name, '')), 'A') ||
+        setweight(to_tsvector('english', coalesce(task_description, '')), 'B') ||
+        setweight(to_tsvector('english', coalesce(notes, '')), 'C')
+    ) STORED^;
+
+CREATE INDEX IF NOT EXISTS idx_tasks_user_search ON tasks USING GIN (user_id, search_vector)^;
+
+-- Reconcile denormalized subtask progress counters; only rows that drifted are written
+UPDATE tasks t SET subtask_total = c.total, subtask_done = c.done
+FROM (
+    SELECT s.task_id, COUNT(*) AS total, COUNT(*) FILTER (WHERE s.completed) AS done
+    FROM subtasks s GROUP BY s.task_id
+) c
+WHERE t.task_id = c.task_id AND (t.subtask_total <> c.total OR t.subtask_done <> c.done)^;
+
+-- The join above can't see tasks whose subtasks are all gone; zero their leftover counters
+UPDATE tasks t SET subtask_total = 0, subtask_done = 0
+WHERE (t.subtask_total <> 0 OR t.subtask_done <> 0)
+  AND NOT EXISTS (SELECT 1 FROM subtasks s WHERE s.task_id = t.task_id)^;
+
+-- Children of a task go with it. Constraints are added NOT VALID so existing orphans don't block
+-- startup; OrphanSweeper purges them in small batches and then validates the constraints.
+-- TaskService.deleteTask removes schedule rows itself (for cache eviction); the cascade is a backstop.
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'fk_subtasks_task') THEN
+        ALTER TABLE subtasks ADD CONSTRAINT fk_subtasks_task
+            FOREIGN KEY (task_id) REFERENCES tasks (task_id) ON DELETE CASCADE NOT VALID;
+    END IF;
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'fk_schedule_task') THEN
+        ALTER TABLE schedule ADD CONSTRAINT fk_schedule_task
+            FOREIGN KEY (task_id) REFERENCES tasks (task_id) ON DELETE CASCADE NOT VALID;
+    END IF;
+    -- Deleting a goal unlinks its tasks; GoalService.deleteGoal unlinks them itself first so their
+    -- cached DTOs are evicted, this covers any other delete
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'fk_tasks_goal') THEN
+        ALTER TABLE tasks ADD CONSTRAINT fk_tasks_goal
+            FOREIGN KEY (goal_id) REFERENCES user_goals (id) ON DELETE SET NULL NOT VALID;
+    END IF;
+    -- Feedback outlives the accepted AI task it rated
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'fk_user_feedback_accepted_task') THEN
+        ALTER TABLE user_feedback ADD CONSTRAINT fk_user_feedback_accepted_task
+            FOREIGN KEY (accepted_ai_task_id) REFERENCES accepted_tasks (id) ON DELETE SET NULL NOT VALID;
+    END IF;
+END
+$$^;
+
+-- Unsent reminders by due time; sent rows drop out of the index. Rows missed by more than
+-- reminders.max-lateness-ms are never sent and stay in it, but the claim only range-scans
+-- the (now - max lateness, now + lookahead] slice, so they don't slow it down
+CREATE INDEX IF NOT EXISTS idx_schedule_reminder_due ON schedule (scheduled_time) WHERE reminder_sent_at IS NULL^;
+
+-- Undelivered outbox events in relay order; delivered rows drop out of the index
+CREATE INDEX IF NOT EXISTS idx_outbox_events_pending ON outbox_events (id) WHERE processed_at IS NULL^;
+
+-- Feedback timeline stats scan a created_at range; covering the grouped and filtered columns
+-- lets that be an index-only scan. Replaces the plain created_at index.
+CREATE INDEX IF NOT EXISTS idx_user_feedback_created_rating
+    ON user_feedback (created_at) INCLUDE (rating, accepted_ai_task_id, user_id)^;
+DROP INDEX IF EXISTS idx_user_feedback_created_at^;
+
+-- One like/favorite row per user and quote (the upsert in UserQuoteLikeRepositoryCustomImpl relies on it);
+-- duplicates left by earlier racing requests are collapsed onto the oldest row first
+DELETE FROM favorites_and_likes f USING favorites_and_likes d
+WHERE f.user_id = d.user_id AND f.quote_id = d.quote_id AND f.id > d.id^;
+CREATE UNIQUE INDEX IF NOT EXISTS uk_favorites_and_likes_user_quote ON favorites_and_likes (user_id, quote_id)^;
+
+-- Reconcile denormalized quote like/favorite counters; only rows that drifted are written
+UPDATE motivational_quotes q SET like_count = COALESCE(c.likes, 0), favorite_count = COALESCE(c.favorites, 0)
+FROM motivational_quotes q2
+LEFT JOIN (
+    SELECT f.quote_id, COUNT(*) FILTER (WHERE f.likes) AS likes, COUNT(*) FILTER (WHERE f.favorite) AS favorites
+    FROM favorites_and_likes f GROUP BY f.quote_id
+) c ON c.quote_id = q2.id
+WHERE q.id = q2.id
+  AND (q.like_count <> COALESCE(c.likes, 0) OR q.favorite_count <> COALESCE(c.favorites, 0))^;
@@ -0,0 +1,175 @@
+package com.jalennorris.server.Repository;
+
+import com.jalennorris.server.Models.MotivationalQuotesModel;
+import com.jalennorris.server.Models.UserQuoteLike;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// Runs the like/favorite SQL against a real PostgreSQL and checks the quote counters it maintains
+@Testcontainers(disabledWithoutDocker = true)
+class UserQuoteLikeRepositoryCustomImplTest {
+
+    @Container
+    private static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    private static JdbcTemplate jdbcTemplate;
+    private static TransactionTemplate transactionTemplate;
+
+    private UserQuoteLikeRepositoryCustomImpl repository;
+    private ExecutorService executor;
+    private long quoteId;
+
+    @BeforeAll
+    static void createSchema() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword());
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        jdbcTemplate.execute("CREATE TABLE motivational_quotes (id bigserial PRIMARY KEY, quote text, author text, " +
+                "type text, created_at timestamp, like_count integer NOT NULL DEFAULT 0, " +
+                "favorite_count integer NOT NULL DEFAULT 0)");
+        jdbcTemplate.execute("CREATE TABLE favorites_and_likes (id bigserial PRIMARY KEY, user_id bigint, " +
+                "quote_id bigint REFERENCES motivational_quotes (id), favorite boolean NOT NULL, " +
+                "likes boolean NOT NULL, created_at timestamptz)");
+        jdbcTemplate.execute("CREATE UNIQUE INDEX uk_favorites_and_likes_user_quote ON favorites_and_likes (user_id, quote_id)");
+    }
+
+    @BeforeEach
+    void setUp() {
+        EntityManager entityManager = mock(EntityManager.class);
+        when(entityManager.getReference(eq(MotivationalQuotesModel.class), any())).thenAnswer(invocation -> {
+            MotivationalQuotesModel quote = new MotivationalQuotesModel();
+            quote.setId(invocation.getArgument(1));
+            return quote;
+        });
+        repository = new UserQuoteLikeRepositoryCustomImpl(jdbcTemplate);
+        ReflectionTestUtils.setField(repository, "entityManager", entityManager);
+        executor = Executors.newFixedThreadPool(2);
+        quoteId = jdbcTemplate.queryForObject(
+                "INSERT INTO motivational_quotes (quote, author) VALUES ('Keep going', 'Anon') RETURNING id", Long.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void upsertMovesCountersByTheChangeInFlags() {
+        upsert(1L, false, true);
+        assertCounts(1, 0);
+
+        upsert(1L, true, true);
+        assertCounts(1, 1);
+
+        upsert(1L, true, true);
+        assertCounts(1, 1);
+
+        UserQuoteLike row = upsert(1L, true, false);
+        assertCounts(0, 1);
+        assertThat(row.isFavorite()).isTrue();
+        assertThat(row.isLike()).isFalse();
+        assertThat(row.getQuote().getId()).isEqualTo(quoteId);
+    }
+
+    @Test
+    void countsEachUserSeparately() {
+        upsert(1L, false, true);
+        upsert(2L, true, true);
+
+        assertCounts(2, 1);
+    }
+
+    @Test
+    void patchAndDeleteUndoTheirFlags() {
+        upsert(1L, true, true);
+
+        transactionTemplate.execute(status -> repository.patchLike(1L, quoteId, null, false));
+        assertCounts(0, 1);
+
+        assertThat(transactionTemplate.execute(status -> repository.deleteLike(1L, quoteId))).isTrue();
+        assertCounts(0, 0);
+        assertThat(transactionTemplate.execute(status -> repository.deleteLike(1L, quoteId))).isFalse();
+    }
+
+    @Test
+    void theLoserOfTwoRacingFirstTapsUpdatesTheWinnersRow() throws Exception {
+        CountDownLatch winnerInserted = new CountDownLatch(1);
+        CountDownLatch commitWinner = new CountDownLatch(1);
+
+        Future<?> winner = executor.submit(() -> transactionTemplate.executeWithoutResult(status -> {
+            repository.upsertLike(1L, quoteId, false, true);
+            winnerInserted.countDown();
+            await(commitWinner);
+        }));
+        assertThat(winnerInserted.await(10, TimeUnit.SECONDS)).isTrue();
+
+        // The loser's insert waits on the winner's uncommitted row
+        Future<UserQuoteLike> loser = executor.submit(() -> upsert(1L, true, false));
+        waitForLockWait();
+        commitWinner.countDown();
+
+        winner.get(10, TimeUnit.SECONDS);
+        UserQuoteLike row = loser.get(10, TimeUnit.SECONDS);
+        assertThat(row.isFavorite()).isTrue();
+        assertThat(row.isLike()).isFalse();
+        assertCounts(0, 1);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM favorites_and_likes WHERE quote_id = ?",
+                Long.class, quoteId)).isEqualTo(1L);
+    }
+
+    private UserQuoteLike upsert(long userId, boolean favorite, boolean like) {
+        return transactionTemplate.execute(status -> repository.upsertLike(userId, quoteId, favorite, like));
+    }
+
+    private void assertCounts(int likes, int favorites) {
+        assertThat(jdbcTemplate.queryForObject("SELECT like_count FROM motivational_quotes WHERE id = ?",
+                Integer.class, quoteId)).isEqualTo(likes);
+        assertThat(jdbcTemplate.queryForObject("SELECT favorite_count FROM motivational_quotes WHERE id = ?",
+                Integer.class, quoteId)).isEqualTo(favorites);
+    }
+
+    private static void waitForLockWait() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10000;
+        while (System.currentTimeMillis() < deadline) {
+            Long waiting = jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM pg_stat_activity WHERE wait_event_type = 'Lock'", Long.class);
+            if (waiting != null && waiting > 0) {
+                return;
+            }
+            Thread.sleep(20);
+        }
+        throw new AssertionError("Second upsert never waited on the first");
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.jalennorris.server.query;
+
+import com.jalennorris.server.Models.TasksModels;
+import com.jalennorris.server.dto.PageResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+
+import java.time.ZonedDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ListQueryTest {
+
+    private static final QueryDefinition<TasksModels> DEFINITION = QueryDefinition
+            .builder(TasksModels.class, "task_id", Long.class)
+            .filter("status", "status", String.class, QueryDefinition.EQUALITY)
+            .filter("deadline", "deadline", ZonedDateTime.class, QueryDefinition.RANGE)
+            .sort("deadline", "deadline", ZonedDateTime.class, ZonedDateTime.parse("9999-01-01T00:00:00Z"))
+            .sizes(20, 100)
+            .build();
+
+    @Test
+    void returnsABareListCappedAtTheMaxSizeUnlessPagingIsAskedFor() {
+        ListQuery query = parse("status", "open");
+
+        assertThat(query.isPaged()).isFalse();
+        assertThat(query.getSize()).isEqualTo(100);
+        ResponseEntity<Object> response = query.response(new PageResponse<>(List.of("a", "b"), 100, false, null, null));
+        assertThat(response.getBody()).isEqualTo(List.of("a", "b"));
+        assertThat(response.getHeaders().containsKey(ListQuery.TRUNCATED_HEADER)).isFalse();
+    }
+
+    @Test
+    void flagsABareListTheCapCutShort() {
+        ListQuery query = parse("status", "open");
+
+        ResponseEntity<Object> response = query.response("\"v1\"",
+                new PageResponse<>(List.of("a"), 100, true, null, "cursor"));
+
+        assertThat(response.getBody()).isEqualTo(List.of("a"));
+        assertThat(response.getHeaders().getFirst(ListQuery.TRUNCATED_HEADER)).isEqualTo("true");
+        assertThat(response.getHeaders().getFirst(ListQuery.NEXT_CURSOR_HEADER)).isEqualTo("cursor");
+        assertThat(response.getHeaders().getETag()).isEqualTo("\"v1\"");
+    }
+
+    @Test
+    void pagesWhenSizeOrAfterIsGiven() {
+        ListQuery query = parse("size", "10");
+
+        assertThat(query.isPaged()).isTrue();
+        assertThat(query.getSize()).isEqualTo(10);
+        PageResponse<String> page = new PageResponse<>(List.of("a"), 10, true, null, "cursor");
+        assertThat(query.response(page).getBody()).isSameAs(page);
+        assertThat(parse("after", ListQuery.encodeCursor(query.getSortField(), false,
+                ZonedDateTime.parse("2026-10-18T09:30:00Z"), 1L)).getSize())
+                .isEqualTo(20);
+    }
+
+    @Test
+    void pageEndpointsAlwaysPageAtTheDefaultSize() {
+        ListQuery query = ListQuery.parsePage(DEFINITION, params("status", "open"));
+
+        assertThat(query.isPaged()).isTrue();
+        assertThat(query.getSize()).isEqualTo(20);
+        PageResponse<String> page = new PageResponse<>(List.of("a"), 20, false, null, null);
+        assertThat(query.response(page).getBody()).isSameAs(page);
+    }
+
+    @Test
+    void rejectsParametersThatNameNoFilter() {
+        assertThatThrownBy(() -> parse("userid", "5")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> parse("priority.gte", "3")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void parsesOperatorsAndInLists() {
+        ListQuery query = parse("deadline.lt", "2026-11-01T00:00:00Z", "status.in", "open, done");
+
+        assertThat(query.getFilters()).hasSize(2);
+        ListQuery.Filter deadline = query.getFilters().get(0);
+        assertThat(deadline.op()).isEqualTo(QueryDefinition.Op.LT);
+        assertThat(deadline.values()).containsExactly(ZonedDateTime.parse("2026-11-01T00:00:00Z"));
+        assertThat(query.getFilters().get(1).values()).containsExactly("open", "done");
+    }
+
+    @Test
+    void rejectsMalformedRequestsOnKnownNames() {
+        assertThatThrownBy(() -> parse("status.gt", "open")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> parse("deadline", "tomorrow")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> parse("sort", "priority")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> parse("size", "0")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> parse("size", "101")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> parse("after", "not a cursor")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void cursorsRoundTripForTheSortTheyWereIssuedFor() {
+        ListQuery first = parse("sort", "-deadline", "size", "10");
+        ZonedDateTime deadline = ZonedDateTime.parse("2026-10-18T09:30:00Z");
+        String cursor = ListQuery.encodeCursor(first.getSortField(), first.isDescending(), deadline, 42L);
+
+        ListQuery next = parse("sort", "-deadline", "size", "10", "after", cursor);
+
+        assertThat(next.isDescending()).isTrue();
+        assertThat(next.getAfterSortValue()).isEqualTo(deadline);
+        assertThat(next.getAfterId()).isEqualTo(42L);
+        assertThatThrownBy(() -> parse("sort", "deadline", "after", cursor))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void leavesNamesTheCallerHandlesAlone() {
+        Map<String, List<String>> params = params("status", "open", "month", "2026-10",
+                "deadline.gte", "2026-10-01T00:00:00Z");
+
+        ListQuery query = ListQuery.parse(DEFINITION, params, "status", "month");
+
+        assertThat(query.getFilters()).singleElement()
+                .satisfies(filter -> assertThat(filter.field().name()).isEqualTo("deadline"));
+    }
+
+    private static ListQuery parse(String... pairs) {
+        return ListQuery.parse(DEFINITION, params(pairs));
+    }
+
+    private static Map<String, List<String>> params(String... pairs) {
+        Map<String, List<String>> params = new LinkedHashMap<>();
+        for (int i = 0; i < pairs.length; i += 2) {
+            params.put(pairs[i], List.of(pairs[i + 1]));
+        }
+        return params;
+    }
+}
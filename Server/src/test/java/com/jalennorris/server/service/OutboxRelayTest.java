@@ -0,0 +1,169 @@
+package com.jalennorris.server.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jalennorris.server.Models.OutboxEvent;
+import com.jalennorris.server.Repository.OutboxRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OutboxRelayTest {
+
+    private OutboxRepository outboxRepository;
+    private StringRedisTemplate stringRedisTemplate;
+    private ValueOperations<String, String> valueOperations;
+    private PushNotificationService pushService;
+    private CollectionVersionService collectionVersionService;
+    private PlatformTransactionManager transactionManager;
+    private OutboxRelay relay;
+
+    // Delivery callbacks handed to the push service, in enqueue order
+    private final List<Consumer<Boolean>> callbacks = new ArrayList<>();
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        outboxRepository = mock(OutboxRepository.class);
+        stringRedisTemplate = mock(StringRedisTemplate.class);
+        valueOperations = mock(ValueOperations.class);
+        when(stringRedisTemplate.opsForValue()).thenReturn(valueOperations);
+        pushService = mock(PushNotificationService.class);
+        when(pushService.enqueue(anyMap(), any())).thenAnswer(invocation -> {
+            callbacks.add(invocation.getArgument(1, Consumer.class));
+            return true;
+        });
+        collectionVersionService = mock(CollectionVersionService.class);
+        transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenAnswer(invocation -> new SimpleTransactionStatus());
+        relay = new OutboxRelay(outboxRepository, stringRedisTemplate, pushService, collectionVersionService,
+                new TransactionTemplate(transactionManager), new ObjectMapper(), new SimpleMeterRegistry(),
+                200, 300, 3, 24);
+    }
+
+    @Test
+    void commitsTheClaimBeforeDelivering() {
+        claim(event(1L, OutboxService.CACHE_EVICT, "tasks::7", "evict-1"));
+
+        relay.relay();
+
+        InOrder inOrder = inOrder(outboxRepository, transactionManager, stringRedisTemplate);
+        inOrder.verify(outboxRepository).claimPending(200, 300);
+        inOrder.verify(transactionManager).commit(any());
+        inOrder.verify(stringRedisTemplate).delete("tasks::7");
+        inOrder.verify(stringRedisTemplate).convertAndSend("cacheEvictChannel", "tasks::7");
+        inOrder.verify(outboxRepository).markProcessed(List.of(1L));
+    }
+
+    @Test
+    void bumpsCollectionVersions() {
+        claim(event(2L, OutboxService.VERSION_BUMP, "schedules-user::7", "bump-2"));
+
+        relay.relay();
+
+        verify(collectionVersionService).bumpNow("schedules-user", "7");
+        verify(outboxRepository).markProcessed(List.of(2L));
+    }
+
+    @Test
+    void marksPushesProcessedOnlyAfterExpoAcceptedThem() {
+        claim(event(3L, OutboxService.PUSH, "{\"to\":\"token-1\"}", "push-3"));
+
+        relay.relay();
+        verify(pushService).enqueue(eq(Map.of("to", "token-1")), any());
+        verify(outboxRepository, never()).markProcessed(anyList());
+
+        callbacks.get(0).accept(true);
+        verify(valueOperations).set(eq("outbox::pushed::push-3"), eq("1"), any(Duration.class));
+
+        relay.relay();
+        verify(outboxRepository).markProcessed(List.of(3L));
+        verify(outboxRepository, never()).markFailed(anyList(), anyString(), anyDouble());
+    }
+
+    @Test
+    void retriesPushesExpoDidNotAccept() {
+        claim(event(4L, OutboxService.PUSH, "{\"to\":\"token-1\"}", "push-4"));
+
+        relay.relay();
+        callbacks.get(0).accept(false);
+        relay.relay();
+
+        verify(outboxRepository).markFailed(eq(List.of(4L)), anyString(), anyDouble());
+        verify(outboxRepository, never()).markProcessed(anyList());
+    }
+
+    @Test
+    void retriesPushesRefusedByAFullQueue() {
+        doReturn(false).when(pushService).enqueue(anyMap(), any());
+        claim(event(5L, OutboxService.PUSH, "{\"to\":\"token-1\"}", "push-5"));
+
+        relay.relay();
+
+        verify(outboxRepository).markFailed(eq(List.of(5L)), anyString(), anyDouble());
+    }
+
+    @Test
+    void skipsPushesAcceptedByAnEarlierRun() {
+        when(stringRedisTemplate.hasKey("outbox::pushed::push-6")).thenReturn(true);
+        claim(event(6L, OutboxService.PUSH, "{\"to\":\"token-1\"}", "push-6"));
+
+        relay.relay();
+
+        verify(pushService, never()).enqueue(anyMap(), any());
+        verify(outboxRepository).markProcessed(List.of(6L));
+    }
+
+    @Test
+    void marksEventsDeadAfterTheLastAttempt() {
+        doReturn(false).when(pushService).enqueue(anyMap(), any());
+        OutboxEvent event = event(7L, OutboxService.PUSH, "{\"to\":\"token-1\"}", "push-7");
+        event.setAttempts(2);
+        claim(event);
+
+        relay.relay();
+
+        verify(outboxRepository).markDead(eq(List.of(7L)), anyString());
+        verify(outboxRepository, never()).markFailed(anyList(), anyString(), anyDouble());
+    }
+
+    private void claim(OutboxEvent... events) {
+        when(outboxRepository.claimPending(anyInt(), anyDouble()))
+                .thenReturn(List.of(events))
+                .thenReturn(List.of());
+    }
+
+    private static OutboxEvent event(long id, String type, String payload, String idempotencyKey) {
+        OutboxEvent event = new OutboxEvent();
+        event.setId(id);
+        event.setEventType(type);
+        event.setPayload(payload);
+        event.setIdempotencyKey(idempotencyKey);
+        return event;
+    }
+}
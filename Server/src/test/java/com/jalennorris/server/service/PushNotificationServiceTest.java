@@ -0,0 +1,114 @@
+package com.jalennorris.server.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jalennorris.server.Repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+class PushNotificationServiceTest {
+
+    private StubPushServer stub;
+    private ThreadPoolTaskExecutor executor;
+    private UserRepository userRepository;
+    private PushNotificationService pushService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        stub = new StubPushServer();
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(2);
+        executor.setMaxPoolSize(2);
+        executor.initialize();
+        userRepository = mock(UserRepository.class);
+        pushService = new PushNotificationService(new ObjectMapper(), executor, userRepository,
+                new SimpleMeterRegistry(), stub.sendUrl(), stub.receiptsUrl(),
+                1000, 20, 3, 10, 60000, 1000);
+        pushService.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        pushService.stop();
+        executor.shutdown();
+        stub.close();
+    }
+
+    @Test
+    void batchesQueuedMessagesAndReportsAcceptance() throws Exception {
+        List<CompletableFuture<Boolean>> results = new ArrayList<>();
+        for (int i = 0; i < 150; i++) {
+            CompletableFuture<Boolean> result = new CompletableFuture<>();
+            results.add(result);
+            assertThat(pushService.enqueue(message("token-" + i), result::complete)).isTrue();
+        }
+
+        for (CompletableFuture<Boolean> result : results) {
+            assertThat(result.get(5, TimeUnit.SECONDS)).isTrue();
+        }
+        assertThat(stub.messagesReceived()).isEqualTo(150);
+        assertThat(stub.sendRequests()).allSatisfy(request ->
+                assertThat(request.size()).isLessThanOrEqualTo(PushNotificationService.MAX_MESSAGES_PER_REQUEST));
+    }
+
+    @Test
+    void retriesServerErrorsBeforeReportingAcceptance() throws Exception {
+        stub.failNext(500, 429);
+        CompletableFuture<Boolean> result = new CompletableFuture<>();
+
+        pushService.enqueue(message("token-1"), result::complete);
+
+        assertThat(result.get(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(stub.sendRequests()).hasSize(3);
+    }
+
+    @Test
+    void reportsFailureWhenExpoRejectsTheRequest() throws Exception {
+        stub.failNext(400);
+        CompletableFuture<Boolean> result = new CompletableFuture<>();
+
+        pushService.enqueue(message("token-1"), result::complete);
+
+        assertThat(result.get(5, TimeUnit.SECONDS)).isFalse();
+        assertThat(stub.sendRequests()).hasSize(1);
+    }
+
+    @Test
+    void reportsFailureAfterTheLastAttempt() throws Exception {
+        stub.failNext(503, 503, 503);
+        CompletableFuture<Boolean> result = new CompletableFuture<>();
+
+        pushService.enqueue(message("token-1"), result::complete);
+
+        assertThat(result.get(5, TimeUnit.SECONDS)).isFalse();
+        assertThat(stub.sendRequests()).hasSize(3);
+    }
+
+    @Test
+    void clearsTokensExpoReportsAsUnregistered() throws Exception {
+        stub.unregister("gone-token");
+        CompletableFuture<Boolean> result = new CompletableFuture<>();
+
+        pushService.enqueue(message("gone-token"), result::complete);
+
+        assertThat(result.get(5, TimeUnit.SECONDS)).isTrue();
+        verify(userRepository, timeout(5000)).clearExpoPushToken("gone-token");
+    }
+
+    private static Map<String, Object> message(String token) {
+        return PushNotificationService.message(token, "Reminder", "It's time", Map.of());
+    }
+}
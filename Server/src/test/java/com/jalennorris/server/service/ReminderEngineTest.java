@@ -0,0 +1,149 @@
+package com.jalennorris.server.service;
+
+import com.jalennorris.server.Repository.ScheduleRepository;
+import com.jalennorris.server.dto.ReminderDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ReminderEngineTest {
+
+    private ScheduleRepository scheduleRepository;
+    private PushNotificationService pushService;
+    private ReminderEngine engine;
+
+    // Delivery callbacks handed to the push service, in enqueue order
+    private final List<Consumer<Boolean>> callbacks = new ArrayList<>();
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        scheduleRepository = mock(ScheduleRepository.class);
+        pushService = mock(PushNotificationService.class);
+        when(pushService.enqueue(anyMap(), any())).thenAnswer(invocation -> {
+            callbacks.add(invocation.getArgument(1, Consumer.class));
+            return true;
+        });
+        when(scheduleRepository.findStillClaimed(anyList())).thenAnswer(invocation ->
+                invocation.<List<ReminderDTO>>getArgument(0).stream().map(ReminderDTO::getScheduleId).toList());
+        engine = new ReminderEngine(scheduleRepository, pushService, new SimpleMeterRegistry(),
+                true, 60000, 300000, 900000, 100, 100, 1000);
+    }
+
+    @Test
+    void marksSentOnlyAfterExpoAcceptedTheReminder() {
+        claim(reminder(1L, "token-1"));
+
+        engine.loadDueWindow();
+        engine.dispatchDue();
+        verify(scheduleRepository, never()).markRemindersSent(anyList(), any());
+
+        callbacks.get(0).accept(true);
+        engine.dispatchDue();
+        verify(scheduleRepository).markRemindersSent(argThat(sent -> ids(sent).equals(List.of(1L))), any());
+    }
+
+    @Test
+    void leavesFailedDeliveriesClaimedForRetry() {
+        claim(reminder(1L, "token-1"));
+
+        engine.loadDueWindow();
+        engine.dispatchDue();
+        callbacks.get(0).accept(false);
+        engine.dispatchDue();
+
+        verify(scheduleRepository, never()).markRemindersSent(anyList(), any());
+    }
+
+    @Test
+    void leavesRemindersRefusedByAFullQueueClaimed() {
+        doReturn(false).when(pushService).enqueue(anyMap(), any());
+        claim(reminder(1L, "token-1"));
+
+        engine.loadDueWindow();
+        engine.dispatchDue();
+
+        verify(scheduleRepository, never()).markRemindersSent(anyList(), any());
+    }
+
+    @Test
+    void marksRemindersWithoutATokenWithoutSending() {
+        claim(reminder(2L, null));
+
+        engine.loadDueWindow();
+        engine.dispatchDue();
+
+        verify(pushService, never()).enqueue(anyMap(), any());
+        verify(scheduleRepository).markRemindersSent(argThat(sent -> ids(sent).equals(List.of(2L))), any());
+    }
+
+    @Test
+    void holdsRemindersUntilTheyAreDue() {
+        ReminderDTO later = reminder(3L, "token-3");
+        later.setScheduledTime(new Date(System.currentTimeMillis() + 30000));
+        claim(later);
+
+        engine.loadDueWindow();
+        engine.dispatchDue();
+
+        verify(pushService, never()).enqueue(anyMap(), any());
+    }
+
+    @Test
+    void dropsQueuedCopiesOfEntriesRescheduledAfterTheClaim() {
+        claim(reminder(4L, "token-4"));
+        engine.loadDueWindow();
+
+        // The entry was rescheduled while queued, which reset its claim on the row
+        when(scheduleRepository.findStillClaimed(anyList())).thenReturn(List.of());
+        engine.dispatchDue();
+
+        verify(pushService, never()).enqueue(anyMap(), any());
+        verify(scheduleRepository, never()).markRemindersSent(anyList(), any());
+    }
+
+    @Test
+    void marksSentUnderTheClaimTheReminderWasSentFor() {
+        ReminderDTO reminder = reminder(5L, "token-5");
+        claim(reminder);
+
+        engine.loadDueWindow();
+        engine.dispatchDue();
+        callbacks.get(0).accept(true);
+        engine.dispatchDue();
+
+        verify(scheduleRepository).markRemindersSent(argThat(sent ->
+                sent.size() == 1 && sent.get(0).getClaimedAt().equals(reminder.getClaimedAt())), any());
+    }
+
+    private static List<Long> ids(List<ReminderDTO> reminders) {
+        return reminders.stream().map(ReminderDTO::getScheduleId).toList();
+    }
+
+    private void claim(ReminderDTO... reminders) {
+        when(scheduleRepository.claimDueReminders(any(), any(), any(), any(), anyInt()))
+                .thenReturn(List.of(reminders))
+                .thenReturn(List.of());
+    }
+
+    private static ReminderDTO reminder(long scheduleId, String token) {
+        long now = System.currentTimeMillis();
+        return new ReminderDTO(scheduleId, 10L, 20L, new Date(now - 1000), "Write report", token, new Date(now - 2000));
+    }
+}
@@ -0,0 +1,110 @@
+package com.jalennorris.server.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Local stand-in for the Expo push API (send and getReceipts) on a random port.
+ *
+ * Every send request is recorded. Queued status codes are answered first, one per request;
+ * after that a request gets 200 with one ticket per message: an error ticket with
+ * DeviceNotRegistered for tokens marked unregistered, an ok ticket otherwise.
+ */
+class StubPushServer implements AutoCloseable {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpServer server;
+    private final Queue<Integer> statuses = new ConcurrentLinkedQueue<>();
+    private final Set<String> unregistered = ConcurrentHashMap.newKeySet();
+    private final List<JsonNode> sendRequests = Collections.synchronizedList(new ArrayList<>());
+    private final AtomicInteger ticketIds = new AtomicInteger();
+
+    StubPushServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/send", this::handleSend);
+        server.createContext("/getReceipts", exchange -> respond(exchange, 200, "{\"data\":{}}"));
+        server.start();
+    }
+
+    String sendUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/send";
+    }
+
+    String receiptsUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/getReceipts";
+    }
+
+    // Answer the next requests with these statuses (e.g. 500, 429) before succeeding
+    void failNext(int... codes) {
+        for (int code : codes) {
+            statuses.add(code);
+        }
+    }
+
+    void unregister(String token) {
+        unregistered.add(token);
+    }
+
+    // Bodies of the send requests received so far, each a JSON array of messages
+    List<JsonNode> sendRequests() {
+        synchronized (sendRequests) {
+            return new ArrayList<>(sendRequests);
+        }
+    }
+
+    int messagesReceived() {
+        return sendRequests().stream().mapToInt(JsonNode::size).sum();
+    }
+
+    private void handleSend(HttpExchange exchange) throws IOException {
+        JsonNode messages = objectMapper.readTree(exchange.getRequestBody());
+        sendRequests.add(messages);
+        Integer status = statuses.poll();
+        if (status != null) {
+            respond(exchange, status, "{\"errors\":[{\"code\":\"STUB\"}]}");
+            return;
+        }
+        StringBuilder body = new StringBuilder("{\"data\":[");
+        for (int i = 0; i < messages.size(); i++) {
+            if (i > 0) {
+                body.append(',');
+            }
+            String token = messages.get(i).path("to").asText();
+            if (unregistered.contains(token)) {
+                body.append("{\"status\":\"error\",\"details\":{\"error\":\"DeviceNotRegistered\"}}");
+            } else {
+                body.append("{\"status\":\"ok\",\"id\":\"ticket-").append(ticketIds.incrementAndGet()).append("\"}");
+            }
+        }
+        respond(exchange, 200, body.append("]}").toString());
+    }
+
+    private void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
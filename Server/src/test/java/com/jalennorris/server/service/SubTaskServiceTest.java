@@ -0,0 +1,90 @@
+package com.jalennorris.server.service;
+
+import com.jalennorris.server.Models.SubTaskModels;
+import com.jalennorris.server.Repository.SubTaskRepository;
+import com.jalennorris.server.Repository.TasksRepository;
+import com.jalennorris.server.query.KeysetQueryExecutor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SubTaskServiceTest {
+
+    private SubTaskRepository subTaskRepository;
+    private TasksRepository tasksRepository;
+    private SubTaskService service;
+
+    @BeforeEach
+    void setUp() {
+        subTaskRepository = mock(SubTaskRepository.class);
+        tasksRepository = mock(TasksRepository.class);
+        when(subTaskRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        service = new SubTaskService(subTaskRepository, tasksRepository, mock(OutboxService.class),
+                mock(KeysetQueryExecutor.class));
+    }
+
+    @Test
+    void patchWithoutCompletedKeepsTheFlag() {
+        when(subTaskRepository.findById(1L)).thenReturn(Optional.of(new SubTaskModels(1L, "Draft", "", true, 7L)));
+
+        SubTaskModels patched = service.patchSubTask(1L, Map.of("title", "Outline"));
+
+        assertThat(patched.getTitle()).isEqualTo("Outline");
+        assertThat(patched.isCompleted()).isTrue();
+        verify(tasksRepository, never()).adjustSubTaskCounters(anyLong(), anyInt(), anyInt());
+    }
+
+    @Test
+    void patchWithCompletedMovesTheDoneCounter() {
+        when(subTaskRepository.findById(1L)).thenReturn(Optional.of(new SubTaskModels(1L, "Draft", "", true, 7L)));
+
+        SubTaskModels patched = service.patchSubTask(1L, Map.of("completed", false));
+
+        assertThat(patched.isCompleted()).isFalse();
+        verify(tasksRepository).adjustSubTaskCounters(7L, 0, -1);
+    }
+
+    @Test
+    void reorderRequiresEverySubtaskOfTheTask() {
+        when(tasksRepository.lockById(7L)).thenReturn(7L);
+        when(subTaskRepository.countByTaskId(7L)).thenReturn(3L);
+
+        assertThatThrownBy(() -> service.reorderSubTasks(7L, List.of(3L, 1L)))
+                .isInstanceOf(IllegalArgumentException.class);
+        verify(subTaskRepository, never()).reorder(anyLong(), anyList());
+    }
+
+    @Test
+    void reorderRenumbersTheWholeTaskUnderItsLock() {
+        when(tasksRepository.lockById(7L)).thenReturn(7L);
+        when(subTaskRepository.countByTaskId(7L)).thenReturn(3L);
+        when(subTaskRepository.reorder(7L, List.of(3L, 1L, 2L))).thenReturn(3);
+
+        service.reorderSubTasks(7L, List.of(3L, 1L, 2L));
+
+        verify(tasksRepository).lockById(7L);
+        verify(subTaskRepository).reorder(7L, List.of(3L, 1L, 2L));
+    }
+
+    @Test
+    void patchRejectsValuesOfTheWrongType() {
+        when(subTaskRepository.findById(1L)).thenReturn(Optional.of(new SubTaskModels(1L, "Draft", "", true, 7L)));
+
+        assertThatThrownBy(() -> service.patchSubTask(1L, Map.of("completed", "yes")))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}